@@ -0,0 +1,213 @@
+package com.movie.app.cache;
+
+import com.movie.app.model.dto.ai.response.MovieRecommendation;
+import com.movie.app.util.TextNormalizer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+//Cache de respuestas de Gemini por prompt normalizado + huella del contexto del usuario
+@Component
+public class GeminiResponseCache {
+    private static final int SIGNATURE_SIZE = 64;
+    private static final long[] SEEDS = new long[SIGNATURE_SIZE];
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern NUMBER = Pattern.compile(".*\\d.*");
+    //Palabras que invierten el sentido de la siguiente ("sin romance" no es "con romance"); ya sin acentos
+    private static final Set<String> NEGATIONS = Set.of("no", "sin", "ni", "nunca", "nada", "ningun", "ninguna",
+            "excepto", "salvo", "menos", "not", "without", "never", "nor", "except");
+
+    static {
+        long seed = 0x9E3779B97F4A7C15L;
+        for (int i = 0; i < SIGNATURE_SIZE; i++) {
+            seed = mix(seed + 0x9E3779B97F4A7C15L);
+            SEEDS[i] = seed;
+        }
+    }
+
+    private final TtlLruCache<String, CachedRecommendation> cache;
+    private final Map<String, NearDuplicateEntry> anonymousPrompts;
+    private final Duration ttl;
+    private final boolean nearDuplicateEnabled;
+    private final double similarityThreshold;
+    private final Counter nearDuplicateHits;
+
+    public GeminiResponseCache(MeterRegistry meterRegistry,
+                               @Value("${ai.response-cache.max-size:2000}") int maxSize,
+                               @Value("${ai.response-cache.ttl-minutes:360}") long ttlMinutes,
+                               @Value("${ai.response-cache.near-duplicate.enabled:true}") boolean nearDuplicateEnabled,
+                               @Value("${ai.response-cache.near-duplicate.max-entries:500}") int maxNearDuplicateEntries,
+                               @Value("${ai.response-cache.near-duplicate.similarity-threshold:0.9}") double similarityThreshold) {
+        this.cache = new TtlLruCache<String, CachedRecommendation>(maxSize).bindTo(meterRegistry, "gemini.response");
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+        this.nearDuplicateEnabled = nearDuplicateEnabled;
+        this.similarityThreshold = similarityThreshold;
+        this.nearDuplicateHits = meterRegistry.counter("cache.near-duplicate.hits", "cache", "gemini.response");
+        this.anonymousPrompts = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, NearDuplicateEntry> eldest) {
+                return size() > maxNearDuplicateEntries;
+            }
+        };
+    }
+
+    //Buscar respuesta cacheada (exacta o, sin historial de usuario, casi duplicada)
+    public CachedRecommendation get(String prompt, Integer maxRecommendations, String userContext) {
+        String normalizedPrompt = TextNormalizer.fold(prompt);
+        CachedRecommendation exact = cache.get(key(normalizedPrompt, maxRecommendations, userContext));
+        if (exact != null || !isNearDuplicateCandidate(userContext)) {
+            return exact;
+        }
+
+        String similarKey = findSimilarKey(fingerprint(normalizedPrompt), maxRecommendations);
+        if (similarKey == null) {
+            return null;
+        }
+        CachedRecommendation similar = cache.get(similarKey);
+        if (similar != null) {
+            nearDuplicateHits.increment();
+        }
+        return similar;
+    }
+
+    public void put(String prompt, Integer maxRecommendations, String userContext, CachedRecommendation value) {
+        String normalizedPrompt = TextNormalizer.fold(prompt);
+        String key = key(normalizedPrompt, maxRecommendations, userContext);
+        cache.put(key, value, ttl);
+
+        if (isNearDuplicateCandidate(userContext)) {
+            NearDuplicateEntry entry = new NearDuplicateEntry(fingerprint(normalizedPrompt), maxRecommendations,
+                    System.nanoTime() + ttl.toNanos());
+            synchronized (anonymousPrompts) {
+                pruneExpired(System.nanoTime());
+                // Reinsertar para que el orden de inserción siga siendo el de expiración
+                anonymousPrompts.remove(key);
+                anonymousPrompts.put(key, entry);
+            }
+        }
+    }
+
+    private boolean isNearDuplicateCandidate(String userContext) {
+        return nearDuplicateEnabled && (userContext == null || userContext.isBlank());
+    }
+
+    //Solo compara prompts con los mismos números y negaciones: "años 80" nunca reutiliza "años 90"
+    private String findSimilarKey(PromptFingerprint fingerprint, Integer maxRecommendations) {
+        synchronized (anonymousPrompts) {
+            pruneExpired(System.nanoTime());
+            String bestKey = null;
+            double bestSimilarity = similarityThreshold;
+            for (Map.Entry<String, NearDuplicateEntry> entry : anonymousPrompts.entrySet()) {
+                NearDuplicateEntry candidate = entry.getValue();
+                if (!candidate.maxRecommendations().equals(maxRecommendations)
+                        || !candidate.fingerprint().guard().equals(fingerprint.guard())) {
+                    continue;
+                }
+                double similarity = estimateJaccard(fingerprint.signature(), candidate.fingerprint().signature());
+                if (similarity >= bestSimilarity) {
+                    bestSimilarity = similarity;
+                    bestKey = entry.getKey();
+                }
+            }
+            return bestKey;
+        }
+    }
+
+    //Todas las entradas comparten el TTL, así que las vencidas están al principio del orden de inserción
+    private void pruneExpired(long now) {
+        Iterator<NearDuplicateEntry> iterator = anonymousPrompts.values().iterator();
+        while (iterator.hasNext()) {
+            if (now - iterator.next().expiresAtNanos() < 0) {
+                return;
+            }
+            iterator.remove();
+        }
+    }
+
+    //Clave exacta: prompt normalizado + maxRecommendations + hash del contexto
+    private static String key(String normalizedPrompt, Integer maxRecommendations, String userContext) {
+        String contextHash = userContext == null || userContext.isBlank() ? "-" : sha256(userContext);
+        return sha256(normalizedPrompt + '\u0000' + maxRecommendations + '\u0000' + contextHash);
+    }
+
+    //Huella del prompt: firma MinHash sobre palabras y pares de palabras + tokens que deben coincidir exactamente
+    static PromptFingerprint fingerprint(String normalizedPrompt) {
+        String[] tokens = Arrays.stream(TOKEN_SEPARATOR.split(normalizedPrompt))
+                .filter(token -> !token.isEmpty())
+                .toArray(String[]::new);
+
+        int[] signature = new int[SIGNATURE_SIZE];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        StringBuilder guard = new StringBuilder();
+        for (int i = 0; i < tokens.length; i++) {
+            addShingle(signature, tokens[i]);
+            if (i + 1 < tokens.length) {
+                addShingle(signature, tokens[i] + ' ' + tokens[i + 1]);
+            }
+            if (NUMBER.matcher(tokens[i]).matches()) {
+                guard.append(tokens[i]).append('|');
+            } else if (NEGATIONS.contains(tokens[i])) {
+                guard.append(tokens[i]).append(' ').append(i + 1 < tokens.length ? tokens[i + 1] : "").append('|');
+            }
+        }
+        return new PromptFingerprint(signature, guard.toString());
+    }
+
+    private static void addShingle(int[] signature, String shingle) {
+        long shingleHash = shingle.hashCode();
+        for (int i = 0; i < SIGNATURE_SIZE; i++) {
+            int hash = (int) mix(shingleHash ^ SEEDS[i]);
+            if (hash < signature[i]) {
+                signature[i] = hash;
+            }
+        }
+    }
+
+    static double estimateJaccard(int[] a, int[] b) {
+        int equal = 0;
+        for (int i = 0; i < SIGNATURE_SIZE; i++) {
+            if (a[i] == b[i]) {
+                equal++;
+            }
+        }
+        return (double) equal / SIGNATURE_SIZE;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    public record CachedRecommendation(List<MovieRecommendation> recommendations, String explanation, String rawResponse) {
+    }
+
+    record PromptFingerprint(int[] signature, String guard) {
+    }
+
+    private record NearDuplicateEntry(PromptFingerprint fingerprint, Integer maxRecommendations, long expiresAtNanos) {
+    }
+}
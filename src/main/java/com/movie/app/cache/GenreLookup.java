@@ -0,0 +1,60 @@
+package com.movie.app.cache;
+
+import com.movie.app.model.external.Genre;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+//Nombres de género por idioma, indexados directamente por ID de TMDb (arreglo; los IDs son chicos y densos)
+@Component
+public class GenreLookup {
+    //IDs mayores se ignoran para no reservar un arreglo enorme por un dato inesperado
+    private static final int MAX_GENRE_ID = 65_535;
+
+    private final Map<String, String[]> namesByLanguage = new ConcurrentHashMap<>();
+
+    //Reemplazar la tabla de un idioma (el arreglo publicado no se modifica después)
+    public void update(String language, List<Genre> genres) {
+        int maxId = 0;
+        for (Genre genre : genres) {
+            if (genre.getId() != null && genre.getId() <= MAX_GENRE_ID) {
+                maxId = Math.max(maxId, genre.getId());
+            }
+        }
+        String[] names = new String[maxId + 1];
+        for (Genre genre : genres) {
+            if (genre.getId() != null && genre.getId() >= 0 && genre.getId() <= MAX_GENRE_ID) {
+                names[genre.getId()] = genre.getName();
+            }
+        }
+        namesByLanguage.put(language, names);
+    }
+
+    //Nombre del género o null si no se conoce
+    public String name(String language, int genreId) {
+        String[] names = namesByLanguage.get(language);
+        return names != null && genreId >= 0 && genreId < names.length ? names[genreId] : null;
+    }
+
+    //Nombres de los géneros conocidos, en el mismo orden que los IDs
+    public List<String> names(String language, List<Integer> genreIds) {
+        String[] names = namesByLanguage.get(language);
+        if (names == null || genreIds == null || genreIds.isEmpty()) {
+            return List.of();
+        }
+        List<String> resolved = new ArrayList<>(genreIds.size());
+        for (Integer id : genreIds) {
+            if (id != null && id >= 0 && id < names.length && names[id] != null) {
+                resolved.add(names[id]);
+            }
+        }
+        return List.copyOf(resolved);
+    }
+
+    public boolean isLoaded(String language) {
+        return namesByLanguage.containsKey(language);
+    }
+}
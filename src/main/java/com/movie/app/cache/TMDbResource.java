@@ -0,0 +1,30 @@
+package com.movie.app.cache;
+
+//Tipos de recurso de TMDb; cada uno tiene su propio TTL (tmdb.cache.ttl-minutes.<clave>)
+public enum TMDbResource {
+    SEARCH("search", 60),
+    DETAILS("details", 1440),
+    HYDRATED("hydrated", 1440),
+    CREDITS("credits", 10080),
+    VIDEOS("videos", 1440),
+    POPULAR("popular", 60),
+    TRENDING("trending", 60),
+    GENRES("genres", 10080),
+    DISCOVER("discover", 180);
+
+    private final String key;
+    private final long defaultTtlMinutes;
+
+    TMDbResource(String key, long defaultTtlMinutes) {
+        this.key = key;
+        this.defaultTtlMinutes = defaultTtlMinutes;
+    }
+
+    public String key() {
+        return key;
+    }
+
+    public long defaultTtlMinutes() {
+        return defaultTtlMinutes;
+    }
+}
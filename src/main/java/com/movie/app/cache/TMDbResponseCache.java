@@ -0,0 +1,175 @@
+package com.movie.app.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.movie.app.model.entity.TMDbCacheEntry;
+import com.movie.app.repository.TMDbCacheRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
+
+//Cache de dos niveles para TMDb: L1 en memoria (objetos ya deserializados) + L2 en Postgres (JSON crudo)
+@Component
+@Slf4j
+public class TMDbResponseCache {
+    private final TtlLruCache<String, Object> l1;
+    private final TMDbCacheRepository l2;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService virtualThreadExecutor;
+    private final Map<TMDbResource, Duration> ttls = new EnumMap<>(TMDbResource.class);
+    private final boolean l2Enabled;
+
+    private final Counter l2Hits;
+    private final Counter l2Misses;
+    private final Counter upstreamLoads;
+
+    public TMDbResponseCache(TMDbCacheRepository l2,
+                             ObjectMapper objectMapper,
+                             ExecutorService virtualThreadExecutor,
+                             MeterRegistry meterRegistry,
+                             Environment environment,
+                             @Value("${tmdb.cache.l1.max-size:5000}") int l1MaxSize,
+                             @Value("${tmdb.cache.l2.enabled:true}") boolean l2Enabled) {
+        this.l2 = l2;
+        this.objectMapper = objectMapper;
+        this.virtualThreadExecutor = virtualThreadExecutor;
+        this.l2Enabled = l2Enabled;
+        this.l1 = new TtlLruCache<String, Object>(l1MaxSize).bindTo(meterRegistry, "tmdb.l1");
+        for (TMDbResource resource : TMDbResource.values()) {
+            long minutes = environment.getProperty("tmdb.cache.ttl-minutes." + resource.key(),
+                    Long.class, resource.defaultTtlMinutes());
+            ttls.put(resource, Duration.ofMinutes(minutes));
+        }
+
+        this.l2Hits = meterRegistry.counter("cache.gets", "cache", "tmdb.l2", "result", "hit");
+        this.l2Misses = meterRegistry.counter("cache.gets", "cache", "tmdb.l2", "result", "miss");
+        this.upstreamLoads = meterRegistry.counter("tmdb.cache.upstream-loads");
+        Gauge.builder("cache.hit.ratio", l1, c -> ratio(c.hitCount(), c.missCount()))
+                .tag("cache", "tmdb.l1").register(meterRegistry);
+        Gauge.builder("cache.hit.ratio", this, c -> ratio(c.l2Hits.count(), c.l2Misses.count()))
+                .tag("cache", "tmdb.l2").register(meterRegistry);
+        // Ratio combinado: requests servidos sin llamar a TMDb
+        Gauge.builder("cache.hit.ratio", this, c -> ratio(c.l1.hitCount() + c.l2Hits.count(), c.upstreamLoads.count()))
+                .tag("cache", "tmdb").register(meterRegistry);
+    }
+
+    //Leer de L1, luego de L2 (promoviendo a L1), y recién entonces de TMDb (guardando en ambos)
+    public <T> T get(TMDbResource resource, String key, Class<T> type, Supplier<String> loader) {
+        String cacheKey = resource.key() + ":" + key;
+        Object cached = l1.get(cacheKey);
+        if (type.isInstance(cached)) {
+            return type.cast(cached);
+        }
+
+        Duration ttl = ttls.get(resource);
+        if (l2Enabled) {
+            Optional<String> stored = readL2(cacheKey);
+            if (stored.isPresent()) {
+                T value = deserialize(stored.get(), type);
+                if (value != null) {
+                    l2Hits.increment();
+                    l1.put(cacheKey, value, ttl);
+                    return value;
+                }
+            }
+            l2Misses.increment();
+        }
+
+        return load(resource, cacheKey, type, loader);
+    }
+
+    //Solo L1 (sin tocar la base ni TMDb): para separar aciertos de pendientes en operaciones por lote
+    public <T> T peek(TMDbResource resource, String key, Class<T> type) {
+        Object cached = l1.get(resource.key() + ":" + key);
+        return type.isInstance(cached) ? type.cast(cached) : null;
+    }
+
+    //Ir directo a TMDb y reemplazar lo cacheado en ambos niveles (refrescos en segundo plano)
+    public <T> T refresh(TMDbResource resource, String key, Class<T> type, Supplier<String> loader) {
+        return load(resource, resource.key() + ":" + key, type, loader);
+    }
+
+    public Duration ttl(TMDbResource resource) {
+        return ttls.get(resource);
+    }
+
+    private <T> T load(TMDbResource resource, String cacheKey, Class<T> type, Supplier<String> loader) {
+        Duration ttl = ttls.get(resource);
+        String payload = loader.get();
+        upstreamLoads.increment();
+        T value = deserialize(payload, type);
+        if (value == null) {
+            throw new IllegalStateException("Respuesta inválida de TMDb para " + cacheKey);
+        }
+        l1.put(cacheKey, value, ttl);
+        if (l2Enabled) {
+            writeL2Async(cacheKey, resource, payload, ttl);
+        }
+        return value;
+    }
+
+    //Limpiar entradas expiradas de L2
+    @Scheduled(fixedDelayString = "${tmdb.cache.l2.cleanup-interval-ms:3600000}")
+    public void evictExpired() {
+        if (!l2Enabled) {
+            return;
+        }
+        try {
+            int deleted = l2.deleteExpired(LocalDateTime.now());
+            if (deleted > 0) {
+                log.info("Cache L2 de TMDb: {} entradas expiradas eliminadas", deleted);
+            }
+        } catch (Exception e) {
+            log.warn("Error limpiando cache L2 de TMDb: {}", e.getMessage());
+        }
+    }
+
+    // Un fallo de la base no debe tumbar el request: L2 es solo una optimización
+    private Optional<String> readL2(String cacheKey) {
+        try {
+            return l2.findValid(cacheKey, LocalDateTime.now()).map(TMDbCacheEntry::getPayload);
+        } catch (Exception e) {
+            log.warn("Error leyendo cache L2 de TMDb ({}): {}", cacheKey, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    // Escritura fuera del camino del request (en virtual threads)
+    private void writeL2Async(String cacheKey, TMDbResource resource, String payload, Duration ttl) {
+        virtualThreadExecutor.execute(() -> {
+            try {
+                LocalDateTime now = LocalDateTime.now();
+                l2.upsert(cacheKey, resource.name(), payload, now.plus(ttl), now);
+            } catch (Exception e) {
+                log.warn("Error escribiendo cache L2 de TMDb ({}): {}", cacheKey, e.getMessage());
+            }
+        });
+    }
+
+    private <T> T deserialize(String payload, Class<T> type) {
+        try {
+            return objectMapper.readValue(payload, type);
+        } catch (JsonProcessingException e) {
+            log.warn("Payload de TMDb no deserializable como {}: {}", type.getSimpleName(), e.getOriginalMessage());
+            return null;
+        }
+    }
+
+    private static double ratio(double hits, double misses) {
+        double total = hits + misses;
+        return total == 0 ? 0 : hits / total;
+    }
+}
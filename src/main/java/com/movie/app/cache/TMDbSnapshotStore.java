@@ -0,0 +1,160 @@
+package com.movie.app.cache;
+
+import com.movie.app.client.TMDbRequestScheduler.Priority;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+//Snapshots inmutables de listas globales de TMDb (populares, tendencias, géneros): stale-while-revalidate
+@Component
+@Slf4j
+public class TMDbSnapshotStore {
+    private final Map<SnapshotKey, Entry> entries = new ConcurrentHashMap<>();
+    private final TMDbResponseCache tmdbResponseCache;
+    private final ExecutorService virtualThreadExecutor;
+    private final double refreshRatio;
+    private final long idleEvictionNanos;
+    private final int maxEntries;
+
+    private final Counter coldLoads;
+    private final Counter staleServed;
+    private final Counter refreshed;
+    private final Counter refreshFailed;
+
+    public TMDbSnapshotStore(TMDbResponseCache tmdbResponseCache,
+                             ExecutorService virtualThreadExecutor,
+                             MeterRegistry meterRegistry,
+                             @Value("${tmdb.snapshots.refresh-ratio:0.8}") double refreshRatio,
+                             @Value("${tmdb.snapshots.idle-eviction-minutes:60}") long idleEvictionMinutes,
+                             @Value("${tmdb.snapshots.max-entries:500}") int maxEntries) {
+        this.tmdbResponseCache = tmdbResponseCache;
+        this.virtualThreadExecutor = virtualThreadExecutor;
+        this.refreshRatio = refreshRatio;
+        this.idleEvictionNanos = Duration.ofMinutes(idleEvictionMinutes).toNanos();
+        this.maxEntries = maxEntries;
+        this.coldLoads = meterRegistry.counter("tmdb.snapshots.loads", "type", "cold");
+        this.staleServed = meterRegistry.counter("tmdb.snapshots.stale-served");
+        this.refreshed = meterRegistry.counter("tmdb.snapshots.loads", "type", "refresh");
+        this.refreshFailed = meterRegistry.counter("tmdb.snapshots.refresh.failed");
+        Gauge.builder("tmdb.snapshots.size", entries, Map::size).register(meterRegistry);
+    }
+
+    //Servir el snapshot vigente; si está por vencer se dispara un refresco en segundo plano y se sirve el actual.
+    //Solo la primera carga de una clave espera (y pasa por L1/L2 antes de llegar a TMDb).
+    public <T> T get(SnapshotKey key, Class<T> type, boolean pinned, Function<Priority, T> loader) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            if (entries.size() >= maxEntries) {
+                return loader.apply(Priority.INTERACTIVE);
+            }
+            entry = entries.computeIfAbsent(key, k -> new Entry(k, pinned, loader));
+        }
+        entry.lastAccessNanos = System.nanoTime();
+
+        Snapshot snapshot = entry.snapshot;
+        if (snapshot == null) {
+            snapshot = loadCold(entry);
+        } else if (isDue(entry, snapshot, System.nanoTime())) {
+            staleServed.increment();
+            refreshAsync(entry);
+        }
+        return type.cast(snapshot.value());
+    }
+
+    //Revisar snapshots: refrescar los que están por vencer y descartar los no fijados que nadie pide
+    @Scheduled(initialDelayString = "${tmdb.snapshots.check-interval-ms:60000}",
+            fixedDelayString = "${tmdb.snapshots.check-interval-ms:60000}")
+    public void refreshDue() {
+        long now = System.nanoTime();
+        for (Entry entry : entries.values()) {
+            if (!entry.pinned && now - entry.lastAccessNanos > idleEvictionNanos) {
+                entries.remove(entry.key, entry);
+                continue;
+            }
+            Snapshot snapshot = entry.snapshot;
+            if (snapshot != null && isDue(entry, snapshot, now)) {
+                refreshAsync(entry);
+            }
+        }
+    }
+
+    //ReentrantLock y no synchronized: la carga llama a TMDb y un virtual thread bloqueado dentro de synchronized
+    //queda fijado a su carrier (y los que esperan la misma clave también)
+    private Snapshot loadCold(Entry entry) {
+        entry.coldLoadLock.lock();
+        try {
+            if (entry.snapshot != null) {
+                return entry.snapshot;
+            }
+            try {
+                Snapshot snapshot = new Snapshot(entry.loader.apply(Priority.INTERACTIVE), System.nanoTime());
+                entry.snapshot = snapshot;
+                coldLoads.increment();
+                return snapshot;
+            } catch (RuntimeException e) {
+                entries.remove(entry.key, entry);
+                throw e;
+            }
+        } finally {
+            entry.coldLoadLock.unlock();
+        }
+    }
+
+    private boolean isDue(Entry entry, Snapshot snapshot, long now) {
+        long refreshAfter = (long) (tmdbResponseCache.ttl(entry.key.resource()).toNanos() * refreshRatio);
+        return now - snapshot.loadedAtNanos() >= refreshAfter;
+    }
+
+    // Un refresco a la vez por clave, con prioridad baja en el planificador de TMDb
+    private void refreshAsync(Entry entry) {
+        if (!entry.refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        virtualThreadExecutor.execute(() -> {
+            try {
+                entry.snapshot = new Snapshot(entry.loader.apply(Priority.BACKGROUND), System.nanoTime());
+                refreshed.increment();
+            } catch (RuntimeException e) {
+                refreshFailed.increment();
+                log.warn("Error refrescando snapshot {}: {}", entry.key, e.getMessage());
+            } finally {
+                entry.refreshing.set(false);
+            }
+        });
+    }
+
+    //Clave de snapshot: recurso + idioma + resto de parámetros (página, género, ventana)
+    public record SnapshotKey(TMDbResource resource, String language, String params) {
+    }
+
+    private record Snapshot(Object value, long loadedAtNanos) {
+    }
+
+    private static final class Entry {
+        private final SnapshotKey key;
+        private final boolean pinned;
+        private final Function<Priority, ?> loader;
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+        private final ReentrantLock coldLoadLock = new ReentrantLock();
+        private volatile Snapshot snapshot;
+        private volatile long lastAccessNanos = System.nanoTime();
+
+        private Entry(SnapshotKey key, boolean pinned, Function<Priority, ?> loader) {
+            this.key = key;
+            this.pinned = pinned;
+            this.loader = loader;
+        }
+    }
+}
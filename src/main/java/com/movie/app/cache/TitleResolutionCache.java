@@ -0,0 +1,41 @@
+package com.movie.app.cache;
+
+import com.movie.app.util.TextNormalizer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+//Cache título -> ID de TMDb, incluyendo resultados vacíos (cache negativo)
+@Component
+public class TitleResolutionCache {
+    //Marca de "TMDb no encontró resultados" (0 nunca es un ID válido de TMDb)
+    public static final int NO_MATCH = 0;
+
+    private final TtlLruCache<String, Integer> cache;
+    private final Duration ttl;
+    private final Duration negativeTtl;
+
+    public TitleResolutionCache(MeterRegistry meterRegistry,
+                                @Value("${ai.title-cache.max-size:10000}") int maxSize,
+                                @Value("${ai.title-cache.ttl-hours:24}") long ttlHours,
+                                @Value("${ai.title-cache.negative-ttl-minutes:60}") long negativeTtlMinutes) {
+        this.cache = new TtlLruCache<String, Integer>(maxSize).bindTo(meterRegistry, "tmdb.title-resolution");
+        this.ttl = Duration.ofHours(ttlHours);
+        this.negativeTtl = Duration.ofMinutes(negativeTtlMinutes);
+    }
+
+    //ID cacheado, NO_MATCH si TMDb no tuvo resultados, o null si no está en cache
+    public Integer get(String title) {
+        return cache.get(TextNormalizer.fold(title));
+    }
+
+    public void putMatch(String title, int movieId) {
+        cache.put(TextNormalizer.fold(title), movieId, ttl);
+    }
+
+    public void putNoMatch(String title) {
+        cache.put(TextNormalizer.fold(title), NO_MATCH, negativeTtl);
+    }
+}
@@ -0,0 +1,439 @@
+package com.movie.app.catalog;
+
+import com.movie.app.util.TextNormalizer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+//Índice de autocompletado inmutable sobre un snapshot del catálogo:
+//claves normalizadas (título completo y desde cada palabra) ordenadas en un único byte[],
+//con top-K por popularidad precalculado para prefijos cortos y para los de rango grande.
+//Las películas adultas (si no se incluyen) no generan claves: nunca ocupan lugares del top-K
+public final class AutocompleteIndex {
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^\\p{L}\\p{N}]+");
+    //Límite de profundidad para prefijos precalculados (títulos repetidos muy largos)
+    private static final int MAX_PRECOMPUTED_CHARS = 32;
+
+    public static final AutocompleteIndex EMPTY = new AutocompleteIndex(CatalogSnapshot.EMPTY, new byte[0],
+            new int[1], new int[0], Map.of(), 0, 0, 0, 0, false);
+
+    private final CatalogSnapshot snapshot;
+    //Claves concatenadas en orden; la clave i ocupa [keyOffsets[i], keyOffsets[i + 1])
+    private final byte[] keyBytes;
+    private final int[] keyOffsets;
+    //Registro del snapshot al que apunta cada clave
+    private final int[] keyRecords;
+    //Prefijo corto -> registros del snapshot, el más popular primero
+    private final Map<String, int[]> topByPrefix;
+    private final int maxPrefixLength;
+    private final int topK;
+    private final int maxScan;
+    //Parámetros que definen qué claves genera cada película (si cambian, no se reutiliza el índice anterior)
+    private final int maxWordsPerTitle;
+    private final boolean includeAdult;
+
+    private AutocompleteIndex(CatalogSnapshot snapshot, byte[] keyBytes, int[] keyOffsets, int[] keyRecords,
+                              Map<String, int[]> topByPrefix, int maxPrefixLength, int topK, int maxScan,
+                              int maxWordsPerTitle, boolean includeAdult) {
+        this.snapshot = snapshot;
+        this.keyBytes = keyBytes;
+        this.keyOffsets = keyOffsets;
+        this.keyRecords = keyRecords;
+        this.topByPrefix = topByPrefix;
+        this.maxPrefixLength = maxPrefixLength;
+        this.topK = topK;
+        this.maxScan = maxScan;
+        this.maxWordsPerTitle = maxWordsPerTitle;
+        this.includeAdult = includeAdult;
+    }
+
+    //Misma normalización para títulos y consultas: sin acentos, minúsculas, puntuación como espacio
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String ascii = normalizeAscii(text);
+        return ascii != null ? ascii : NON_ALPHANUMERIC.matcher(TextNormalizer.fold(text)).replaceAll(" ").trim();
+    }
+
+    // La mayoría de los títulos son ASCII: mismo resultado que fold + regex pero sin NFD ni matchers (o null si no aplica)
+    private static String normalizeAscii(String text) {
+        StringBuilder out = new StringBuilder(text.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= 0x80) {
+                return null;
+            }
+            if (c >= 'A' && c <= 'Z') {
+                c = (char) (c + ('a' - 'A'));
+            } else if (!(c >= 'a' && c <= 'z') && !(c >= '0' && c <= '9')) {
+                pendingSpace = out.length() > 0;
+                continue;
+            }
+            if (pendingSpace) {
+                out.append(' ');
+                pendingSpace = false;
+            }
+            out.append(c);
+        }
+        return out.toString();
+    }
+
+    public static AutocompleteIndex build(CatalogSnapshot snapshot, int maxWordsPerTitle, int maxPrefixLength,
+                                          int topK, int maxScan, boolean includeAdult) {
+        return update(EMPTY, snapshot, maxWordsPerTitle, maxPrefixLength, topK, maxScan, includeAdult);
+    }
+
+    //Índice para un snapshot nuevo reutilizando el anterior: las claves (ya normalizadas y ordenadas) de películas
+    //cuyo título no cambió se conservan y solo se generan y ordenan las de películas nuevas o modificadas, que
+    //luego se intercalan en una pasada. El top por prefijo se recalcula siempre (la popularidad cambia a diario)
+    public static AutocompleteIndex update(AutocompleteIndex previous, CatalogSnapshot snapshot, int maxWordsPerTitle,
+                                           int maxPrefixLength, int topK, int maxScan, boolean includeAdult) {
+        boolean compatible = previous.maxWordsPerTitle == maxWordsPerTitle && previous.includeAdult == includeAdult;
+        CatalogSnapshot old = compatible ? previous.snapshot : CatalogSnapshot.EMPTY;
+        int oldKeys = compatible ? previous.keyRecords.length : 0;
+
+        // Ambos snapshots están ordenados por ID: registro viejo -> registro nuevo si sus claves siguen siendo válidas
+        int[] oldToNew = new int[old.size()];
+        Arrays.fill(oldToNew, -1);
+        boolean[] reused = new boolean[snapshot.size()];
+        for (int i = 0, j = 0; i < old.size() && j < snapshot.size(); ) {
+            int oldId = old.movieId(i);
+            int newId = snapshot.movieId(j);
+            if (oldId < newId) {
+                i++;
+            } else if (oldId > newId) {
+                j++;
+            } else {
+                if (sameKeys(old, i, snapshot, j, includeAdult)) {
+                    oldToNew[i] = j;
+                    reused[j] = true;
+                }
+                i++;
+                j++;
+            }
+        }
+
+        KeyBuffer added = new KeyBuffer();
+        for (int record = 0; record < snapshot.size(); record++) {
+            if (!reused[record]) {
+                addKeys(added, snapshot, record, maxWordsPerTitle, includeAdult);
+            }
+        }
+        int[] order = added.sortedOrder();
+
+        // Intercalar las claves conservadas (ya en orden) con las nuevas ordenadas, copiándolas compactas
+        byte[] keyBytes = new byte[(compatible ? previous.keyBytes.length : 0) + added.byteCount];
+        int[] keyOffsets = new int[oldKeys + order.length + 1];
+        int[] keyRecords = new int[oldKeys + order.length];
+        int count = 0;
+        int position = 0;
+        int a = 0;
+        int b = 0;
+        while (true) {
+            while (a < oldKeys && oldToNew[previous.keyRecords[a]] < 0) {
+                a++;
+            }
+            if (a >= oldKeys && b >= order.length) {
+                break;
+            }
+            boolean takeOld = b >= order.length
+                    || (a < oldKeys && Arrays.compareUnsigned(
+                            previous.keyBytes, previous.keyOffsets[a], previous.keyOffsets[a + 1],
+                            added.bytes, added.offsets[order[b]], added.offsets[order[b] + 1]) <= 0);
+            byte[] source;
+            int begin;
+            int length;
+            if (takeOld) {
+                source = previous.keyBytes;
+                begin = previous.keyOffsets[a];
+                length = previous.keyOffsets[a + 1] - begin;
+                keyRecords[count] = oldToNew[previous.keyRecords[a++]];
+            } else {
+                int key = order[b++];
+                source = added.bytes;
+                begin = added.offsets[key];
+                length = added.offsets[key + 1] - begin;
+                keyRecords[count] = added.records[key];
+            }
+            System.arraycopy(source, begin, keyBytes, position, length);
+            keyOffsets[count++] = position;
+            position += length;
+        }
+        keyOffsets[count] = position;
+
+        AutocompleteIndex index = new AutocompleteIndex(snapshot, Arrays.copyOf(keyBytes, position),
+                Arrays.copyOf(keyOffsets, count + 1), Arrays.copyOf(keyRecords, count), new HashMap<>(),
+                maxPrefixLength, topK, maxScan, maxWordsPerTitle, includeAdult);
+        index.precompute(0, count, 1);
+        return index;
+    }
+
+    //Claves de una película: desde cada palabra del título y, si difiere, del título original
+    private static void addKeys(KeyBuffer keys, CatalogSnapshot snapshot, int record, int maxWordsPerTitle,
+                                boolean includeAdult) {
+        if (!includeAdult && snapshot.adult(record)) {
+            return;
+        }
+        String rawTitle = snapshot.title(record);
+        String rawOriginal = snapshot.originalTitle(record);
+        String title = normalize(rawTitle);
+        keys.addWordStarts(title, record, maxWordsPerTitle);
+        String original = rawOriginal.equals(rawTitle) ? title : normalize(rawOriginal);
+        if (!original.equals(title)) {
+            keys.addWordStarts(original, record, maxWordsPerTitle);
+        }
+    }
+
+    //Las claves de la película no cambian si sus títulos y (sin adultos) su marca de adulto son los mismos
+    private static boolean sameKeys(CatalogSnapshot old, int oldRecord, CatalogSnapshot current, int record,
+                                    boolean includeAdult) {
+        if (!includeAdult && old.adult(oldRecord) != current.adult(record)) {
+            return false;
+        }
+        return old.title(oldRecord).equals(current.title(record))
+                && old.originalTitle(oldRecord).equals(current.originalTitle(record));
+    }
+
+    //Registros del snapshot que empiezan con la consulta (título completo o alguna palabra), por popularidad
+    public int[] search(String normalizedQuery, int limit) {
+        if (normalizedQuery.isEmpty() || limit <= 0 || keyRecords.length == 0) {
+            return new int[0];
+        }
+        int[] top = topByPrefix.get(normalizedQuery);
+        if (top != null || normalizedQuery.length() <= maxPrefixLength) {
+            return top == null ? new int[0] : Arrays.copyOf(top, Math.min(limit, top.length));
+        }
+        byte[] prefix = normalizedQuery.getBytes(StandardCharsets.UTF_8);
+        int from = lowerBound(prefix);
+        int to = upperBound(prefix, from);
+        // Solo supera maxScan pasado MAX_PRECOMPUTED_CHARS; el tope mantiene acotada la latencia
+        return topRecords(from, Math.min(to, from + maxScan), Math.min(limit, topK));
+    }
+
+    public CatalogSnapshot snapshot() {
+        return snapshot;
+    }
+
+    public int keyCount() {
+        return keyRecords.length;
+    }
+
+    //Prefijos cortos: siempre precalculados. Más largos: solo si su rango supera maxScan (y solo pueden
+    //estar dentro de un rango grande del largo anterior), así una consulta nunca recorre más de maxScan claves
+    private void precompute(int from, int to, int chars) {
+        int start = from;
+        while (start < to) {
+            byte[] prefix = prefixBytes(start, chars);
+            if (prefix == null) {
+                start++;
+                continue;
+            }
+            int end = Math.min(upperBound(prefix, start), to);
+            boolean large = end - start > maxScan;
+            if (chars <= maxPrefixLength || large) {
+                topByPrefix.put(new String(prefix, StandardCharsets.UTF_8), topRecords(start, end, topK));
+            }
+            if ((chars < maxPrefixLength || large) && chars < MAX_PRECOMPUTED_CHARS) {
+                precompute(start, end, chars + 1);
+            }
+            start = end;
+        }
+    }
+
+    //Primeros "length" caracteres de la clave (respetando UTF-8), o null si la clave es más corta
+    private byte[] prefixBytes(int key, int chars) {
+        int begin = keyOffsets[key];
+        int end = keyOffsets[key + 1];
+        int position = begin;
+        for (int c = 0; c < chars; c++) {
+            if (position >= end) {
+                return null;
+            }
+            position += utf8Length(keyBytes[position]);
+        }
+        return Arrays.copyOfRange(keyBytes, begin, Math.min(position, end));
+    }
+
+    //Top-K de registros distintos en el rango [from, to) por popularidad (selección con arreglo chico ordenado)
+    private int[] topRecords(int from, int to, int k) {
+        int[] best = new int[k];
+        float[] scores = new float[k];
+        int size = 0;
+        for (int i = from; i < to; i++) {
+            int record = keyRecords[i];
+            float score = snapshot.popularity(record);
+            if (size == k && score <= scores[size - 1]) {
+                continue;
+            }
+            if (contains(best, size, record)) {
+                continue;
+            }
+            int slot = size < k ? size++ : k - 1;
+            while (slot > 0 && scores[slot - 1] < score) {
+                best[slot] = best[slot - 1];
+                scores[slot] = scores[slot - 1];
+                slot--;
+            }
+            best[slot] = record;
+            scores[slot] = score;
+        }
+        return Arrays.copyOf(best, size);
+    }
+
+    private static boolean contains(int[] values, int size, int value) {
+        for (int i = 0; i < size; i++) {
+            if (values[i] == value) return true;
+        }
+        return false;
+    }
+
+    //Primera clave >= prefix
+    private int lowerBound(byte[] prefix) {
+        int low = 0;
+        int high = keyRecords.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compare(mid, prefix, false) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    //Primera clave posterior a todas las que empiezan con prefix
+    private int upperBound(byte[] prefix, int from) {
+        int low = from;
+        int high = keyRecords.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compare(mid, prefix, true) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    //Comparar la clave con el prefijo; con asPrefix, una clave que empieza con el prefijo cuenta como igual
+    private int compare(int key, byte[] prefix, boolean asPrefix) {
+        int begin = keyOffsets[key];
+        int length = keyOffsets[key + 1] - begin;
+        int common = Math.min(length, prefix.length);
+        int diff = Arrays.compareUnsigned(keyBytes, begin, begin + common, prefix, 0, common);
+        if (diff != 0) {
+            return diff;
+        }
+        if (length >= prefix.length) {
+            return asPrefix || length == prefix.length ? 0 : 1;
+        }
+        return -1;
+    }
+
+    private static int utf8Length(byte lead) {
+        if ((lead & 0x80) == 0) return 1;
+        if ((lead & 0xE0) == 0xC0) return 2;
+        if ((lead & 0xF0) == 0xE0) return 3;
+        return 4;
+    }
+
+    //Acumulador de claves durante la construcción (arreglos primitivos que crecen)
+    private static final class KeyBuffer {
+        private byte[] bytes = new byte[1 << 16];
+        private int[] offsets = new int[1 << 12];
+        private int[] records = new int[1 << 12];
+        private long[] heads;
+        private int count;
+        private int byteCount;
+
+        KeyBuffer() {
+            offsets[0] = 0;
+        }
+
+        //"el señor de los anillos" -> "el señor...", "señor de...", "de los...", ... (hasta maxWords)
+        void addWordStarts(String normalized, int record, int maxWords) {
+            if (normalized.isEmpty()) {
+                return;
+            }
+            byte[] utf8 = normalized.getBytes(StandardCharsets.UTF_8);
+            int words = 0;
+            for (int i = 0; i < utf8.length && words < maxWords; i++) {
+                if (i == 0 || utf8[i - 1] == ' ') {
+                    add(utf8, i, record);
+                    words++;
+                }
+            }
+        }
+
+        private void add(byte[] source, int from, int record) {
+            int length = source.length - from;
+            if (byteCount + length > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, byteCount + length));
+            }
+            if (count + 2 > offsets.length) {
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+                records = Arrays.copyOf(records, records.length * 2);
+            }
+            System.arraycopy(source, from, bytes, byteCount, length);
+            records[count] = record;
+            byteCount += length;
+            offsets[++count] = byteCount;
+        }
+
+        //Permutación de claves en orden lexicográfico de bytes (merge sort sobre índices primitivos)
+        int[] sortedOrder() {
+            int[] order = new int[count];
+            heads = new long[count];
+            for (int i = 0; i < count; i++) {
+                order[i] = i;
+                heads[i] = head(i);
+            }
+            int[] buffer = new int[count];
+            for (int width = 1; width < count; width *= 2) {
+                for (int low = 0; low < count - width; low += 2 * width) {
+                    merge(order, buffer, low, low + width, Math.min(low + 2 * width, count));
+                }
+            }
+            return order;
+        }
+
+        private void merge(int[] order, int[] buffer, int low, int mid, int high) {
+            int i = low;
+            int j = mid;
+            int k = low;
+            while (i < mid && j < high) {
+                buffer[k++] = compareKeys(order[i], order[j]) <= 0 ? order[i++] : order[j++];
+            }
+            while (i < mid) buffer[k++] = order[i++];
+            while (j < high) buffer[k++] = order[j++];
+            System.arraycopy(buffer, low, order, low, high - low);
+        }
+
+        // Los primeros 8 bytes empaquetados resuelven casi todas las comparaciones sin ir al byte[]
+        private int compareKeys(int a, int b) {
+            int diff = Long.compareUnsigned(heads[a], heads[b]);
+            if (diff != 0) {
+                return diff;
+            }
+            return Arrays.compareUnsigned(bytes, offsets[a], offsets[a + 1], bytes, offsets[b], offsets[b + 1]);
+        }
+
+        //Primeros 8 bytes de la clave como long big-endian, completando con ceros
+        private long head(int key) {
+            long value = 0;
+            int begin = offsets[key];
+            int length = Math.min(offsets[key + 1] - begin, 8);
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | (i < length ? bytes[begin + i] & 0xFF : 0);
+            }
+            return value;
+        }
+    }
+}
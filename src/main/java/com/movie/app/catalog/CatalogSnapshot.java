@@ -0,0 +1,156 @@
+package com.movie.app.catalog;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+//Snapshot inmutable del catálogo mapeado en memoria (fuera del heap): registros de ancho fijo ordenados por ID + pool de strings
+//
+//Formato (big-endian):
+//  header  [magic:int][version:int][count:int][reserved:int][poolOffset:long][poolLength:long]
+//  records count x RECORD_SIZE, ordenados por ID (el propio bloque es el índice: búsqueda binaria por offset)
+//  pool    bytes UTF-8 de títulos y posters, referenciados por (offset, largo)
+public final class CatalogSnapshot {
+    static final int MAGIC = 0x4D434154; // "MCAT"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final int RECORD_SIZE = 32;
+
+    //Offsets dentro de cada registro
+    static final int ID = 0;
+    static final int POPULARITY = 4;
+    static final int TITLE_OFFSET = 8;
+    static final int ORIGINAL_TITLE_OFFSET = 12;
+    static final int POSTER_OFFSET = 16;
+    static final int TITLE_LENGTH = 20;
+    static final int ORIGINAL_TITLE_LENGTH = 22;
+    static final int POSTER_LENGTH = 24;
+    static final int YEAR = 26;
+    static final int FLAGS = 28;
+
+    static final int FLAG_ADULT = 1;
+    static final int FLAG_VIDEO = 2;
+
+    public static final CatalogSnapshot EMPTY = new CatalogSnapshot(null, ByteBuffer.allocate(0), 0, 0);
+
+    private final Path path;
+    private final ByteBuffer buffer;
+    private final int count;
+    private final int poolOffset;
+
+    private CatalogSnapshot(Path path, ByteBuffer buffer, int count, int poolOffset) {
+        this.path = path;
+        this.buffer = buffer;
+        this.count = count;
+        this.poolOffset = poolOffset;
+    }
+
+    //Mapear un archivo de snapshot (solo valida el header: no recorre los registros)
+    public static CatalogSnapshot open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+                throw new IOException("Tamaño de snapshot inválido: " + size);
+            }
+            // El mapeo sigue vigente después de cerrar el canal
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IOException("Snapshot con formato desconocido: " + path);
+            }
+            int count = buffer.getInt(8);
+            long poolOffset = buffer.getLong(16);
+            long poolLength = buffer.getLong(24);
+            if (count < 0 || poolOffset != HEADER_SIZE + (long) count * RECORD_SIZE || poolOffset + poolLength != size) {
+                throw new IOException("Snapshot truncado o corrupto: " + path);
+            }
+            return new CatalogSnapshot(path, buffer, count, (int) poolOffset);
+        }
+    }
+
+    //Posición del registro del ID o -1 (búsqueda binaria, sin asignaciones)
+    public int indexOf(int movieId) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int id = buffer.getInt(record(mid) + ID);
+            if (id < movieId) {
+                low = mid + 1;
+            } else if (id > movieId) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    public boolean contains(int movieId) {
+        return indexOf(movieId) >= 0;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    public int movieId(int index) {
+        return buffer.getInt(record(index) + ID);
+    }
+
+    public float popularity(int index) {
+        return buffer.getFloat(record(index) + POPULARITY);
+    }
+
+    //Año de estreno o 0 si no se conoce
+    public int year(int index) {
+        return buffer.getShort(record(index) + YEAR);
+    }
+
+    public boolean adult(int index) {
+        return (buffer.get(record(index) + FLAGS) & FLAG_ADULT) != 0;
+    }
+
+    public boolean video(int index) {
+        return (buffer.get(record(index) + FLAGS) & FLAG_VIDEO) != 0;
+    }
+
+    //Título localizado o, si no se conoce, el original
+    public String title(int index) {
+        int base = record(index);
+        return string(buffer.getInt(base + TITLE_OFFSET), Short.toUnsignedInt(buffer.getShort(base + TITLE_LENGTH)));
+    }
+
+    public String originalTitle(int index) {
+        int base = record(index);
+        return string(buffer.getInt(base + ORIGINAL_TITLE_OFFSET), Short.toUnsignedInt(buffer.getShort(base + ORIGINAL_TITLE_LENGTH)));
+    }
+
+    //Path del poster o null
+    public String posterPath(int index) {
+        int base = record(index);
+        int length = Short.toUnsignedInt(buffer.getShort(base + POSTER_LENGTH));
+        return length == 0 ? null : string(buffer.getInt(base + POSTER_OFFSET), length);
+    }
+
+    private int record(int index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return HEADER_SIZE + index * RECORD_SIZE;
+    }
+
+    // Lectura absoluta: no mueve la posición del buffer, así que es segura entre hilos
+    private String string(int offset, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(poolOffset + offset, bytes, 0, length);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
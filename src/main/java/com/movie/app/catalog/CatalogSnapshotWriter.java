@@ -0,0 +1,160 @@
+package com.movie.app.catalog;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static com.movie.app.catalog.CatalogSnapshot.*;
+
+//Escritor en streaming de snapshots: registros y pool van a archivos temporales y se unen al final (memoria constante)
+public final class CatalogSnapshotWriter implements AutoCloseable {
+    private static final int MAX_STRING_BYTES = 0xFFFF;
+    private static final byte[] PADDING = new byte[RECORD_SIZE - FLAGS - 1];
+
+    private final Path target;
+    private final Path recordsFile;
+    private final Path poolFile;
+    private final DataOutputStream records;
+    private final DataOutputStream pool;
+    private int count;
+    private int poolSize;
+    private int lastId = Integer.MIN_VALUE;
+    private boolean finished;
+
+    public CatalogSnapshotWriter(Path target) throws IOException {
+        this.target = target;
+        this.recordsFile = target.resolveSibling(target.getFileName() + ".records.tmp");
+        this.poolFile = target.resolveSibling(target.getFileName() + ".pool.tmp");
+        this.records = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(recordsFile), 1 << 16));
+        this.pool = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(poolFile), 1 << 16));
+    }
+
+    //Agregar una película; los IDs deben llegar en orden ascendente
+    public void add(int movieId, String title, String originalTitle, String posterPath, String releaseDate,
+                    double popularity, boolean adult, boolean video) throws IOException {
+        if (movieId <= lastId) {
+            throw new IllegalArgumentException("IDs fuera de orden: " + movieId + " después de " + lastId);
+        }
+        lastId = movieId;
+
+        byte[] original = utf8(originalTitle);
+        int originalOffset = append(original);
+        // Sin título localizado (o igual al original) se reutiliza el mismo tramo del pool
+        byte[] localized = title == null || title.isBlank() ? original : utf8(title);
+        int titleOffset = Arrays.equals(localized, original) ? originalOffset : append(localized);
+        byte[] poster = utf8(posterPath);
+        int posterOffset = poster.length == 0 ? 0 : append(poster);
+
+        records.writeInt(movieId);
+        records.writeFloat((float) popularity);
+        records.writeInt(titleOffset);
+        records.writeInt(originalOffset);
+        records.writeInt(posterOffset);
+        records.writeShort(localized.length);
+        records.writeShort(original.length);
+        records.writeShort(poster.length);
+        records.writeShort(year(releaseDate));
+        records.writeByte((adult ? FLAG_ADULT : 0) | (video ? FLAG_VIDEO : 0));
+        records.write(PADDING);
+        count++;
+    }
+
+    //Escribir header + registros + pool en un temporal y moverlo atómicamente al destino
+    public void finish() throws IOException {
+        records.close();
+        pool.close();
+        long poolOffset = HEADER_SIZE + (long) count * RECORD_SIZE;
+        if (poolOffset + poolSize > Integer.MAX_VALUE) {
+            throw new IOException("Snapshot demasiado grande para un único mapeo");
+        }
+
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                    .putInt(MAGIC).putInt(VERSION).putInt(count).putInt(0)
+                    .putLong(poolOffset).putLong(poolSize);
+            header.flip();
+            while (header.hasRemaining()) {
+                out.write(header);
+            }
+            transfer(recordsFile, out);
+            transfer(poolFile, out);
+            out.force(true);
+        }
+        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        finished = true;
+        deleteTemporaries();
+    }
+
+    public int count() {
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!finished) {
+            records.close();
+            pool.close();
+            deleteTemporaries();
+            Files.deleteIfExists(target.resolveSibling(target.getFileName() + ".tmp"));
+        }
+    }
+
+    private int append(byte[] bytes) throws IOException {
+        int offset = poolSize;
+        pool.write(bytes);
+        poolSize += bytes.length;
+        return offset;
+    }
+
+    private void deleteTemporaries() throws IOException {
+        Files.deleteIfExists(recordsFile);
+        Files.deleteIfExists(poolFile);
+    }
+
+    private static void transfer(Path source, FileChannel out) throws IOException {
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ)) {
+            long position = 0;
+            long size = in.size();
+            while (position < size) {
+                position += in.transferTo(position, size - position, out);
+            }
+        }
+    }
+
+    //UTF-8 recortado a lo que entra en el largo de 16 bits (sin partir un carácter multibyte)
+    private static byte[] utf8(String text) {
+        if (text == null) {
+            return new byte[0];
+        }
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length <= MAX_STRING_BYTES) {
+            return bytes;
+        }
+        int end = MAX_STRING_BYTES;
+        while (end > 0 && (bytes[end] & 0xC0) == 0x80) {
+            end--;
+        }
+        return Arrays.copyOf(bytes, end);
+    }
+
+    private static int year(String releaseDate) {
+        if (releaseDate == null || releaseDate.length() < 4) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(releaseDate.substring(0, 4));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
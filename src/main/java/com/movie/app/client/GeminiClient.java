@@ -0,0 +1,394 @@
+package com.movie.app.client;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonWriter;
+import com.movie.app.exception.BadRequestException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.*;
+import okio.BufferedSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+//Cliente HTTP de Gemini (generateContent y streamGenerateContent)
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class GeminiClient {
+    private static final MediaType JSON = MediaType.parse("application/json");
+
+    //Schema de salida; "recommendations" va primero para que el streaming entregue películas cuanto antes
+    private static final String RESPONSE_SCHEMA = """
+            {"type":"OBJECT","properties":{\
+            "recommendations":{"type":"ARRAY","items":{"type":"OBJECT","properties":{\
+            "movieId":{"type":"INTEGER"},"title":{"type":"STRING"},"reason":{"type":"STRING"}},\
+            "required":["movieId","title","reason"],"propertyOrdering":["movieId","title","reason"]}},\
+            "explanation":{"type":"STRING"}},\
+            "required":["recommendations","explanation"],"propertyOrdering":["recommendations","explanation"]}""";
+
+    private final OkHttpClient httpClient;
+    private final Gson gson;
+    private final UpstreamGuard geminiGuard;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> latencyTimers = new ConcurrentHashMap<>();
+
+    @Value("${gemini.api-key}")
+    private String geminiApiKey;
+
+    @Value("${gemini.model}")
+    private String geminiModel;
+
+    @Value("${gemini.base-url}")
+    private String geminiBaseUrl;
+
+    @Value("${gemini.max-tokens:1000}")
+    private int maxTokens;
+
+    @Value("${gemini.temperature:0.7}")
+    private double temperature;
+
+    @Value("${gemini.call-timeout-ms:20000}")
+    private long callTimeoutMs;
+
+    //Modelo rápido/barato para prompts simples y hedges (vacío = usar siempre gemini.model)
+    @Value("${gemini.fast-model:}")
+    private String fastModel;
+
+    @Value("${gemini.routing.enabled:false}")
+    private boolean routingEnabled;
+
+    //Prompts hasta este tamaño (sin historial de usuario) se consideran simples
+    @Value("${gemini.routing.simple-max-chars:2200}")
+    private int simpleMaxChars;
+
+    @Value("${gemini.hedging.enabled:false}")
+    private boolean hedgingEnabled;
+
+    //Modelo del request de respaldo (vacío = mismo modelo que el primario)
+    @Value("${gemini.hedging.model:}")
+    private String hedgeModel;
+
+    //Espera antes del hedge mientras no haya suficientes muestras para estimar el p95
+    @Value("${gemini.hedging.initial-delay-ms:6000}")
+    private long hedgeInitialDelayMs;
+
+    @Value("${gemini.hedging.min-delay-ms:1000}")
+    private long hedgeMinDelayMs;
+
+    @Value("${gemini.hedging.min-samples:20}")
+    private long hedgeMinSamples;
+
+    @Value("${gemini.dispatcher.max-requests-per-host:40}")
+    private int maxRequestsPerHost;
+
+    private OkHttpClient geminiHttpClient;
+    private Counter hedgesFired;
+
+    //Cliente con timeout total por llamada y dispatcher propio (el default limita a 5 requests async por host)
+    @PostConstruct
+    void init() {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(Math.max(maxRequestsPerHost, dispatcher.getMaxRequests()));
+        dispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+
+        geminiHttpClient = httpClient.newBuilder()
+                .dispatcher(dispatcher)
+                .callTimeout(callTimeoutMs, TimeUnit.MILLISECONDS)
+                .build();
+        hedgesFired = meterRegistry.counter("gemini.hedge.fired");
+    }
+
+    //Generar contenido completo: texto del primer candidato, uso de tokens y latencia total (incluye hedge)
+    public GeminiResult generate(String prompt) {
+        long startNanos = System.nanoTime();
+        GeminiResult result = geminiGuard.call(() -> doGenerate(prompt));
+        return result.withLatency(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+    }
+
+    //Generar contenido en streaming (SSE): entrega cada fragmento de texto y devuelve el texto completo
+    public GeminiResult stream(String prompt, Consumer<String> onChunk) {
+        long startNanos = System.nanoTime();
+        GeminiResult result = geminiGuard.call(() -> doStream(prompt, onChunk));
+        return result.withLatency(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+    }
+
+    //Llamada con hedging: si el primario no respondió al p95 observado, se lanza un segundo request
+    //y se usa el primero que termine bien, cancelando el otro
+    private GeminiResult doGenerate(String prompt) {
+        String model = routeModel(prompt);
+        Attempt primary = start(model, prompt);
+        if (!hedgingEnabled) {
+            return await(primary.result(), primary);
+        }
+
+        try {
+            return primary.result().get(hedgeDelayMs(model), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Sigue al hedge
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            primary.call().cancel();
+            Thread.currentThread().interrupt();
+            throw new BadRequestException("Request de IA interrumpido");
+        }
+
+        // El hedge es una llamada más hacia Gemini: ocupa su propio lugar en el bulkhead o no se lanza
+        UpstreamGuard.Permit hedgePermit = geminiGuard.tryAcquireExtraPermit();
+        if (hedgePermit == null) {
+            meterRegistry.counter("gemini.hedge.skipped", "reason", "bulkhead-full").increment();
+            return await(primary.result(), primary);
+        }
+        String backupModel = hedgeModel.isBlank() ? model : hedgeModel;
+        hedgesFired.increment();
+        log.debug("Gemini ({}) superó el p95, lanzando hedge a {}", model, backupModel);
+        Attempt hedge = start(backupModel, prompt);
+        hedge.result().whenComplete((result, error) -> hedgePermit.close());
+
+        // Primer resultado exitoso; falla solo si fallan ambos
+        CompletableFuture<GeminiResult> first = new CompletableFuture<>();
+        AtomicReference<String> winner = new AtomicReference<>("none");
+        AtomicInteger failures = new AtomicInteger();
+        for (Attempt attempt : List.of(primary, hedge)) {
+            String label = attempt == primary ? "primary" : "hedge";
+            attempt.result().whenComplete((result, error) -> {
+                if (error == null) {
+                    // El ganador se fija antes de completar: await puede volver apenas first se completa
+                    if (winner.compareAndSet("none", label)) {
+                        first.complete(result);
+                    }
+                } else if (failures.incrementAndGet() == 2) {
+                    first.completeExceptionally(error);
+                }
+            });
+        }
+
+        try {
+            return await(first, primary, hedge);
+        } finally {
+            primary.call().cancel();
+            hedge.call().cancel();
+            meterRegistry.counter("gemini.hedge.outcome", "winner", winner.get()).increment();
+        }
+    }
+
+    //Modelo según la complejidad del prompt (los simples van al modelo rápido)
+    private String routeModel(String prompt) {
+        String model = routingEnabled && !fastModel.isBlank() && prompt.length() <= simpleMaxChars
+                ? fastModel : geminiModel;
+        meterRegistry.counter("gemini.route", "model", model).increment();
+        return model;
+    }
+
+    //p95 observado del modelo (con piso), o la espera inicial si aún no hay suficientes muestras
+    private long hedgeDelayMs(String model) {
+        Timer timer = latencyTimer(model);
+        if (timer.count() >= hedgeMinSamples) {
+            for (ValueAtPercentile percentile : timer.takeSnapshot().percentileValues()) {
+                if (percentile.percentile() == 0.95) {
+                    return Math.max(hedgeMinDelayMs, (long) percentile.value(TimeUnit.MILLISECONDS));
+                }
+            }
+        }
+        return hedgeInitialDelayMs;
+    }
+
+    private Timer latencyTimer(String model) {
+        return latencyTimers.computeIfAbsent(model, m -> Timer.builder("gemini.latency")
+                .description("Latencia de generateContent por modelo")
+                .tag("model", m)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry));
+    }
+
+    //Encolar la llamada en el dispatcher de OkHttp (no bloquea; cancelable)
+    private Attempt start(String model, String prompt) {
+        String url = String.format("%s/%s:generateContent?key=%s",
+                geminiBaseUrl, model, geminiApiKey);
+        Call call = geminiHttpClient.newCall(buildRequest(url, prompt));
+        CompletableFuture<GeminiResult> result = new CompletableFuture<>();
+        long startNanos = System.nanoTime();
+        // Todo intento cuenta para el p95, también los fallidos y los cancelados (su duración es un mínimo):
+        // medir solo los exitosos subestima la cola y adelanta los hedges
+        result.whenComplete((r, error) -> latencyTimer(model).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS));
+
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                if (!call.isCanceled()) {
+                    log.error("Error al llamar a Gemini API ({})", model, e);
+                }
+                result.completeExceptionally(new BadRequestException("Error de conexión con el servicio de IA"));
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                try (response) {
+                    if (!response.isSuccessful()) {
+                        log.error("Error en Gemini API ({}): {}", model, response.code());
+                        result.completeExceptionally(new BadRequestException("Error al obtener recomendaciones de IA"));
+                        return;
+                    }
+
+                    String responseBody = response.body().string();
+                    log.debug("Respuesta de Gemini API ({}): {}", model, responseBody);
+
+                    JsonObject json = gson.fromJson(responseBody, JsonObject.class);
+                    result.complete(toResult(extractText(json), model, json.getAsJsonObject("usageMetadata"),
+                            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos)));
+                } catch (IOException e) {
+                    result.completeExceptionally(new BadRequestException("Error de conexión con el servicio de IA"));
+                } catch (RuntimeException e) {
+                    result.completeExceptionally(e);
+                }
+            }
+        });
+        return new Attempt(call, result);
+    }
+
+    private GeminiResult await(CompletableFuture<GeminiResult> result, Attempt... attempts) {
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            for (Attempt attempt : attempts) {
+                attempt.call().cancel();
+            }
+            Thread.currentThread().interrupt();
+            throw new BadRequestException("Request de IA interrumpido");
+        }
+    }
+
+    private RuntimeException unwrap(ExecutionException e) {
+        return e.getCause() instanceof RuntimeException cause
+                ? cause
+                : new BadRequestException("Error al obtener recomendaciones de IA");
+    }
+
+    private GeminiResult doStream(String prompt, Consumer<String> onChunk) {
+        String model = routeModel(prompt);
+        String url = String.format("%s/%s:streamGenerateContent?alt=sse&key=%s",
+                geminiBaseUrl, model, geminiApiKey);
+
+        try (Response response = geminiHttpClient.newCall(buildRequest(url, prompt)).execute()) {
+            if (!response.isSuccessful()) {
+                log.error("Error en Gemini API (stream): {}", response.code());
+                throw new BadRequestException("Error al obtener recomendaciones de IA");
+            }
+
+            StringBuilder fullText = new StringBuilder();
+            JsonObject usage = null;
+            BufferedSource source = response.body().source();
+            String line;
+            while ((line = source.readUtf8Line()) != null) {
+                if (!line.startsWith("data:")) {
+                    continue;
+                }
+                JsonObject event = gson.fromJson(line.substring(5).trim(), JsonObject.class);
+                // usageMetadata es acumulativo: el último fragmento trae los totales
+                if (event.has("usageMetadata")) {
+                    usage = event.getAsJsonObject("usageMetadata");
+                }
+                String chunk = extractText(event);
+                if (chunk != null && !chunk.isEmpty()) {
+                    fullText.append(chunk);
+                    onChunk.accept(chunk);
+                }
+            }
+
+            log.debug("Respuesta de Gemini API (stream): {}", fullText);
+            return toResult(fullText.toString(), model, usage, 0L);
+
+        } catch (IOException e) {
+            log.error("Error al llamar a Gemini API (stream)", e);
+            throw new BadRequestException("Error de conexión con el servicio de IA");
+        }
+    }
+
+    //Construir request con el prompt y la configuración de generación (JSON compacto escrito en streaming)
+    private Request buildRequest(String url, String prompt) {
+        StringWriter body = new StringWriter(prompt.length() + RESPONSE_SCHEMA.length() + 128);
+        try (JsonWriter writer = new JsonWriter(body)) {
+            writer.beginObject();
+            writer.name("contents").beginArray()
+                    .beginObject()
+                    .name("parts").beginArray()
+                    .beginObject().name("text").value(prompt).endObject()
+                    .endArray()
+                    .endObject()
+                    .endArray();
+
+            // Configuración de generación: salida JSON restringida al schema de recomendaciones
+            writer.name("generationConfig").beginObject()
+                    .name("temperature").value(temperature)
+                    .name("maxOutputTokens").value(maxTokens)
+                    .name("responseMimeType").value("application/json")
+                    .name("responseSchema").jsonValue(RESPONSE_SCHEMA)
+                    .endObject();
+            writer.endObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return new Request.Builder()
+                .url(url)
+                .post(RequestBody.create(body.toString(), JSON))
+                .build();
+    }
+
+    //Resultado con los contadores de usageMetadata (null si Gemini no los informó)
+    private GeminiResult toResult(String text, String model, JsonObject usage, long latencyMs) {
+        return new GeminiResult(text, model,
+                tokenCount(usage, "promptTokenCount"),
+                tokenCount(usage, "candidatesTokenCount"),
+                tokenCount(usage, "totalTokenCount"),
+                latencyMs);
+    }
+
+    private Integer tokenCount(JsonObject usage, String field) {
+        return usage != null && usage.has(field) ? usage.get(field).getAsInt() : null;
+    }
+
+    //Texto del primer candidato (null si el fragmento no trae texto)
+    private String extractText(JsonObject jsonResponse) {
+        JsonArray candidates = jsonResponse.getAsJsonArray("candidates");
+        if (candidates == null || candidates.isEmpty()) {
+            return null;
+        }
+        JsonObject content = candidates.get(0).getAsJsonObject().getAsJsonObject("content");
+        if (content == null || !content.has("parts")) {
+            return null;
+        }
+        JsonArray parts = content.getAsJsonArray("parts");
+        if (parts.isEmpty() || !parts.get(0).getAsJsonObject().has("text")) {
+            return null;
+        }
+        return parts.get(0).getAsJsonObject().get("text").getAsString();
+    }
+
+    //Llamada en curso y su resultado
+    private record Attempt(Call call, CompletableFuture<GeminiResult> result) {
+    }
+}
@@ -0,0 +1,10 @@
+package com.movie.app.client;
+
+//Texto generado por Gemini con el modelo que respondió, el uso de tokens (usageMetadata) y la latencia de la llamada
+public record GeminiResult(String text, String model, Integer promptTokens, Integer outputTokens,
+                           Integer totalTokens, long latencyMs) {
+
+    public GeminiResult withLatency(long latencyMs) {
+        return new GeminiResult(text, model, promptTokens, outputTokens, totalTokens, latencyMs);
+    }
+}
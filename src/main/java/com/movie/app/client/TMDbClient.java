@@ -0,0 +1,147 @@
+package com.movie.app.client;
+
+import com.movie.app.client.TMDbRequestScheduler.Priority;
+import com.movie.app.exception.ResourceNotFoundException;
+import com.movie.app.exception.ServiceUnavailableException;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.*;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+//Cliente HTTP de TMDb (API v3): devuelve el body JSON crudo; toda salida pasa por el planificador y el guard
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TMDbClient {
+    private static final int DEADLINE_EXCEEDED = -1;
+
+    private final OkHttpClient httpClient;
+    private final UpstreamGuard tmdbGuard;
+    private final TMDbRequestScheduler requestScheduler;
+
+    @Value("${tmdb.api-key}")
+    private String tmdbApiKey;
+
+    @Value("${tmdb.base-url}")
+    private String tmdbBaseUrl;
+
+    @Value("${tmdb.language:es-ES}")
+    private String language;
+
+    @Value("${tmdb.timeout:10000}")
+    private long timeoutMs;
+
+    @Value("${tmdb.rate-limit.max-retries:1}")
+    private int maxRetries;
+
+    private OkHttpClient tmdbHttpClient;
+
+    //Cliente de TMDb con timeout total por llamada (comparte pool con el cliente base)
+    @PostConstruct
+    void init() {
+        tmdbHttpClient = httpClient.newBuilder()
+                .callTimeout(timeoutMs, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    //GET a un path de TMDb (p. ej. "/movie/550") con prioridad interactiva
+    public String get(String path, Map<String, String> params) {
+        return get(path, params, Priority.INTERACTIVE);
+    }
+
+    //GET con prioridad explícita; ni 404 ni 429 cuentan como falla del servicio en el circuit breaker
+    public String get(String path, Map<String, String> params, Priority priority) {
+        return get(path, params, priority, requestScheduler.deadlineFor(priority), timeoutMs);
+    }
+
+    //GET acotado a un deadline del llamador (System.nanoTime()): la espera en cola y la llamada HTTP terminan
+    //a más tardar ahí; OkHttp aborta la llamada en curso al vencer su timeout
+    public String get(String path, Map<String, String> params, Priority priority, long deadlineNanos) {
+        long queueDeadline = requestScheduler.deadlineFor(priority);
+        long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+        if (remainingMs <= 0) {
+            throw new ServiceUnavailableException("Deadline agotado antes de llamar a TMDb");
+        }
+        return get(path, params, priority, deadlineNanos - queueDeadline < 0 ? deadlineNanos : queueDeadline,
+                Math.min(remainingMs, timeoutMs));
+    }
+
+    private String get(String path, Map<String, String> params, Priority priority, long queueDeadline, long callTimeoutMs) {
+        for (int attempt = 0; ; attempt++) {
+            // El token se pide antes del bulkhead para no ocupar permisos mientras se espera en cola
+            requestScheduler.acquire(priority, queueDeadline);
+            HttpResult result = tmdbGuard.call(() -> doGet(path, params, callTimeoutMs));
+            if (result.status() == 404) {
+                throw new ResourceNotFoundException("Recurso no encontrado en TMDb: " + path);
+            }
+            if (result.status() == DEADLINE_EXCEEDED) {
+                throw new ServiceUnavailableException("Deadline agotado llamando a TMDb");
+            }
+            if (result.status() != 429) {
+                return result.body();
+            }
+            requestScheduler.onRateLimited(result.retryAfter());
+            if (attempt >= maxRetries) {
+                throw new ServiceUnavailableException("TMDb saturado, intenta más tarde");
+            }
+        }
+    }
+
+    private HttpResult doGet(String path, Map<String, String> params, long callTimeoutMs) {
+        HttpUrl.Builder url = HttpUrl.get(tmdbBaseUrl + path).newBuilder()
+                .addQueryParameter("api_key", tmdbApiKey)
+                .addQueryParameter("language", params.getOrDefault("language", language));
+        params.forEach((name, value) -> {
+            if (!"language".equals(name)) {
+                url.addQueryParameter(name, value);
+            }
+        });
+
+        Request request = new Request.Builder().url(url.build()).build();
+        Call call = tmdbHttpClient.newCall(request);
+        call.timeout().timeout(callTimeoutMs, TimeUnit.MILLISECONDS);
+        try (Response response = call.execute()) {
+            if (response.code() == 404 || response.code() == 429) {
+                return new HttpResult(response.code(), null, retryAfter(response.header("Retry-After")));
+            }
+            if (!response.isSuccessful() || response.body() == null) {
+                log.error("Error en TMDb API {}: {}", path, response.code());
+                throw new ServiceUnavailableException("TMDb respondió " + response.code());
+            }
+            return new HttpResult(response.code(), response.body().string(), null);
+        } catch (InterruptedIOException e) {
+            // Timeout recortado por el deadline del llamador: no es una falla de TMDb para el circuit breaker
+            if (callTimeoutMs < timeoutMs) {
+                return new HttpResult(DEADLINE_EXCEEDED, null, null);
+            }
+            log.warn("Timeout llamando a TMDb {}: {}", path, e.getMessage());
+            throw new ServiceUnavailableException("TMDb no disponible temporalmente");
+        } catch (IOException e) {
+            log.warn("Error de red llamando a TMDb {}: {}", path, e.getMessage());
+            throw new ServiceUnavailableException("TMDb no disponible temporalmente");
+        }
+    }
+
+    //Retry-After en segundos (TMDb no usa el formato de fecha HTTP); null si falta o no se entiende
+    private static Duration retryAfter(String header) {
+        if (header == null) {
+            return null;
+        }
+        try {
+            return Duration.ofSeconds(Math.max(Long.parseLong(header.trim()), 0));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private record HttpResult(int status, String body, Duration retryAfter) {
+    }
+}
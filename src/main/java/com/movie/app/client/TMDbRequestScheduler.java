@@ -0,0 +1,164 @@
+package com.movie.app.client;
+
+import com.movie.app.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+//Planificador de salida hacia TMDb: token bucket según la cuota + carriles por prioridad con deadline
+@Component
+@Slf4j
+public class TMDbRequestScheduler {
+    //Orden de declaración = orden de atención
+    public enum Priority { INTERACTIVE, VERIFICATION, BACKGROUND }
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final Map<Priority, ArrayDeque<Thread>> lanes = new EnumMap<>(Priority.class);
+    private final Map<Priority, Duration> deadlines = new EnumMap<>(Priority.class);
+    private final Map<Priority, Timer> waitTimers = new EnumMap<>(Priority.class);
+    private final Map<Priority, Counter> expired = new EnumMap<>(Priority.class);
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private final Duration defaultRetryAfter;
+    private double tokens;
+    private long refilledAt = System.nanoTime();
+    private long pausedUntil = refilledAt;
+
+    private final Counter rateLimited;
+
+    public TMDbRequestScheduler(MeterRegistry meterRegistry,
+                                @Value("${tmdb.rate-limit.requests-per-second:40}") double requestsPerSecond,
+                                @Value("${tmdb.rate-limit.burst:20}") int burst,
+                                @Value("${tmdb.rate-limit.default-retry-after-ms:1000}") long defaultRetryAfterMs,
+                                @Value("${tmdb.rate-limit.deadline-ms.interactive:2000}") long interactiveDeadlineMs,
+                                @Value("${tmdb.rate-limit.deadline-ms.verification:1500}") long verificationDeadlineMs,
+                                @Value("${tmdb.rate-limit.deadline-ms.background:30000}") long backgroundDeadlineMs) {
+        this.capacity = Math.max(burst, 1);
+        this.tokens = capacity;
+        this.tokensPerNano = requestsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.defaultRetryAfter = Duration.ofMillis(defaultRetryAfterMs);
+        deadlines.put(Priority.INTERACTIVE, Duration.ofMillis(interactiveDeadlineMs));
+        deadlines.put(Priority.VERIFICATION, Duration.ofMillis(verificationDeadlineMs));
+        deadlines.put(Priority.BACKGROUND, Duration.ofMillis(backgroundDeadlineMs));
+
+        for (Priority priority : Priority.values()) {
+            String lane = priority.name().toLowerCase();
+            ArrayDeque<Thread> queue = new ArrayDeque<>();
+            lanes.put(priority, queue);
+            Gauge.builder("tmdb.scheduler.queue", this, s -> s.queueLength(priority))
+                    .tag("lane", lane).register(meterRegistry);
+            waitTimers.put(priority, Timer.builder("tmdb.scheduler.wait")
+                    .tag("lane", lane)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry));
+            expired.put(priority, meterRegistry.counter("tmdb.scheduler.rejected", "lane", lane, "reason", "deadline"));
+        }
+        this.rateLimited = meterRegistry.counter("tmdb.rate-limited");
+    }
+
+    //Deadline absoluto (nanoTime) para un request que empieza ahora en el carril dado
+    public long deadlineFor(Priority priority) {
+        return System.nanoTime() + deadlines.get(priority).toNanos();
+    }
+
+    //Esperar un token respetando la prioridad; ServiceUnavailableException si vence el deadline
+    public void acquire(Priority priority, long deadlineNanos) {
+        long start = System.nanoTime();
+        Thread current = Thread.currentThread();
+        ArrayDeque<Thread> lane = lanes.get(priority);
+        lock.lock();
+        try {
+            lane.addLast(current);
+            while (true) {
+                long now = System.nanoTime();
+                refill(now);
+                if (isNext(priority, current) && pausedUntil - now <= 0 && tokens >= 1) {
+                    tokens -= 1;
+                    lane.remove(current);
+                    changed.signalAll();
+                    waitTimers.get(priority).record(now - start, TimeUnit.NANOSECONDS);
+                    return;
+                }
+
+                // Momento más temprano en que podría salir; si cae después del deadline no tiene sentido esperar
+                long readyAt = Math.max(pausedUntil - now, tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) / tokensPerNano));
+                long remaining = deadlineNanos - now;
+                if (remaining <= 0 || (isNext(priority, current) && readyAt > remaining)) {
+                    lane.remove(current);
+                    changed.signalAll();
+                    expired.get(priority).increment();
+                    throw new ServiceUnavailableException("TMDb saturado, intenta más tarde");
+                }
+                changed.awaitNanos(Math.max(Math.min(readyAt, remaining), 1));
+            }
+        } catch (InterruptedException e) {
+            lane.remove(current);
+            changed.signalAll();
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Request a TMDb interrumpido");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //TMDb respondió 429: pausar la salida el tiempo indicado y vaciar el bucket
+    public void onRateLimited(Duration retryAfter) {
+        Duration pause = retryAfter != null ? retryAfter : defaultRetryAfter;
+        rateLimited.increment();
+        log.warn("TMDb devolvió 429, se pausan los requests por {} ms", pause.toMillis());
+        lock.lock();
+        try {
+            long until = System.nanoTime() + pause.toNanos();
+            if (until - pausedUntil > 0) {
+                pausedUntil = until;
+            }
+            tokens = 0;
+            refilledAt = pausedUntil;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int queueLength(Priority priority) {
+        lock.lock();
+        try {
+            return lanes.get(priority).size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //El hilo es el primero del carril no vacío de mayor prioridad
+    private boolean isNext(Priority priority, Thread thread) {
+        for (Priority p : Priority.values()) {
+            ArrayDeque<Thread> lane = lanes.get(p);
+            if (!lane.isEmpty()) {
+                return p == priority && lane.peekFirst() == thread;
+            }
+        }
+        return false;
+    }
+
+    private void refill(long now) {
+        long elapsed = now - refilledAt;
+        if (elapsed > 0) {
+            tokens = Math.min(capacity, tokens + elapsed * tokensPerNano);
+            refilledAt = now;
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.movie.app.client;
+
+import com.movie.app.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+//Bulkhead (concurrencia máxima) + circuit breaker por tasa de errores y llamadas lentas para un servicio externo
+@Slf4j
+public class UpstreamGuard {
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final String name;
+    private final Semaphore bulkhead;
+    private final long bulkheadMaxWaitMs;
+
+    private final boolean[] window;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long slowCallThresholdNanos;
+    private final long openDurationNanos;
+    private final int halfOpenTrialCalls;
+
+    private int windowIndex;
+    private int windowCount;
+    private int windowFailures;
+
+    private volatile State state = State.CLOSED;
+    private long openedAt;
+    private int halfOpenAdmitted;
+    private int halfOpenSucceeded;
+
+    private final Counter rejectedOpen;
+    private final Counter rejectedBulkhead;
+    private final Counter failures;
+    private final Counter slowCalls;
+
+    public UpstreamGuard(String name, Settings settings, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.bulkhead = new Semaphore(settings.maxConcurrentCalls());
+        this.bulkheadMaxWaitMs = settings.bulkheadMaxWait().toMillis();
+        this.window = new boolean[settings.windowSize()];
+        this.minimumCalls = settings.minimumCalls();
+        this.failureRateThreshold = settings.failureRateThreshold();
+        this.slowCallThresholdNanos = settings.slowCallThreshold().toNanos();
+        this.openDurationNanos = settings.openDuration().toNanos();
+        this.halfOpenTrialCalls = settings.halfOpenTrialCalls();
+
+        Gauge.builder("upstream.circuit.state", this, guard -> guard.state.ordinal())
+                .tag("upstream", name)
+                .description("0 = closed, 1 = open, 2 = half-open")
+                .register(meterRegistry);
+        Gauge.builder("upstream.bulkhead.available", bulkhead, Semaphore::availablePermits)
+                .tag("upstream", name)
+                .register(meterRegistry);
+        this.rejectedOpen = meterRegistry.counter("upstream.rejected", "upstream", name, "reason", "circuit-open");
+        this.rejectedBulkhead = meterRegistry.counter("upstream.rejected", "upstream", name, "reason", "bulkhead-full");
+        this.failures = meterRegistry.counter("upstream.calls.failed", "upstream", name);
+        this.slowCalls = meterRegistry.counter("upstream.calls.slow", "upstream", name);
+    }
+
+    //Ejecutar la llamada protegida; lanza ServiceUnavailableException si el circuito está abierto o el bulkhead lleno
+    public <T> T call(Supplier<T> supplier) {
+        if (!tryEnterCircuit()) {
+            rejectedOpen.increment();
+            throw new ServiceUnavailableException("Servicio " + name + " no disponible temporalmente");
+        }
+        if (!tryEnterBulkhead()) {
+            leaveHalfOpenTrial();
+            rejectedBulkhead.increment();
+            throw new ServiceUnavailableException("Servicio " + name + " saturado, intenta más tarde");
+        }
+
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            T result = supplier.get();
+            failed = false;
+            return result;
+        } finally {
+            bulkhead.release();
+            record(failed, System.nanoTime() - start);
+        }
+    }
+
+    //Lugar extra en el bulkhead para una llamada derivada de otra ya admitida (p. ej. un hedge): no espera ni pasa
+    //por el circuito, que ya evaluó la llamada original. null si el bulkhead está lleno
+    public Permit tryAcquireExtraPermit() {
+        if (!bulkhead.tryAcquire()) {
+            rejectedBulkhead.increment();
+            return null;
+        }
+        AtomicBoolean released = new AtomicBoolean();
+        return () -> {
+            if (released.compareAndSet(false, true)) {
+                bulkhead.release();
+            }
+        };
+    }
+
+    //Indica si una llamada sería admitida ahora (para decidir el modo degradado sin llamar)
+    public boolean isCallPermitted() {
+        State current = state;
+        if (current != State.OPEN) {
+            return true;
+        }
+        synchronized (this) {
+            return System.nanoTime() - openedAt >= openDurationNanos;
+        }
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    private synchronized boolean tryEnterCircuit() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAt < openDurationNanos) {
+                return false;
+            }
+            transitionTo(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenAdmitted >= halfOpenTrialCalls) {
+                return false;
+            }
+            halfOpenAdmitted++;
+        }
+        return true;
+    }
+
+    private synchronized void leaveHalfOpenTrial() {
+        if (state == State.HALF_OPEN && halfOpenAdmitted > 0) {
+            halfOpenAdmitted--;
+        }
+    }
+
+    private boolean tryEnterBulkhead() {
+        try {
+            return bulkhead.tryAcquire(bulkheadMaxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    //Registrar resultado: errores y llamadas lentas cuentan como fallos
+    private synchronized void record(boolean failed, long durationNanos) {
+        boolean slow = durationNanos > slowCallThresholdNanos;
+        if (failed) {
+            failures.increment();
+        }
+        if (slow) {
+            slowCalls.increment();
+        }
+        boolean failure = failed || slow;
+
+        if (state == State.HALF_OPEN) {
+            if (failure) {
+                transitionTo(State.OPEN);
+            } else if (++halfOpenSucceeded >= halfOpenTrialCalls) {
+                transitionTo(State.CLOSED);
+            }
+            return;
+        }
+        if (state == State.OPEN) {
+            return;
+        }
+
+        if (windowCount == window.length) {
+            if (window[windowIndex]) {
+                windowFailures--;
+            }
+        } else {
+            windowCount++;
+        }
+        window[windowIndex] = failure;
+        if (failure) {
+            windowFailures++;
+        }
+        windowIndex = (windowIndex + 1) % window.length;
+
+        if (windowCount >= minimumCalls && (double) windowFailures / windowCount >= failureRateThreshold) {
+            transitionTo(State.OPEN);
+        }
+    }
+
+    private void transitionTo(State next) {
+        log.warn("Circuit breaker de {}: {} -> {}", name, state, next);
+        state = next;
+        halfOpenAdmitted = 0;
+        halfOpenSucceeded = 0;
+        if (next == State.OPEN) {
+            openedAt = System.nanoTime();
+        }
+        if (next == State.CLOSED) {
+            windowIndex = 0;
+            windowCount = 0;
+            windowFailures = 0;
+        }
+    }
+
+    //Lugar reservado en el bulkhead; se libera al cerrar (una sola vez)
+    public interface Permit extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    public record Settings(int maxConcurrentCalls, Duration bulkheadMaxWait, int windowSize, int minimumCalls,
+                           double failureRateThreshold, Duration slowCallThreshold, Duration openDuration,
+                           int halfOpenTrialCalls) {
+    }
+}
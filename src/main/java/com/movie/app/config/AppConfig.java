@@ -6,6 +6,8 @@ import okhttp3.OkHttpClient;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
 @Configuration
@@ -22,11 +24,17 @@ public class AppConfig {
                 .build();
     }
 
-    //Bean de Gson para parsing JSON
+    //Bean de Gson para parsing JSON (serialización compacta para los bodies salientes)
     @Bean
     public Gson gson() {
         return new GsonBuilder()
-                .setPrettyPrinting()
+                .disableHtmlEscaping()
                 .create();
     }
+
+    //Executor de virtual threads para llamadas externas en paralelo (TMDb)
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService virtualThreadExecutor() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
 }
@@ -0,0 +1,39 @@
+package com.movie.app.config;
+
+import com.movie.app.client.UpstreamGuard;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+
+@Configuration
+public class ResilienceConfig {
+
+    //Bulkhead + circuit breaker para Gemini
+    @Bean
+    public UpstreamGuard geminiGuard(Environment env, MeterRegistry meterRegistry) {
+        return new UpstreamGuard("gemini", settings(env, "resilience.gemini", 20, 15000), meterRegistry);
+    }
+
+    //Bulkhead + circuit breaker para TMDb
+    @Bean
+    public UpstreamGuard tmdbGuard(Environment env, MeterRegistry meterRegistry) {
+        return new UpstreamGuard("tmdb", settings(env, "resilience.tmdb", 50, 3000), meterRegistry);
+    }
+
+    //Leer configuración del guard con valores por defecto
+    private UpstreamGuard.Settings settings(Environment env, String prefix, int defaultConcurrency, long defaultSlowCallMs) {
+        return new UpstreamGuard.Settings(
+                env.getProperty(prefix + ".max-concurrent-calls", Integer.class, defaultConcurrency),
+                Duration.ofMillis(env.getProperty(prefix + ".bulkhead-max-wait-ms", Long.class, 100L)),
+                env.getProperty(prefix + ".window-size", Integer.class, 20),
+                env.getProperty(prefix + ".minimum-calls", Integer.class, 10),
+                env.getProperty(prefix + ".failure-rate-threshold", Double.class, 0.5),
+                Duration.ofMillis(env.getProperty(prefix + ".slow-call-threshold-ms", Long.class, defaultSlowCallMs)),
+                Duration.ofMillis(env.getProperty(prefix + ".open-duration-ms", Long.class, 30000L)),
+                env.getProperty(prefix + ".half-open-trial-calls", Integer.class, 3)
+        );
+    }
+}
@@ -0,0 +1,10 @@
+package com.movie.app.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+//Habilitar tareas programadas (@Scheduled)
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
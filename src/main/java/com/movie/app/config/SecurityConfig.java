@@ -3,6 +3,7 @@ package com.movie.app.config;
 
 import com.movie.app.security.JwtAuthenticationEntryPoint;
 import com.movie.app.security.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -48,12 +49,17 @@ public class SecurityConfig {
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 // Configurar autorización de requests
                 .authorizeHttpRequests(auth -> auth
+                        // Dispatch asíncrono de los endpoints que devuelven CompletableFuture: el request original
+                        // ya pasó la autorización y el filtro JWT no vuelve a correr en este dispatch
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         // Endpoints públicos (sin autenticación)
                         .requestMatchers("/").permitAll()
                         .requestMatchers("/health").permitAll()
                         .requestMatchers("/favicon.ico").permitAll()
                         .requestMatchers("/api/auth/**").permitAll()
-                        .requestMatchers("/actuator/**").permitAll()
+                        .requestMatchers("/actuator/health", "/actuator/health/**").permitAll()
+                        // Métricas (latencias, cuotas, estado de upstreams) solo para usuarios autenticados
+                        .requestMatchers("/actuator/**").authenticated()
                         .requestMatchers("/error").permitAll()
                         // Endpoints públicos de películas (búsqueda y detalles)
                         .requestMatchers(HttpMethod.GET, "/api/movies/**").permitAll()
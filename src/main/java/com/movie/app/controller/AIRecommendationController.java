@@ -1,17 +1,31 @@
 package com.movie.app.controller;
 
+import com.movie.app.exception.GlobalExceptionHandler;
 import com.movie.app.model.dto.ai.request.AIRecommendationRequest;
+import com.movie.app.model.dto.ai.response.AIJobResponse;
 import com.movie.app.model.dto.ai.response.AIRecommendationResponse;
+import com.movie.app.model.dto.ai.response.ForYouRecommendationResponse;
 import com.movie.app.model.dto.auth.response.AILimitResponse;
 import com.movie.app.model.dto.common.ApiResponse;
 import com.movie.app.security.UserPrincipal;
+import com.movie.app.service.AIRecommendationJobService;
 import com.movie.app.service.AIRecommendationService;
+import com.movie.app.service.ForYouRecommendationService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.locks.ReentrantLock;
 
 @RestController
 @RequestMapping("/api/ai")
@@ -19,25 +33,127 @@ import org.springframework.web.bind.annotation.*;
 @Slf4j
 public class AIRecommendationController {
     private final AIRecommendationService aiRecommendationService;
+    private final AIRecommendationJobService aiRecommendationJobService;
+    private final ForYouRecommendationService forYouRecommendationService;
+    private final ExecutorService virtualThreadExecutor;
+
+    @Value("${ai.stream.timeout-ms:60000}")
+    private long streamTimeoutMs;
 
-    //Obtener recomendaciones de películas usando IA
+    //Obtener recomendaciones de películas usando IA (procesamiento asíncrono, libera el hilo del servlet)
     @PostMapping("/recommend")
-    public ResponseEntity<ApiResponse<AIRecommendationResponse>> getRecommendation(@AuthenticationPrincipal UserPrincipal userPrincipal,
-                                                                                   @Valid @RequestBody AIRecommendationRequest request) {
+    public CompletableFuture<ResponseEntity<ApiResponse<AIRecommendationResponse>>> getRecommendation(@AuthenticationPrincipal UserPrincipal userPrincipal,
+                                                                                                      @Valid @RequestBody AIRecommendationRequest request) {
 
         log.info("POST /api/ai/recommend - User: {}, Prompt: {}", userPrincipal.getId(), request.getPrompt());
 
-        AIRecommendationResponse recommendation = aiRecommendationService.getRecommendation(userPrincipal.getId(), request);
-        ApiResponse<AIRecommendationResponse> response =
-                ApiResponse.<AIRecommendationResponse>builder()
+        return aiRecommendationService.getRecommendationAsync(userPrincipal.getId(), request)
+                .thenApply(recommendation -> ResponseEntity.ok(
+                        ApiResponse.<AIRecommendationResponse>builder()
+                                .success(true)
+                                .message("Recomendaciones generadas exitosamente")
+                                .data(recommendation)
+                                .build()));
+    }
+
+    //Obtener recomendaciones en streaming (Server-Sent Events)
+    @PostMapping(value = "/recommend/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamRecommendation(@AuthenticationPrincipal UserPrincipal userPrincipal,
+                                           @Valid @RequestBody AIRecommendationRequest request) {
+        Long userId = userPrincipal.getId();
+        log.info("POST /api/ai/recommend/stream - User: {}, Prompt: {}", userId, request.getPrompt());
+
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        ReentrantLock sendLock = new ReentrantLock();
+        virtualThreadExecutor.execute(() -> {
+            try {
+                AIRecommendationResponse result = aiRecommendationService.streamRecommendation(
+                        userId, request, recommendation -> sendEvent(emitter, sendLock, "recommendation", recommendation));
+
+                // Evento final con la explicación y los requests restantes
+                sendEvent(emitter, sendLock, "complete", result);
+                emitter.complete();
+            } catch (Exception e) {
+                log.warn("Error en streaming de recomendaciones para usuario {}: {}", userId, e.getMessage());
+                sendEvent(emitter, sendLock, "error", GlobalExceptionHandler.toErrorResponse(e, "/api/ai/recommend/stream"));
+                emitter.complete();
+            }
+        });
+        return emitter;
+    }
+
+    //Enviar evento SSE (los eventos pueden llegar desde varios hilos de verificación); ReentrantLock y no
+    //synchronized para no fijar el virtual thread a su carrier mientras send() bloquea
+    private void sendEvent(SseEmitter emitter, ReentrantLock lock, String name, Object data) {
+        lock.lock();
+        try {
+            emitter.send(SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Cliente SSE desconectado: {}", e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //Encolar recomendación asíncrona (devuelve el ID del job de inmediato)
+    @PostMapping("/jobs")
+    public ResponseEntity<ApiResponse<AIJobResponse>> submitJob(@AuthenticationPrincipal UserPrincipal userPrincipal,
+                                                                @Valid @RequestBody AIRecommendationRequest request) {
+        log.info("POST /api/ai/jobs - User: {}, Prompt: {}", userPrincipal.getId(), request.getPrompt());
+
+        AIJobResponse job = aiRecommendationJobService.submit(userPrincipal.getId(), userPrincipal.getPlan(), request);
+        ApiResponse<AIJobResponse> response = ApiResponse.<AIJobResponse>builder()
+                .success(true)
+                .message("Recomendación en proceso")
+                .data(job)
+                .build();
+
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+    }
+
+    //Consultar job (waitMs > 0 para long-poll hasta que termine)
+    @GetMapping("/jobs/{jobId}")
+    public CompletableFuture<ResponseEntity<ApiResponse<AIJobResponse>>> getJob(@AuthenticationPrincipal UserPrincipal userPrincipal,
+                                                                               @PathVariable String jobId,
+                                                                               @RequestParam(defaultValue = "0") long waitMs) {
+        log.info("GET /api/ai/jobs/{} - User: {}, WaitMs: {}", jobId, userPrincipal.getId(), waitMs);
+
+        return aiRecommendationJobService.awaitJob(userPrincipal.getId(), jobId, waitMs)
+                .thenApply(job -> ResponseEntity.ok(ApiResponse.<AIJobResponse>builder()
                         .success(true)
-                        .message("Recomendaciones generadas exitosamente")
-                        .data(recommendation)
-                        .build();
+                        .data(job)
+                        .build()));
+    }
+
+    //Obtener recomendaciones del modelo local (filtrado colaborativo, sin IA ni consumo de cuota)
+    @GetMapping("/recommend/local")
+    public ResponseEntity<ApiResponse<AIRecommendationResponse>> getLocalRecommendation(@AuthenticationPrincipal UserPrincipal userPrincipal,
+                                                                                        @RequestParam(defaultValue = "10") int limit) {
+        log.info("GET /api/ai/recommend/local - User: {}", userPrincipal.getId());
+
+        AIRecommendationResponse recommendation = aiRecommendationService.getLocalRecommendation(userPrincipal.getId(), Math.min(Math.max(limit, 1), 50));
+        ApiResponse<AIRecommendationResponse> response = ApiResponse.<AIRecommendationResponse>builder()
+                .success(true)
+                .message("Recomendaciones generadas exitosamente")
+                .data(recommendation)
+                .build();
 
         return ResponseEntity.ok(response);
     }
 
+    //Obtener recomendaciones "Para ti" precalculadas (respuesta inmediata, sin IA en el request)
+    @GetMapping("/recommend/for-you")
+    public ResponseEntity<ApiResponse<ForYouRecommendationResponse>> getForYou(@AuthenticationPrincipal UserPrincipal userPrincipal) {
+        log.info("GET /api/ai/recommend/for-you - User: {}", userPrincipal.getId());
+
+        ForYouRecommendationResponse recommendation = forYouRecommendationService.getForYou(userPrincipal.getId());
+        ApiResponse<ForYouRecommendationResponse> response = ApiResponse.<ForYouRecommendationResponse>builder()
+                .success(true)
+                .data(recommendation)
+                .build();
+
+        return ResponseEntity.ok(response);
+    }
 
     //Verificar si el usuario puede hacer una request de IA
     @GetMapping("/can-request")
@@ -0,0 +1,178 @@
+package com.movie.app.controller;
+
+import com.movie.app.model.dto.common.ApiResponse;
+import com.movie.app.model.dto.movie.request.MovieBatchRequest;
+import com.movie.app.model.dto.movie.response.MovieBatchResponse;
+import com.movie.app.model.dto.movie.response.MovieSuggestion;
+import com.movie.app.model.external.TMDbCreditsResponse;
+import com.movie.app.model.external.TMDbGenreListResponse;
+import com.movie.app.model.external.TMDbMovieDetails;
+import com.movie.app.model.external.TMDbMovieListResponse;
+import com.movie.app.model.external.TMDbSearchResponse;
+import com.movie.app.model.external.TMDbVideoResponse;
+import com.movie.app.service.MovieAutocompleteService;
+import com.movie.app.service.TMDbService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/movies")
+@RequiredArgsConstructor
+@Slf4j
+public class MovieController {
+
+    private final TMDbService tmdbService;
+    private final MovieAutocompleteService movieAutocompleteService;
+
+    //Buscar películas por título
+    @GetMapping("/search")
+    public ResponseEntity<ApiResponse<TMDbSearchResponse>> searchMovies(@RequestParam String query,
+                                                                        @RequestParam(defaultValue = "1") int page) {
+        log.info("GET /api/movies/search - Query: {}, Page: {}", query, page);
+
+        TMDbSearchResponse results = tmdbService.searchMovies(query, page);
+        ApiResponse<TMDbSearchResponse> response = ApiResponse.<TMDbSearchResponse>builder()
+                .success(true)
+                .data(results)
+                .build();
+
+        return ResponseEntity.ok(response);
+    }
+
+    //Sugerencias por prefijo de título mientras el usuario escribe (índice local, sin llamar a TMDb)
+    @GetMapping("/autocomplete")
+    public ResponseEntity<ApiResponse<List<MovieSuggestion>>> autocomplete(@RequestParam String query,
+                                                                           @RequestParam(defaultValue = "10") int limit) {
+        log.debug("GET /api/movies/autocomplete - Query: {}, Limit: {}", query, limit);
+
+        List<MovieSuggestion> suggestions = movieAutocompleteService.suggest(query, limit);
+        ApiResponse<List<MovieSuggestion>> response = ApiResponse.<List<MovieSuggestion>>builder()
+                .success(true)
+                .data(suggestions)
+                .build();
+
+        return ResponseEntity.ok(response);
+    }
+
+    //Películas populares
+    @GetMapping("/popular")
+    public ResponseEntity<ApiResponse<TMDbMovieListResponse>> getPopularMovies(@RequestParam(defaultValue = "1") int page,
+                                                                               @RequestParam(required = false) String language) {
+        log.info("GET /api/movies/popular - Page: {}", page);
+
+        TMDbMovieListResponse movies = tmdbService.getPopularMovies(page, language);
+        ApiResponse<TMDbMovieListResponse> response = ApiResponse.<TMDbMovieListResponse>builder()
+                .success(true)
+                .data(movies)
+                .build();
+
+        return ResponseEntity.ok(response);
+    }
+
+    //Tendencias del día o de la semana
+    @GetMapping("/trending")
+    public ResponseEntity<ApiResponse<TMDbMovieListResponse>> getTrendingMovies(@RequestParam(defaultValue = "day") String window,
+                                                                                @RequestParam(defaultValue = "1") int page,
+                                                                                @RequestParam(required = false) String language) {
+        log.info("GET /api/movies/trending - Window: {}, Page: {}", window, page);
+
+        TMDbMovieListResponse movies = tmdbService.getTrendingMovies(window, page, language);
+        ApiResponse<TMDbMovieListResponse> response = ApiResponse.<TMDbMovieListResponse>builder()
+                .success(true)
+                .data(movies)
+                .build();
+
+        return ResponseEntity.ok(response);
+    }
+
+    //Lista de géneros
+    @GetMapping("/genres")
+    public ResponseEntity<ApiResponse<TMDbGenreListResponse>> getGenres(@RequestParam(required = false) String language) {
+        log.info("GET /api/movies/genres");
+
+        TMDbGenreListResponse genres = tmdbService.getGenres(language);
+        ApiResponse<TMDbGenreListResponse> response = ApiResponse.<TMDbGenreListResponse>builder()
+                .success(true)
+                .data(genres)
+                .build();
+
+        return ResponseEntity.ok(response);
+    }
+
+    //Películas por género
+    @GetMapping("/genre/{genreId}")
+    public ResponseEntity<ApiResponse<TMDbMovieListResponse>> getMoviesByGenre(@PathVariable Integer genreId,
+                                                                               @RequestParam(defaultValue = "1") int page,
+                                                                               @RequestParam(required = false) String language) {
+        log.info("GET /api/movies/genre/{} - Page: {}", genreId, page);
+
+        TMDbMovieListResponse movies = tmdbService.getMoviesByGenre(genreId, page, language);
+        ApiResponse<TMDbMovieListResponse> response = ApiResponse.<TMDbMovieListResponse>builder()
+                .success(true)
+                .data(movies)
+                .build();
+
+        return ResponseEntity.ok(response);
+    }
+
+    //Detalles completos (con créditos y videos) de varias películas a la vez
+    @PostMapping("/batch")
+    public ResponseEntity<ApiResponse<MovieBatchResponse>> getMoviesBatch(@Valid @RequestBody MovieBatchRequest request) {
+        log.info("POST /api/movies/batch - Movies: {}", request.getMovieIds().size());
+
+        MovieBatchResponse movies = tmdbService.getMoviesBatch(request.getMovieIds());
+        ApiResponse<MovieBatchResponse> response = ApiResponse.<MovieBatchResponse>builder()
+                .success(true)
+                .data(movies)
+                .build();
+
+        return ResponseEntity.ok(response);
+    }
+
+    //Detalles de una película
+    @GetMapping("/{movieId}")
+    public ResponseEntity<ApiResponse<TMDbMovieDetails>> getMovieDetails(@PathVariable Integer movieId) {
+        log.info("GET /api/movies/{}", movieId);
+
+        TMDbMovieDetails details = tmdbService.getMovieDetails(movieId);
+        ApiResponse<TMDbMovieDetails> response = ApiResponse.<TMDbMovieDetails>builder()
+                .success(true)
+                .data(details)
+                .build();
+
+        return ResponseEntity.ok(response);
+    }
+
+    //Reparto y equipo técnico
+    @GetMapping("/{movieId}/credits")
+    public ResponseEntity<ApiResponse<TMDbCreditsResponse>> getMovieCredits(@PathVariable Integer movieId) {
+        log.info("GET /api/movies/{}/credits", movieId);
+
+        TMDbCreditsResponse credits = tmdbService.getMovieCredits(movieId);
+        ApiResponse<TMDbCreditsResponse> response = ApiResponse.<TMDbCreditsResponse>builder()
+                .success(true)
+                .data(credits)
+                .build();
+
+        return ResponseEntity.ok(response);
+    }
+
+    //Videos (trailers, teasers)
+    @GetMapping("/{movieId}/videos")
+    public ResponseEntity<ApiResponse<TMDbVideoResponse>> getMovieVideos(@PathVariable Integer movieId) {
+        log.info("GET /api/movies/{}/videos", movieId);
+
+        TMDbVideoResponse videos = tmdbService.getMovieVideos(movieId);
+        ApiResponse<TMDbVideoResponse> response = ApiResponse.<TMDbVideoResponse>builder()
+                .success(true)
+                .data(videos)
+                .build();
+
+        return ResponseEntity.ok(response);
+    }
+}
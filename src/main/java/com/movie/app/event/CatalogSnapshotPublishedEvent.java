@@ -0,0 +1,7 @@
+package com.movie.app.event;
+
+import com.movie.app.catalog.CatalogSnapshot;
+
+//Evento publicado cuando un nuevo snapshot del catálogo pasa a ser el vigente
+public record CatalogSnapshotPublishedEvent(CatalogSnapshot snapshot) {
+}
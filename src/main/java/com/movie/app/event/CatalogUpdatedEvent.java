@@ -0,0 +1,7 @@
+package com.movie.app.event;
+
+import java.time.LocalDateTime;
+
+//Evento publicado al terminar una ingesta del catálogo local (movies) que aplicó cambios
+public record CatalogUpdatedEvent(long upserted, long deleted, LocalDateTime completedAt) {
+}
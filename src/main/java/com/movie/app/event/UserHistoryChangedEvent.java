@@ -0,0 +1,5 @@
+package com.movie.app.event;
+
+//Evento publicado cuando cambian los favoritos o calificaciones de un usuario
+public record UserHistoryChangedEvent(Long userId) {
+}
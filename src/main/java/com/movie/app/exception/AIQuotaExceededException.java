@@ -0,0 +1,8 @@
+package com.movie.app.exception;
+
+//Límite diario de IA alcanzado (se responde como BadRequest)
+public class AIQuotaExceededException extends BadRequestException {
+    public AIQuotaExceededException(String message) {
+        super(message);
+    }
+}
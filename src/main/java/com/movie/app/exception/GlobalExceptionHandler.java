@@ -16,6 +16,8 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
 
 @RestControllerAdvice
 public class GlobalExceptionHandler {
@@ -59,6 +61,32 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.FORBIDDEN).body(error);
     }
 
+    //TooManyRequestsException (429)
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ErrorResponse> handleTooManyRequests(TooManyRequestsException ex, HttpServletRequest request) {
+        ErrorResponse error = ErrorResponse.builder()
+                .status(HttpStatus.TOO_MANY_REQUESTS.value())
+                .error("Too Many Requests")
+                .message(ex.getMessage())
+                .path(request.getRequestURI())
+                .timestamp(LocalDateTime.now())
+                .build();
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(error);
+    }
+
+    //ServiceUnavailableException (503)
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<ErrorResponse> handleServiceUnavailable(ServiceUnavailableException ex, HttpServletRequest request) {
+        ErrorResponse error = ErrorResponse.builder()
+                .status(HttpStatus.SERVICE_UNAVAILABLE.value())
+                .error("Service Unavailable")
+                .message(ex.getMessage())
+                .path(request.getRequestURI())
+                .timestamp(LocalDateTime.now())
+                .build();
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(error);
+    }
+
     //Error de validacion @valid
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ValidationErrorResponse> handleValidationErrors(MethodArgumentNotValidException ex, HttpServletRequest request) {
@@ -117,6 +145,46 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
     }
 
+    //Mismo mapeo que los handlers para errores que no pasan por ellos (eventos SSE, jobs asíncronos):
+    //solo las excepciones propias exponen su mensaje, el resto usa el texto genérico
+    public static ErrorResponse toErrorResponse(Throwable ex, String path) {
+        Throwable cause = ex;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+
+        HttpStatus status;
+        String message = cause.getMessage();
+        if (cause instanceof BadRequestException || cause instanceof IllegalArgumentException) {
+            status = HttpStatus.BAD_REQUEST;
+        } else if (cause instanceof ResourceNotFoundException) {
+            status = HttpStatus.NOT_FOUND;
+        } else if (cause instanceof ForbiddenException) {
+            status = HttpStatus.FORBIDDEN;
+        } else if (cause instanceof TooManyRequestsException) {
+            status = HttpStatus.TOO_MANY_REQUESTS;
+        } else if (cause instanceof ServiceUnavailableException) {
+            status = HttpStatus.SERVICE_UNAVAILABLE;
+        } else if (cause instanceof AuthenticationException) {
+            status = HttpStatus.UNAUTHORIZED;
+            message = "Credenciales inválidas o sesión expirada";
+        } else if (cause instanceof AccessDeniedException) {
+            status = HttpStatus.FORBIDDEN;
+            message = "No tienes permisos para acceder a este recurso";
+        } else {
+            status = HttpStatus.INTERNAL_SERVER_ERROR;
+            message = "Ha ocurrido un error interno. Por favor intenta más tarde";
+        }
+
+        return ErrorResponse.builder()
+                .status(status.value())
+                .error(status.getReasonPhrase())
+                .message(message)
+                .path(path)
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+
     //Exception no controlada (500)
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleGeneralException(Exception ex, HttpServletRequest request) {
@@ -0,0 +1,20 @@
+package com.movie.app.model.converter;
+
+import com.movie.app.util.TextCompression;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+//Texto guardado comprimido con gzip en una columna BYTEA
+@Converter
+public class CompressedTextConverter implements AttributeConverter<String, byte[]> {
+
+    @Override
+    public byte[] convertToDatabaseColumn(String attribute) {
+        return TextCompression.gzip(attribute);
+    }
+
+    @Override
+    public String convertToEntityAttribute(byte[] dbData) {
+        return TextCompression.gunzip(dbData);
+    }
+}
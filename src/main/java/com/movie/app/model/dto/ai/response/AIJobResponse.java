@@ -0,0 +1,18 @@
+package com.movie.app.model.dto.ai.response;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AIJobResponse {
+    private String jobId;
+    private AIJobStatus status;
+    private LocalDateTime submittedAt;
+    private LocalDateTime completedAt;
+    private AIRecommendationResponse result;
+    private String error;
+}
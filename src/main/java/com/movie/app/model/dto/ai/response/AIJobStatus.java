@@ -0,0 +1,5 @@
+package com.movie.app.model.dto.ai.response;
+
+public enum AIJobStatus {
+    QUEUED, RUNNING, COMPLETED, FAILED
+}
@@ -0,0 +1,17 @@
+package com.movie.app.model.dto.ai.response;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ForYouRecommendationResponse {
+    private List<MovieRecommendation> recommendations;
+    private String explanation;
+    //null si todavía no hay recomendaciones precalculadas (se sirven las del modelo local)
+    private LocalDateTime generatedAt;
+}
@@ -0,0 +1,18 @@
+package com.movie.app.model.dto.movie.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MovieBatchRequest {
+    @NotEmpty(message = "Debe enviar al menos un ID de película")
+    @Size(max = 50, message = "Máximo 50 películas por request")
+    private List<@NotNull @Positive Integer> movieIds;
+}
@@ -0,0 +1,19 @@
+package com.movie.app.model.dto.movie.response;
+
+import com.movie.app.model.external.TMDbMovieDetails;
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MovieBatchResponse {
+    //En el mismo orden que los IDs pedidos
+    private List<TMDbMovieDetails> movies;
+    //IDs que TMDb no tiene (no existen o están eliminados)
+    private List<Integer> missingIds;
+    //IDs que no se pudieron obtener a tiempo o por un error de TMDb: reintentar más tarde
+    private List<Integer> unavailableIds;
+}
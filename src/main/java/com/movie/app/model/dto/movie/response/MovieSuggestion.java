@@ -0,0 +1,16 @@
+package com.movie.app.model.dto.movie.response;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MovieSuggestion {
+    private Integer movieId;
+    private String title;
+    private String originalTitle;
+    //null si no se conoce el año de estreno
+    private Integer year;
+    private String posterPath;
+}
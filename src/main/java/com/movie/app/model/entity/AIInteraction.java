@@ -1,5 +1,6 @@
 package com.movie.app.model.entity;
 
+import com.movie.app.model.converter.CompressedTextConverter;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
@@ -26,12 +27,21 @@ public class AIInteraction {
     @Column(nullable = false, columnDefinition = "TEXT")
     private String prompt;
 
-    @Column(nullable = false, columnDefinition = "TEXT")
+    //Respuesta de Gemini comprimida (gzip)
+    @Convert(converter = CompressedTextConverter.class)
+    @Column(nullable = false, columnDefinition = "BYTEA")
     private String response;
 
     @Column(name = "tokens_used")
     private Integer tokensUsed;
 
+    @Column(name = "prompt_tokens")
+    private Integer promptTokens;
+
+    //Latencia de la llamada a Gemini en milisegundos
+    @Column(name = "latency_ms")
+    private Integer latencyMs;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
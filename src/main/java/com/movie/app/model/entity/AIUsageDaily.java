@@ -0,0 +1,38 @@
+package com.movie.app.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+//Rollup diario de uso de IA por usuario (lo mantiene AIInteractionWriter en cada flush)
+@Entity
+@Table(name = "ai_usage_daily")
+@IdClass(AIUsageDailyId.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AIUsageDaily {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Id
+    @Column(name = "usage_date")
+    private LocalDate usageDate;
+
+    @Column(nullable = false)
+    private Integer requests;
+
+    @Column(name = "tokens_used", nullable = false)
+    private Long tokensUsed;
+
+    @Column(name = "prompt_tokens", nullable = false)
+    private Long promptTokens;
+
+    @Column(name = "latency_ms_total", nullable = false)
+    private Long latencyMsTotal;
+}
@@ -0,0 +1,14 @@
+package com.movie.app.model.entity;
+
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AIUsageDailyId implements Serializable {
+    private Long userId;
+    private LocalDate usageDate;
+}
@@ -0,0 +1,57 @@
+package com.movie.app.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+//Película del catálogo local (espejo del export diario de IDs de TMDb, enriquecido con datos de detalle)
+@Entity
+@Table(name = "movies")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CatalogMovie {
+
+    //Mismo ID que TMDb
+    @Id
+    private Integer id;
+
+    @Column(name = "original_title", nullable = false, columnDefinition = "TEXT")
+    private String originalTitle;
+
+    //original_title sin acentos ni mayúsculas (TextNormalizer.fold)
+    @Column(name = "normalized_title", nullable = false, columnDefinition = "TEXT")
+    private String normalizedTitle;
+
+    //Título localizado, conocido solo después de pedir el detalle a TMDb
+    @Column(columnDefinition = "TEXT")
+    private String title;
+
+    @Column(name = "normalized_local_title", columnDefinition = "TEXT")
+    private String normalizedLocalTitle;
+
+    @Column(name = "poster_path")
+    private String posterPath;
+
+    @Column(name = "release_date", length = 10)
+    private String releaseDate;
+
+    @Column(nullable = false)
+    private Double popularity;
+
+    @Column(nullable = false)
+    private Boolean adult;
+
+    @Column(nullable = false)
+    private Boolean video;
+
+    //Fecha en que el ID dejó de aparecer en el export (null = vigente)
+    @Column(name = "deleted_at")
+    private LocalDateTime deletedAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,33 @@
+package com.movie.app.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+//Respuesta de TMDb persistida (L2 del cache de TMDb, sobrevive reinicios)
+@Entity
+@Table(name = "tmdb_cache")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TMDbCacheEntry {
+
+    @Id
+    @Column(name = "cache_key", length = 512)
+    private String cacheKey;
+
+    @Column(nullable = false, length = 20)
+    private String resource;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,30 @@
+package com.movie.app.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+//Recomendaciones "Para ti" precalculadas (una fila por usuario, recomendaciones en JSON compacto)
+@Entity
+@Table(name = "user_recommendations")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserRecommendation {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String recommendations;
+
+    @Column(columnDefinition = "TEXT")
+    private String explanation;
+
+    @Column(name = "generated_at", nullable = false)
+    private LocalDateTime generatedAt;
+}
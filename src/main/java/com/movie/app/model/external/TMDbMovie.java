@@ -8,7 +8,7 @@ import java.util.List;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class TMDbMovie {
     private Integer id;
     private String title;
@@ -28,7 +28,11 @@ public class TMDbMovie {
     private Boolean adult;
     @JsonProperty("original_language")
     private String originalLanguage;
+    @JsonProperty("genre_ids")
     private List<Integer> genreIds;
     private Double popularity;
     private Boolean video;
+    //Nombres de género resueltos localmente (no viene de TMDb)
+    @JsonProperty("genre_names")
+    private List<String> genreNames;
 }
@@ -37,4 +37,7 @@ public class TMDbMovieDetails {
     @JsonProperty("imdb_id")
     private String imdbId;
     private String homepage;
+    //Solo presentes si se piden con append_to_response=credits,videos
+    private TMDbCreditsResponse credits;
+    private TMDbVideoResponse videos;
 }
\ No newline at end of file
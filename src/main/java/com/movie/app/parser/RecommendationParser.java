@@ -0,0 +1,117 @@
+package com.movie.app.parser;
+
+import com.google.gson.Strictness;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.movie.app.model.dto.ai.response.MovieRecommendation;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+//Parser de una sola pasada (JsonReader) para la respuesta de Gemini: recomendaciones + explicación sin regex ni árbol DOM
+public final class RecommendationParser {
+    public static final String DEFAULT_EXPLANATION = "Recomendaciones basadas en tus preferencias";
+
+    private RecommendationParser() {
+    }
+
+    //Parsear el primer objeto JSON del texto (ignora fences de markdown o texto previo)
+    public static ParsedRecommendations parse(String aiResponse) throws IOException {
+        int start = aiResponse.indexOf('{');
+        if (start == -1) {
+            throw new IOException("La respuesta no contiene un objeto JSON");
+        }
+
+        StringReader source = new StringReader(aiResponse);
+        source.skip(start);
+
+        List<MovieRecommendation> recommendations = new ArrayList<>();
+        String explanation = DEFAULT_EXPLANATION;
+
+        try (JsonReader reader = new JsonReader(source)) {
+            reader.setStrictness(Strictness.LENIENT);
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "recommendations" -> readRecommendations(reader, recommendations);
+                    case "explanation" -> {
+                        String value = readString(reader);
+                        if (value != null && !value.isBlank()) {
+                            explanation = value;
+                        }
+                    }
+                    default -> reader.skipValue();
+                }
+            }
+            // No se consume más allá del objeto raíz: el texto posterior se ignora
+        }
+
+        return new ParsedRecommendations(recommendations, explanation);
+    }
+
+    private static void readRecommendations(JsonReader reader, List<MovieRecommendation> target) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+            reader.skipValue();
+            return;
+        }
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                reader.skipValue();
+                continue;
+            }
+            int movieId = 0;
+            String title = null;
+            String reason = null;
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "movieId" -> movieId = readInt(reader);
+                    case "title" -> title = readString(reader);
+                    case "reason" -> reason = readString(reader);
+                    default -> reader.skipValue();
+                }
+            }
+            reader.endObject();
+
+            if (title != null) {
+                target.add(MovieRecommendation.builder()
+                        .movieId(movieId)
+                        .title(title)
+                        .reason(reason != null ? reason : "")
+                        .build());
+            }
+        }
+        reader.endArray();
+    }
+
+    private static int readInt(JsonReader reader) throws IOException {
+        JsonToken token = reader.peek();
+        if (token == JsonToken.NUMBER || token == JsonToken.STRING) {
+            try {
+                return reader.nextInt();
+            } catch (NumberFormatException e) {
+                // El valor queda en buffer: consumirlo para seguir leyendo
+                reader.skipValue();
+                return 0;
+            }
+        }
+        reader.skipValue();
+        return 0;
+    }
+
+    private static String readString(JsonReader reader) throws IOException {
+        JsonToken token = reader.peek();
+        if (token == JsonToken.STRING || token == JsonToken.NUMBER) {
+            return reader.nextString();
+        }
+        reader.skipValue();
+        return null;
+    }
+
+    public record ParsedRecommendations(List<MovieRecommendation> recommendations, String explanation) {
+    }
+}
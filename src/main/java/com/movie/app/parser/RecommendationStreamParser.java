@@ -0,0 +1,171 @@
+package com.movie.app.parser;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.Strictness;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.movie.app.model.dto.ai.response.MovieRecommendation;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.function.Consumer;
+
+//Parser incremental del arreglo "recommendations": emite cada objeto en cuanto se completa.
+//La explicación se lee al final solo del texto fuera del arreglo, sin volver a parsear la respuesta completa
+public class RecommendationStreamParser {
+    private static final String RECOMMENDATIONS_KEY = "\"recommendations\"";
+    private static final String EXPLANATION_KEY = "\"explanation\"";
+
+    private final Gson gson;
+    private final Consumer<MovieRecommendation> onRecommendation;
+    private final StringBuilder buffer = new StringBuilder();
+
+    private boolean inArray;
+    private boolean arrayClosed;
+    private int arrayKeyStart = -1;
+    private int arrayEnd = -1;
+    private int position;
+    private int depth;
+    private int objectStart = -1;
+    private boolean inString;
+    private boolean escaped;
+
+    public RecommendationStreamParser(Gson gson, Consumer<MovieRecommendation> onRecommendation) {
+        this.gson = gson;
+        this.onRecommendation = onRecommendation;
+    }
+
+    //Agregar un fragmento de texto generado por el modelo
+    public void feed(String chunk) {
+        buffer.append(chunk);
+        if (arrayClosed) {
+            return;
+        }
+
+        if (!inArray && !locateArrayStart()) {
+            return;
+        }
+        scan();
+    }
+
+    //Buscar el inicio del arreglo (la clave puede llegar partida entre fragmentos)
+    private boolean locateArrayStart() {
+        int key = buffer.indexOf(RECOMMENDATIONS_KEY);
+        if (key == -1) {
+            return false;
+        }
+        int bracket = buffer.indexOf("[", key + RECOMMENDATIONS_KEY.length());
+        if (bracket == -1) {
+            return false;
+        }
+        inArray = true;
+        arrayKeyStart = key;
+        position = bracket + 1;
+        return true;
+    }
+
+    //Explicación del objeto raíz (null si el modelo no la generó o quedó incompleta). Con el schema pedido
+    //a Gemini viene después del arreglo; igual se busca antes por si el modelo altera el orden
+    public String explanation() {
+        String before = readExplanation(0, arrayKeyStart == -1 ? buffer.length() : arrayKeyStart);
+        if (before != null || arrayEnd == -1) {
+            return before;
+        }
+        return readExplanation(arrayEnd, buffer.length());
+    }
+
+    private String readExplanation(int from, int to) {
+        int key = buffer.indexOf(EXPLANATION_KEY, from);
+        if (key == -1 || key >= to) {
+            return null;
+        }
+        int colon = buffer.indexOf(":", key + EXPLANATION_KEY.length());
+        if (colon == -1) {
+            return null;
+        }
+        try (JsonReader reader = new JsonReader(new StringReader(buffer.substring(colon + 1, to)))) {
+            reader.setStrictness(Strictness.LENIENT);
+            return reader.peek() == JsonToken.STRING ? reader.nextString() : null;
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private void scan() {
+        for (; position < buffer.length(); position++) {
+            char c = buffer.charAt(position);
+
+            if (inString) {
+                if (escaped) {
+                    escaped = false;
+                } else if (c == '\\') {
+                    escaped = true;
+                } else if (c == '"') {
+                    inString = false;
+                }
+                continue;
+            }
+
+            switch (c) {
+                case '"' -> inString = true;
+                case '{' -> {
+                    if (depth == 0) {
+                        objectStart = position;
+                    }
+                    depth++;
+                }
+                case '}' -> {
+                    depth--;
+                    if (depth == 0 && objectStart != -1) {
+                        emit(buffer.substring(objectStart, position + 1));
+                        objectStart = -1;
+                    }
+                }
+                case ']' -> {
+                    if (depth == 0) {
+                        arrayClosed = true;
+                        arrayEnd = position + 1;
+                        return;
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+    }
+
+    //Objetos malformados o sin título se descartan, igual que en RecommendationParser
+    private void emit(String json) {
+        JsonObject rec;
+        try {
+            rec = gson.fromJson(json, JsonObject.class);
+        } catch (JsonParseException e) {
+            return;
+        }
+        String title = stringOrNull(rec.get("title"));
+        if (title == null) {
+            return;
+        }
+        String reason = stringOrNull(rec.get("reason"));
+        onRecommendation.accept(MovieRecommendation.builder()
+                .movieId(intOrZero(rec.get("movieId")))
+                .title(title)
+                .reason(reason != null ? reason : "")
+                .build());
+    }
+
+    private static String stringOrNull(JsonElement element) {
+        return element != null && element.isJsonPrimitive() ? element.getAsString() : null;
+    }
+
+    private static int intOrZero(JsonElement element) {
+        try {
+            return element == null || !element.isJsonPrimitive() ? 0 : element.getAsInt();
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
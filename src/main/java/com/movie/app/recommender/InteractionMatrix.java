@@ -0,0 +1,74 @@
+package com.movie.app.recommender;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+//Interacciones usuario-película en arrays primitivos crecientes; las filas deben llegar agrupadas por usuario
+public final class InteractionMatrix {
+    private int[] movieIds = new int[1024];
+    private float[] weights = new float[1024];
+    private int[] userBoundaries = new int[256];
+    private int users;
+    private int size;
+    private long lastUserId = Long.MIN_VALUE;
+    private final Map<Integer, String> titles = new HashMap<>();
+
+    public void add(long userId, int movieId, float weight) {
+        if (userId != lastUserId) {
+            if (users + 1 >= userBoundaries.length) {
+                userBoundaries = Arrays.copyOf(userBoundaries, userBoundaries.length * 2);
+            }
+            userBoundaries[users++] = size;
+            lastUserId = userId;
+        }
+        if (size == movieIds.length) {
+            movieIds = Arrays.copyOf(movieIds, size * 2);
+            weights = Arrays.copyOf(weights, size * 2);
+        }
+        movieIds[size] = movieId;
+        weights[size] = weight;
+        size++;
+    }
+
+    public void putTitle(int movieId, String title) {
+        titles.put(movieId, title);
+    }
+
+    //Completar títulos de películas que no llegaron por favoritos (p. ej. solo calificadas) desde otra fuente
+    public void fillMissingTitles(IntFunction<String> lookup) {
+        for (int i = 0; i < size; i++) {
+            int movieId = movieIds[i];
+            if (!titles.containsKey(movieId)) {
+                String title = lookup.apply(movieId);
+                if (title != null && !title.isEmpty()) {
+                    titles.put(movieId, title);
+                }
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    int[] movieIds() {
+        return movieIds;
+    }
+
+    float[] weights() {
+        return weights;
+    }
+
+    Map<Integer, String> titles() {
+        return titles;
+    }
+
+    //Inicio de las filas de cada usuario, con el total de filas como último elemento
+    int[] userBoundaries() {
+        int[] boundaries = Arrays.copyOf(userBoundaries, users + 1);
+        boundaries[users] = size;
+        return boundaries;
+    }
+}
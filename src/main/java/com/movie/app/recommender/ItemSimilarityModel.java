@@ -0,0 +1,325 @@
+package com.movie.app.recommender;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+//Modelo item-item inmutable. Películas con índice denso (posición en movieIds ordenado) y vecinos en formato CSR,
+//todo en arrays primitivos para evitar boxing en la construcción y en el scoring
+public final class ItemSimilarityModel {
+    public static final ItemSimilarityModel EMPTY = new ItemSimilarityModel(
+            new int[0], new String[0], new int[]{0}, new int[0], new float[0], new int[0], Instant.EPOCH);
+
+    //IDs de TMDb ordenados (índice denso = posición)
+    private final int[] movieIds;
+    //Título conocido por índice denso (null si no está en favoritos ni en el snapshot del catálogo)
+    private final String[] titles;
+    //Vecinos del ítem i en [neighborOffsets[i], neighborOffsets[i + 1])
+    private final int[] neighborOffsets;
+    private final int[] neighbors;
+    private final float[] similarities;
+    //Índices densos ordenados por popularidad descendente (para usuarios sin historial)
+    private final int[] byPopularity;
+    private final Instant builtAt;
+
+    private ItemSimilarityModel(int[] movieIds, String[] titles, int[] neighborOffsets, int[] neighbors,
+                                float[] similarities, int[] byPopularity, Instant builtAt) {
+        this.movieIds = movieIds;
+        this.titles = titles;
+        this.neighborOffsets = neighborOffsets;
+        this.neighbors = neighbors;
+        this.similarities = similarities;
+        this.byPopularity = byPopularity;
+        this.builtAt = builtAt;
+    }
+
+    public int itemCount() {
+        return movieIds.length;
+    }
+
+    public int neighborCount() {
+        return neighbors.length;
+    }
+
+    public Instant builtAt() {
+        return builtAt;
+    }
+
+    //Candidatas puntuadas a partir de las películas semilla del usuario (excluye todo lo que ya vio)
+    public List<ScoredMovie> recommend(int[] seedMovieIds, float[] seedWeights, int[] excludedMovieIds, int limit) {
+        if (movieIds.length == 0 || limit <= 0) {
+            return List.of();
+        }
+
+        boolean[] excluded = new boolean[movieIds.length];
+        for (int movieId : excludedMovieIds) {
+            int index = indexOf(movieId);
+            if (index >= 0) excluded[index] = true;
+        }
+
+        CandidateAccumulator candidates = new CandidateAccumulator(64);
+        for (int s = 0; s < seedMovieIds.length; s++) {
+            int seed = indexOf(seedMovieIds[s]);
+            if (seed < 0) continue;
+            for (int n = neighborOffsets[seed]; n < neighborOffsets[seed + 1]; n++) {
+                int candidate = neighbors[n];
+                if (excluded[candidate] || titles[candidate] == null) continue;
+                candidates.add(candidate, seedWeights[s] * similarities[n], seed);
+            }
+        }
+
+        List<ScoredMovie> result = candidates.top(limit, this);
+        if (result.size() < limit) {
+            // Completar con populares para usuarios con poco historial
+            boolean[] taken = excluded.clone();
+            result.forEach(m -> taken[indexOf(m.movieId())] = true);
+            for (int index : byPopularity) {
+                if (result.size() >= limit) break;
+                if (taken[index] || titles[index] == null) continue;
+                result.add(new ScoredMovie(movieIds[index], titles[index], 0f, null));
+            }
+        }
+        return result;
+    }
+
+    private int indexOf(int movieId) {
+        return Arrays.binarySearch(movieIds, movieId);
+    }
+
+    //Película recomendada; becauseOf es el título de la semilla que más aportó (null si viene de populares)
+    public record ScoredMovie(int movieId, String title, float score, String becauseOf) {
+    }
+
+    //Construir el modelo desde interacciones agrupadas por usuario (similitud coseno sobre pesos implícitos)
+    public static ItemSimilarityModel build(InteractionMatrix interactions, int maxNeighbors, int minCoRaters) {
+        int rows = interactions.size();
+        if (rows == 0) {
+            return EMPTY;
+        }
+
+        // 1. Índice denso de películas
+        int[] sortedIds = Arrays.copyOf(interactions.movieIds(), rows);
+        Arrays.sort(sortedIds);
+        int distinct = 0;
+        for (int i = 0; i < rows; i++) {
+            if (i == 0 || sortedIds[i] != sortedIds[i - 1]) sortedIds[distinct++] = sortedIds[i];
+        }
+        int[] movieIds = Arrays.copyOf(sortedIds, distinct);
+        int items = distinct;
+
+        int[] rowItem = new int[rows];
+        float[] norms = new float[items];
+        int[] itemDegree = new int[items];
+        String[] titles = new String[items];
+        for (int r = 0; r < rows; r++) {
+            int item = Arrays.binarySearch(movieIds, interactions.movieIds()[r]);
+            rowItem[r] = item;
+            float w = interactions.weights()[r];
+            norms[item] += w * w;
+            itemDegree[item]++;
+        }
+        interactions.titles().forEach((movieId, title) -> {
+            int item = Arrays.binarySearch(movieIds, movieId);
+            if (item >= 0) titles[item] = title;
+        });
+
+        // 2. Límites de usuario (las filas vienen ordenadas por usuario)
+        int[] userStart = interactions.userBoundaries();
+        int users = userStart.length - 1;
+        int[] rowUser = new int[rows];
+        for (int u = 0; u < users; u++) {
+            Arrays.fill(rowUser, userStart[u], userStart[u + 1], u);
+        }
+
+        // 3. Índice invertido ítem -> filas (CSR)
+        int[] itemStart = new int[items + 1];
+        for (int item = 0; item < items; item++) itemStart[item + 1] = itemStart[item] + itemDegree[item];
+        int[] itemRows = new int[rows];
+        int[] cursor = Arrays.copyOf(itemStart, items);
+        for (int r = 0; r < rows; r++) itemRows[cursor[rowItem[r]]++] = r;
+
+        // 4. Co-ocurrencias por ítem con acumuladores densos reutilizados
+        float[] dot = new float[items];
+        int[] coCount = new int[items];
+        int[] touched = new int[items];
+        int[] offsets = new int[items + 1];
+        int[] neighbors = new int[(int) Math.min((long) items * maxNeighbors, 1 << 20)];
+        float[] sims = new float[neighbors.length];
+        int size = 0;
+        int[] heapItems = new int[maxNeighbors];
+        float[] heapSims = new float[maxNeighbors];
+
+        for (int i = 0; i < items; i++) {
+            int touchedCount = 0;
+            for (int k = itemStart[i]; k < itemStart[i + 1]; k++) {
+                int r = itemRows[k];
+                float wi = interactions.weights()[r];
+                int u = rowUser[r];
+                for (int other = userStart[u]; other < userStart[u + 1]; other++) {
+                    int j = rowItem[other];
+                    if (j == i) continue;
+                    if (coCount[j] == 0) touched[touchedCount++] = j;
+                    coCount[j]++;
+                    dot[j] += wi * interactions.weights()[other];
+                }
+            }
+
+            // Top-K por min-heap sobre arrays primitivos
+            int heapSize = 0;
+            for (int t = 0; t < touchedCount; t++) {
+                int j = touched[t];
+                if (coCount[j] >= minCoRaters) {
+                    float sim = (float) (dot[j] / Math.sqrt((double) norms[i] * norms[j]));
+                    if (heapSize < maxNeighbors) {
+                        heapItems[heapSize] = j;
+                        heapSims[heapSize] = sim;
+                        siftUp(heapItems, heapSims, heapSize++);
+                    } else if (sim > heapSims[0]) {
+                        heapItems[0] = j;
+                        heapSims[0] = sim;
+                        siftDown(heapItems, heapSims, heapSize);
+                    }
+                }
+                dot[j] = 0f;
+                coCount[j] = 0;
+            }
+
+            if (size + heapSize > neighbors.length) {
+                neighbors = Arrays.copyOf(neighbors, Math.max(neighbors.length * 2, size + heapSize));
+                sims = Arrays.copyOf(sims, neighbors.length);
+            }
+            // Vaciar el heap en orden descendente de similitud
+            for (int h = heapSize - 1; h >= 0; h--) {
+                neighbors[size + h] = heapItems[0];
+                sims[size + h] = heapSims[0];
+                heapItems[0] = heapItems[h];
+                heapSims[0] = heapSims[h];
+                siftDown(heapItems, heapSims, h);
+            }
+            size += heapSize;
+            offsets[i + 1] = size;
+        }
+
+        // 5. Popularidad: índices ordenados por número de usuarios (counting sort descendente)
+        int maxDegree = 0;
+        for (int degree : itemDegree) maxDegree = Math.max(maxDegree, degree);
+        int[] bucketStart = new int[maxDegree + 2];
+        for (int degree : itemDegree) bucketStart[maxDegree - degree + 1]++;
+        for (int b = 1; b < bucketStart.length; b++) bucketStart[b] += bucketStart[b - 1];
+        int[] byPopularity = new int[items];
+        for (int item = 0; item < items; item++) byPopularity[bucketStart[maxDegree - itemDegree[item]]++] = item;
+
+        return new ItemSimilarityModel(movieIds, titles, offsets,
+                Arrays.copyOf(neighbors, size), Arrays.copyOf(sims, size), byPopularity, Instant.now());
+    }
+
+    private static void siftUp(int[] items, float[] sims, int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (sims[parent] <= sims[index]) break;
+            swap(items, sims, parent, index);
+            index = parent;
+        }
+    }
+
+    private static void siftDown(int[] items, float[] sims, int size) {
+        int index = 0;
+        while (true) {
+            int left = 2 * index + 1;
+            if (left >= size) break;
+            int smallest = left + 1 < size && sims[left + 1] < sims[left] ? left + 1 : left;
+            if (sims[index] <= sims[smallest]) break;
+            swap(items, sims, index, smallest);
+            index = smallest;
+        }
+    }
+
+    private static void swap(int[] items, float[] sims, int a, int b) {
+        int item = items[a];
+        items[a] = items[b];
+        items[b] = item;
+        float sim = sims[a];
+        sims[a] = sims[b];
+        sims[b] = sim;
+    }
+
+    //Acumulador de puntajes con direccionamiento abierto (índice denso -> puntaje, mejor semilla)
+    private static final class CandidateAccumulator {
+        private int[] keys;
+        private float[] scores;
+        private float[] bestContribution;
+        private int[] bestSeed;
+        private int size;
+
+        CandidateAccumulator(int capacity) {
+            allocate(Integer.highestOneBit(Math.max(capacity, 8) - 1) << 1);
+        }
+
+        private void allocate(int capacity) {
+            keys = new int[capacity];
+            Arrays.fill(keys, -1);
+            scores = new float[capacity];
+            bestContribution = new float[capacity];
+            bestSeed = new int[capacity];
+        }
+
+        void add(int candidate, float contribution, int seed) {
+            if ((size + 1) * 2 > keys.length) grow();
+            int mask = keys.length - 1;
+            int slot = (candidate * 0x9E3779B9) >>> 1 & mask;
+            while (keys[slot] != -1 && keys[slot] != candidate) slot = (slot + 1) & mask;
+            if (keys[slot] == -1) {
+                keys[slot] = candidate;
+                bestContribution[slot] = Float.NEGATIVE_INFINITY;
+                size++;
+            }
+            scores[slot] += contribution;
+            if (contribution > bestContribution[slot]) {
+                bestContribution[slot] = contribution;
+                bestSeed[slot] = seed;
+            }
+        }
+
+        private void grow() {
+            int[] oldKeys = keys;
+            float[] oldScores = scores;
+            float[] oldBest = bestContribution;
+            int[] oldSeeds = bestSeed;
+            allocate(oldKeys.length * 2);
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] == -1) continue;
+                int slot = (oldKeys[i] * 0x9E3779B9) >>> 1 & mask;
+                while (keys[slot] != -1) slot = (slot + 1) & mask;
+                keys[slot] = oldKeys[i];
+                scores[slot] = oldScores[i];
+                bestContribution[slot] = oldBest[i];
+                bestSeed[slot] = oldSeeds[i];
+            }
+        }
+
+        //Selección de los mejores puntajes (solo ordena los slots ocupados)
+        List<ScoredMovie> top(int limit, ItemSimilarityModel model) {
+            int[] slots = new int[size];
+            int n = 0;
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != -1) slots[n++] = i;
+            }
+            int k = Math.min(limit, n);
+            List<ScoredMovie> result = new ArrayList<>(limit);
+            for (int r = 0; r < k; r++) {
+                int best = r;
+                for (int i = r + 1; i < n; i++) {
+                    if (scores[slots[i]] > scores[slots[best]]) best = i;
+                }
+                int slot = slots[best];
+                slots[best] = slots[r];
+                slots[r] = slot;
+                result.add(new ScoredMovie(model.movieIds[keys[slot]], model.titles[keys[slot]],
+                        scores[slot], model.titles[bestSeed[slot]]));
+            }
+            return result;
+        }
+    }
+}
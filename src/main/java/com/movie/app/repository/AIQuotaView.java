@@ -0,0 +1,8 @@
+package com.movie.app.repository;
+
+//Proyección de la cuota diaria de IA de un usuario
+public interface AIQuotaView {
+    String getPlan();
+    //Requests consumidos hoy (-1 si la reserva fue rechazada por límite)
+    Integer getAiRequestsToday();
+}
@@ -0,0 +1,13 @@
+package com.movie.app.repository;
+
+import com.movie.app.model.entity.AIUsageDaily;
+import com.movie.app.model.entity.AIUsageDailyId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface AIUsageDailyRepository extends JpaRepository<AIUsageDaily, AIUsageDailyId> {
+    //Total de requests de IA de un usuario (sin escanear ai_interactions)
+    @Query("SELECT COALESCE(SUM(u.requests), 0) FROM AIUsageDaily u WHERE u.userId = :userId")
+    long sumRequestsByUserId(@Param("userId") Long userId);
+}
@@ -0,0 +1,43 @@
+package com.movie.app.repository;
+
+import com.movie.app.model.entity.CatalogMovie;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface CatalogMovieRepository extends JpaRepository<CatalogMovie, Integer> {
+
+    //IDs vigentes y no adultos cuyo título (original o localizado) normalizado coincide, el más popular primero
+    @Query("SELECT m.id FROM CatalogMovie m WHERE m.deletedAt IS NULL AND m.adult = false " +
+            "AND (m.normalizedTitle = :title OR m.normalizedLocalTitle = :title) ORDER BY m.popularity DESC")
+    List<Integer> findIdsByNormalizedTitle(@Param("title") String normalizedTitle, Pageable pageable);
+
+    //Películas vigentes cuyo título original normalizado empieza con el prefijo (ya escapado para LIKE).
+    //Sin adultos, igual que search/movie de TMDb por defecto
+    @Query("SELECT m FROM CatalogMovie m WHERE m.deletedAt IS NULL AND m.adult = false " +
+            "AND m.normalizedTitle LIKE CONCAT(:prefix, '%') ESCAPE '\\' ORDER BY m.popularity DESC")
+    List<CatalogMovie> findByNormalizedTitlePrefix(@Param("prefix") String prefix, Pageable pageable);
+
+    //De los IDs dados, los que TMDb ya no publica
+    @Query("SELECT m.id FROM CatalogMovie m WHERE m.id IN :ids AND m.deletedAt IS NOT NULL")
+    List<Integer> findDeletedIds(@Param("ids") Collection<Integer> ids);
+
+    //Completar los datos de presentación con lo obtenido del detalle de TMDb
+    @Modifying
+    @Transactional
+    @Query("UPDATE CatalogMovie m SET m.title = :title, m.normalizedLocalTitle = :normalizedTitle, " +
+            "m.posterPath = :posterPath, m.releaseDate = :releaseDate, m.updatedAt = :now WHERE m.id = :id")
+    int updateDisplayFields(@Param("id") Integer id,
+                            @Param("title") String title,
+                            @Param("normalizedTitle") String normalizedTitle,
+                            @Param("posterPath") String posterPath,
+                            @Param("releaseDate") String releaseDate,
+                            @Param("now") LocalDateTime now);
+}
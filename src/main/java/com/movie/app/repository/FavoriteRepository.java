@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,4 +22,11 @@ public interface FavoriteRepository extends JpaRepository<Favorite, Long>{
     @Query("SELECT f.movieId FROM Favorite f WHERE f.user.id = :userId")
     List<Integer> findMovieIdsByUserId(@Param("userId") Long userId);
 
+    //Favoritos más recientes (sin query de conteo)
+    List<Favorite> findByUserIdOrderByAddedAtDesc(Long userId, Pageable pageable);
+
+    //Favoritos del usuario entre un conjunto de películas (para resolver títulos)
+    @Query("SELECT f FROM Favorite f WHERE f.user.id = :userId AND f.movieId IN :movieIds")
+    List<Favorite> findByUserIdAndMovieIdIn(@Param("userId") Long userId, @Param("movieIds") Collection<Integer> movieIds);
+
 }
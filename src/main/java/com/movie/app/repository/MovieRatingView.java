@@ -0,0 +1,9 @@
+package com.movie.app.repository;
+
+import java.math.BigDecimal;
+
+//Proyección película + calificación (sin cargar la entidad completa)
+public interface MovieRatingView {
+    Integer getMovieId();
+    BigDecimal getRating();
+}
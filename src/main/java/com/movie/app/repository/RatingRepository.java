@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,9 +23,17 @@ public interface RatingRepository extends JpaRepository<Rating, Long> {
     //Obtener top películas calificadas por un usuario
     @Query("SELECT r FROM Rating r WHERE r.user.id = :userId ORDER BY r.rating DESC")
     List<Rating> findTopRatedByUserId(@Param("userId") Long userId, Pageable pageable);
+    //Obtener películas peor calificadas por un usuario
+    @Query("SELECT r FROM Rating r WHERE r.user.id = :userId AND r.rating <= :maxRating ORDER BY r.rating ASC")
+    List<Rating> findLowestRatedByUserId(@Param("userId") Long userId, @Param("maxRating") BigDecimal maxRating, Pageable pageable);
+    //Obtener calificaciones más recientes de un usuario
+    List<Rating> findByUserIdOrderByUpdatedAtDesc(Long userId, Pageable pageable);
 
     void deleteByUserIdAndMovieId(Long userId, Integer movieId);
     //Obtener IDs de películas calificadas por un usuario
     @Query("SELECT r.movieId FROM Rating r WHERE r.user.id = :userId")
     List<Integer> findMovieIdsByUserId(@Param("userId") Long userId);
+    //Obtener películas y calificaciones de un usuario (proyección)
+    @Query("SELECT r.movieId AS movieId, r.rating AS rating FROM Rating r WHERE r.user.id = :userId")
+    List<MovieRatingView> findMovieRatingsByUserId(@Param("userId") Long userId);
 }
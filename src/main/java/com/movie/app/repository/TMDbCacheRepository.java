@@ -0,0 +1,37 @@
+package com.movie.app.repository;
+
+import com.movie.app.model.entity.TMDbCacheEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface TMDbCacheRepository extends JpaRepository<TMDbCacheEntry, String> {
+
+    //Entrada vigente por clave (las expiradas se ignoran hasta que las limpie el job)
+    @Query("SELECT e FROM TMDbCacheEntry e WHERE e.cacheKey = :key AND e.expiresAt > :now")
+    Optional<TMDbCacheEntry> findValid(@Param("key") String key, @Param("now") LocalDateTime now);
+
+    //Insertar o refrescar una entrada en una sola sentencia
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO tmdb_cache (cache_key, resource, payload, expires_at, updated_at) " +
+            "VALUES (:key, :resource, :payload, :expiresAt, :now) " +
+            "ON CONFLICT (cache_key) DO UPDATE SET payload = EXCLUDED.payload, " +
+            "expires_at = EXCLUDED.expires_at, updated_at = EXCLUDED.updated_at", nativeQuery = true)
+    int upsert(@Param("key") String key,
+               @Param("resource") String resource,
+               @Param("payload") String payload,
+               @Param("expiresAt") LocalDateTime expiresAt,
+               @Param("now") LocalDateTime now);
+
+    //Eliminar entradas expiradas
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM TMDbCacheEntry e WHERE e.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,7 @@
+package com.movie.app.repository;
+
+import com.movie.app.model.entity.UserRecommendation;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface UserRecommendationRepository extends JpaRepository<UserRecommendation, Long> {
+}
@@ -1,6 +1,7 @@
 package com.movie.app.repository;
 
 import com.movie.app.model.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -15,10 +16,54 @@ public interface UserRepository extends JpaRepository<User, Long> {
     boolean existsByEmail(String email);
     @Query("SELECT u FROM User u WHERE u.plan = 'PREMIUM' AND u.premiumUntil > :now")
     List<User> findActivePremiumUsers(@Param("now") LocalDateTime now);
+    //IDs de usuarios premium activos por páginas (keyset sobre id, sin cargar entidades)
+    @Query("SELECT u.id FROM User u WHERE u.plan = 'PREMIUM' AND u.premiumUntil > :now AND u.id > :afterId ORDER BY u.id")
+    List<Long> findActivePremiumUserIdsAfter(@Param("now") LocalDateTime now, @Param("afterId") Long afterId, Pageable pageable);
 
      //Resetear contador de AI requests para free users
     @Modifying
     @Query("UPDATE User u SET u.aiRequestsToday = 0, u.aiLastReset = :now " +
             "WHERE u.plan = 'FREE' AND (u.aiLastReset IS NULL OR u.aiLastReset < :today)")
     int resetDailyAIRequests(@Param("now") LocalDateTime now, @Param("today") LocalDateTime today);
+
+    //Reservar un request de IA en un solo round trip: reset diario + verificación de límite + incremento atómico.
+    //Usuarios PREMIUM no se escriben; si el límite se alcanzó devuelve aiRequestsToday = -1
+    @Query(value = """
+            WITH target AS (SELECT id, plan FROM users WHERE id = :userId),
+            updated AS (
+                UPDATE users u SET
+                    ai_requests_today = CASE WHEN u.ai_last_reset IS NULL OR u.ai_last_reset < :today
+                                             THEN 1 ELSE u.ai_requests_today + 1 END,
+                    ai_last_reset = CASE WHEN u.ai_last_reset IS NULL OR u.ai_last_reset < :today
+                                         THEN :now ELSE u.ai_last_reset END
+                FROM target t
+                WHERE u.id = t.id AND t.plan = 'FREE'
+                  AND (u.ai_last_reset IS NULL OR u.ai_last_reset < :today OR u.ai_requests_today < :limit)
+                RETURNING u.ai_requests_today
+            )
+            SELECT t.plan AS "plan",
+                   CASE WHEN t.plan = 'FREE' THEN COALESCE((SELECT ai_requests_today FROM updated), -1)
+                        ELSE 0 END AS "aiRequestsToday"
+            FROM target t
+            """, nativeQuery = true)
+    Optional<AIQuotaView> reserveAIRequest(@Param("userId") Long userId,
+                                           @Param("limit") int limit,
+                                           @Param("now") LocalDateTime now,
+                                           @Param("today") LocalDateTime today);
+
+    //Devolver un request de IA reservado (sin tocar el resto de la fila). Solo si el contador sigue siendo el del
+    //día de la reserva: si ya se reseteó, el request a devolver pertenece al día anterior y no se descuenta
+    @Modifying
+    @Query(value = "UPDATE users SET ai_requests_today = ai_requests_today - 1 " +
+            "WHERE id = :userId AND plan = 'FREE' AND ai_requests_today > 0 " +
+            "AND ai_last_reset >= :reservationDay AND ai_last_reset < :nextDay", nativeQuery = true)
+    int refundAIRequest(@Param("userId") Long userId,
+                        @Param("reservationDay") LocalDateTime reservationDay,
+                        @Param("nextDay") LocalDateTime nextDay);
+
+    //Leer la cuota vigente (un contador de un día anterior cuenta como 0)
+    @Query(value = "SELECT plan AS \"plan\", " +
+            "CASE WHEN ai_last_reset IS NULL OR ai_last_reset < :today THEN 0 ELSE ai_requests_today END AS \"aiRequestsToday\" " +
+            "FROM users WHERE id = :userId", nativeQuery = true)
+    Optional<AIQuotaView> findAIQuotaById(@Param("userId") Long userId, @Param("today") LocalDateTime today);
 }
@@ -0,0 +1,12 @@
+package com.movie.app.service;
+
+import com.movie.app.model.dto.ai.request.AIRecommendationRequest;
+import com.movie.app.model.dto.ai.response.AIJobResponse;
+import com.movie.app.model.entity.UserPlan;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface AIRecommendationJobService {
+    AIJobResponse submit(Long userId, UserPlan plan, AIRecommendationRequest request);
+    CompletableFuture<AIJobResponse> awaitJob(Long userId, String jobId, long waitMs);
+}
@@ -2,9 +2,18 @@ package com.movie.app.service;
 
 import com.movie.app.model.dto.ai.request.AIRecommendationRequest;
 import com.movie.app.model.dto.ai.response.AIRecommendationResponse;
+import com.movie.app.model.dto.ai.response.MovieRecommendation;
 import com.movie.app.model.dto.auth.response.AILimitResponse;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
 public interface AIRecommendationService {
     AIRecommendationResponse getRecommendation(Long userId, AIRecommendationRequest request);
+    CompletableFuture<AIRecommendationResponse> getRecommendationAsync(Long userId, AIRecommendationRequest request);
+    AIRecommendationResponse streamRecommendation(Long userId, AIRecommendationRequest request,
+                                                  Consumer<MovieRecommendation> onRecommendation);
+    AIRecommendationResponse precomputeRecommendation(Long userId, AIRecommendationRequest request);
     AILimitResponse canRequestAI(Long userId);
+    AIRecommendationResponse getLocalRecommendation(Long userId, int limit);
 }
\ No newline at end of file
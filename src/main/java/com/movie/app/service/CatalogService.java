@@ -0,0 +1,14 @@
+package com.movie.app.service;
+
+import com.movie.app.model.external.TMDbMovieDetails;
+import com.movie.app.model.external.TMDbSearchResponse;
+
+import java.util.Collection;
+import java.util.Set;
+
+public interface CatalogService {
+    Integer resolveTitle(String title, Integer candidateId);
+    TMDbSearchResponse searchLocal(String query, int page);
+    Set<Integer> findDeletedIds(Collection<Integer> movieIds);
+    void recordDetails(TMDbMovieDetails details);
+}
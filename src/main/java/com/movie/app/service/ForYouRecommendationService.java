@@ -0,0 +1,8 @@
+package com.movie.app.service;
+
+import com.movie.app.model.dto.ai.response.ForYouRecommendationResponse;
+
+public interface ForYouRecommendationService {
+    ForYouRecommendationResponse getForYou(Long userId);
+    void precomputeForActivePremiumUsers();
+}
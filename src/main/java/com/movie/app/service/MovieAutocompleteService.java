@@ -0,0 +1,9 @@
+package com.movie.app.service;
+
+import com.movie.app.model.dto.movie.response.MovieSuggestion;
+
+import java.util.List;
+
+public interface MovieAutocompleteService {
+    List<MovieSuggestion> suggest(String query, int limit);
+}
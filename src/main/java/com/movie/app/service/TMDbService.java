@@ -0,0 +1,23 @@
+package com.movie.app.service;
+
+import com.movie.app.model.dto.movie.response.MovieBatchResponse;
+import com.movie.app.model.external.TMDbCreditsResponse;
+import com.movie.app.model.external.TMDbGenreListResponse;
+import com.movie.app.model.external.TMDbMovieDetails;
+import com.movie.app.model.external.TMDbMovieListResponse;
+import com.movie.app.model.external.TMDbSearchResponse;
+import com.movie.app.model.external.TMDbVideoResponse;
+
+import java.util.List;
+
+public interface TMDbService {
+    TMDbSearchResponse searchMovies(String query, int page);
+    TMDbMovieDetails getMovieDetails(Integer movieId);
+    MovieBatchResponse getMoviesBatch(List<Integer> movieIds);
+    TMDbCreditsResponse getMovieCredits(Integer movieId);
+    TMDbVideoResponse getMovieVideos(Integer movieId);
+    TMDbMovieListResponse getPopularMovies(int page, String language);
+    TMDbMovieListResponse getTrendingMovies(String window, int page, String language);
+    TMDbGenreListResponse getGenres(String language);
+    TMDbMovieListResponse getMoviesByGenre(Integer genreId, int page, String language);
+}
@@ -0,0 +1,101 @@
+package com.movie.app.service.impl;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+//Mantenimiento de ai_interactions particionada por mes: crea particiones futuras y elimina (o desacopla) las viejas
+@Component
+@Slf4j
+public class AIInteractionRetentionJob {
+    private static final String TABLE = "ai_interactions";
+    private static final Pattern PARTITION_NAME = Pattern.compile("^" + TABLE + "_p(\\d{6})$");
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int retentionMonths;
+    private final int partitionsAhead;
+    private final boolean detachOnly;
+
+    public AIInteractionRetentionJob(JdbcTemplate jdbcTemplate,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${ai.interaction-retention.retention-months:12}") int retentionMonths,
+                                     @Value("${ai.interaction-retention.partitions-ahead:3}") int partitionsAhead,
+                                     @Value("${ai.interaction-retention.mode:drop}") String mode) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.meterRegistry = meterRegistry;
+        this.retentionMonths = retentionMonths;
+        this.partitionsAhead = partitionsAhead;
+        this.detachOnly = "detach".equalsIgnoreCase(mode);
+    }
+
+    //Asegurar particiones al arrancar (los inserts fallan si no existe la partición del mes)
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintainPartitions();
+    }
+
+    @Scheduled(cron = "${ai.interaction-retention.cron:0 30 3 * * *}")
+    public void maintainPartitions() {
+        if (!isPartitioned()) {
+            log.warn("{} no está particionada, se omite el mantenimiento (ver db/ai_interactions_partitioning.sql)", TABLE);
+            return;
+        }
+
+        YearMonth current = YearMonth.now();
+        for (int i = 0; i <= partitionsAhead; i++) {
+            createPartition(current.plusMonths(i));
+        }
+
+        // Retención en bloque: una partición completa por operación, sin DELETE fila a fila
+        YearMonth cutoff = current.minusMonths(retentionMonths);
+        for (String partition : listPartitions()) {
+            Matcher matcher = PARTITION_NAME.matcher(partition);
+            if (!matcher.matches() || !YearMonth.parse(matcher.group(1), SUFFIX).isBefore(cutoff)) {
+                continue;
+            }
+            if (detachOnly) {
+                jdbcTemplate.execute("ALTER TABLE " + TABLE + " DETACH PARTITION " + partition);
+                log.info("Partición {} desacoplada para archivo", partition);
+            } else {
+                jdbcTemplate.execute("DROP TABLE " + partition);
+                log.info("Partición {} eliminada por retención", partition);
+            }
+            meterRegistry.counter("ai.interactions.partitions.retired", "mode", detachOnly ? "detach" : "drop").increment();
+        }
+    }
+
+    private boolean isPartitioned() {
+        List<String> kinds = jdbcTemplate.queryForList(
+                "SELECT relkind::text FROM pg_class WHERE relname = ? AND relnamespace = current_schema()::regnamespace",
+                String.class, TABLE);
+        return !kinds.isEmpty() && "p".equals(kinds.get(0));
+    }
+
+    private void createPartition(YearMonth month) {
+        String partition = TABLE + "_p" + month.format(SUFFIX);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partition + " PARTITION OF " + TABLE +
+                " FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')");
+    }
+
+    private List<String> listPartitions() {
+        return jdbcTemplate.queryForList("""
+                SELECT c.relname FROM pg_inherits i
+                JOIN pg_class c ON c.oid = i.inhrelid
+                JOIN pg_class p ON p.oid = i.inhparent
+                WHERE p.relname = ?
+                """, String.class, TABLE);
+    }
+}
@@ -0,0 +1,258 @@
+package com.movie.app.service.impl;
+
+import com.movie.app.client.GeminiResult;
+import com.movie.app.util.TextCompression;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+//Persistencia write-behind de AIInteraction: cola acotada drenada por un escritor en batches JDBC
+@Component
+@Slf4j
+public class AIInteractionWriter {
+    private static final String INSERT_SQL =
+            "INSERT INTO ai_interactions (user_id, prompt, response, tokens_used, prompt_tokens, latency_ms, created_at) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?)";
+    //Rollup diario: se suma al agregado existente en el mismo commit que los inserts
+    private static final String UPSERT_DAILY_SQL = """
+            INSERT INTO ai_usage_daily (user_id, usage_date, requests, tokens_used, prompt_tokens, latency_ms_total)
+            VALUES (?, ?, ?, ?, ?, ?)
+            ON CONFLICT (user_id, usage_date) DO UPDATE SET
+                requests = ai_usage_daily.requests + EXCLUDED.requests,
+                tokens_used = ai_usage_daily.tokens_used + EXCLUDED.tokens_used,
+                prompt_tokens = ai_usage_daily.prompt_tokens + EXCLUDED.prompt_tokens,
+                latency_ms_total = ai_usage_daily.latency_ms_total + EXCLUDED.latency_ms_total
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<PendingInteraction> queue;
+    private final int batchSize;
+    private final long flushIntervalMs;
+
+    private final Counter writtenRows;
+    private final Counter synchronousWrites;
+    private final Counter failedRows;
+    private final Timer flushTimer;
+
+    //Productores toman el lock de lectura para encolar; el cierre toma el de escritura, así ninguna
+    //interacción entra a la cola después del drenado final
+    private final ReentrantReadWriteLock producerLock = new ReentrantReadWriteLock();
+    private volatile boolean running = true;
+    private Thread writerThread;
+
+    public AIInteractionWriter(JdbcTemplate jdbcTemplate,
+                               TransactionTemplate transactionTemplate,
+                               MeterRegistry meterRegistry,
+                               @Value("${ai.interaction-writer.queue-capacity:1000}") int queueCapacity,
+                               @Value("${ai.interaction-writer.batch-size:50}") int batchSize,
+                               @Value("${ai.interaction-writer.flush-interval-ms:1000}") long flushIntervalMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+
+        Gauge.builder("ai.interactions.queue.size", queue, BlockingQueue::size).register(meterRegistry);
+        this.writtenRows = meterRegistry.counter("ai.interactions.written");
+        this.synchronousWrites = meterRegistry.counter("ai.interactions.synchronous");
+        this.failedRows = meterRegistry.counter("ai.interactions.failed");
+        this.flushTimer = meterRegistry.timer("ai.interactions.flush");
+    }
+
+    @PostConstruct
+    void start() {
+        writerThread = Thread.ofPlatform()
+                .name("ai-interaction-writer")
+                .daemon(true)
+                .start(this::drainLoop);
+    }
+
+    //Encolar interacción; si la cola está llena se inserta de forma síncrona (backpressure).
+    //usage es null cuando la respuesta no vino de Gemini (cache o modo degradado)
+    public void write(Long userId, String prompt, String response, GeminiResult usage) {
+        PendingInteraction interaction = new PendingInteraction(userId, prompt, response,
+                usage != null ? usage.totalTokens() : null,
+                usage != null ? usage.promptTokens() : null,
+                usage != null ? (int) usage.latencyMs() : null,
+                LocalDateTime.now());
+        boolean queued;
+        producerLock.readLock().lock();
+        try {
+            queued = running && queue.offer(interaction);
+        } finally {
+            producerLock.readLock().unlock();
+        }
+        if (!queued) {
+            synchronousWrites.increment();
+            flush(List.of(interaction));
+        }
+    }
+
+    //Vaciar la cola antes de cerrar el contexto
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        producerLock.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            producerLock.writeLock().unlock();
+        }
+        writerThread.join(TimeUnit.SECONDS.toMillis(30));
+
+        List<PendingInteraction> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            flush(remaining);
+        }
+        log.info("Escritor de interacciones de IA detenido");
+    }
+
+    //Agrupar por tamaño o por tiempo, lo que ocurra primero
+    private void drainLoop() {
+        List<PendingInteraction> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingInteraction first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (batch.size() < batchSize) {
+                    long remainingNanos = deadline - System.nanoTime();
+                    if (remainingNanos <= 0) {
+                        break;
+                    }
+                    PendingInteraction next = queue.poll(remainingNanos, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                flush(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        if (!batch.isEmpty()) {
+            flush(batch);
+        }
+    }
+
+    //Un fallo reintenta el batch una vez; si vuelve a fallar se guarda fila por fila para no perder las buenas
+    private void flush(List<PendingInteraction> batch) {
+        if (tryFlush(batch) || tryFlush(batch)) {
+            return;
+        }
+        if (batch.size() == 1) {
+            failedRows.increment();
+            log.error("Interacción de IA descartada tras reintentar (usuario {})", batch.get(0).userId());
+            return;
+        }
+        for (PendingInteraction interaction : batch) {
+            if (!tryFlush(List.of(interaction))) {
+                failedRows.increment();
+                log.error("Interacción de IA descartada tras reintentar (usuario {})", interaction.userId());
+            }
+        }
+    }
+
+    private boolean tryFlush(List<PendingInteraction> batch) {
+        try {
+            List<DailyUsage> rollup = rollup(batch);
+            flushTimer.record(() -> transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, interaction) -> {
+                    ps.setLong(1, interaction.userId());
+                    ps.setString(2, interaction.prompt());
+                    ps.setBytes(3, TextCompression.gzip(interaction.response()));
+                    setNullableInt(ps, 4, interaction.tokensUsed());
+                    setNullableInt(ps, 5, interaction.promptTokens());
+                    setNullableInt(ps, 6, interaction.latencyMs());
+                    ps.setTimestamp(7, Timestamp.valueOf(interaction.createdAt()));
+                });
+                jdbcTemplate.batchUpdate(UPSERT_DAILY_SQL, rollup, rollup.size(), (ps, usage) -> {
+                    ps.setLong(1, usage.userId);
+                    ps.setObject(2, usage.date);
+                    ps.setInt(3, usage.requests);
+                    ps.setLong(4, usage.tokensUsed);
+                    ps.setLong(5, usage.promptTokens);
+                    ps.setLong(6, usage.latencyMs);
+                });
+            }));
+            writtenRows.increment(batch.size());
+            return true;
+        } catch (Exception e) {
+            log.warn("Error guardando {} interacciones de IA: {}", batch.size(), e.getMessage());
+            return false;
+        }
+    }
+
+    //Agregar el batch por (usuario, día) para un solo upsert por fila del rollup
+    private List<DailyUsage> rollup(List<PendingInteraction> batch) {
+        Map<String, DailyUsage> byUserAndDay = new LinkedHashMap<>();
+        for (PendingInteraction interaction : batch) {
+            LocalDate date = interaction.createdAt().toLocalDate();
+            DailyUsage usage = byUserAndDay.computeIfAbsent(interaction.userId() + ":" + date,
+                    key -> new DailyUsage(interaction.userId(), date));
+            usage.requests++;
+            usage.tokensUsed += interaction.tokensUsed() != null ? interaction.tokensUsed() : 0;
+            usage.promptTokens += interaction.promptTokens() != null ? interaction.promptTokens() : 0;
+            usage.latencyMs += interaction.latencyMs() != null ? interaction.latencyMs() : 0;
+        }
+        return new ArrayList<>(byUserAndDay.values());
+    }
+
+    private static void setNullableInt(PreparedStatement ps, int index, Integer value) throws SQLException {
+        if (value != null) {
+            ps.setInt(index, value);
+        } else {
+            ps.setNull(index, Types.INTEGER);
+        }
+    }
+
+    private static final class DailyUsage {
+        private final Long userId;
+        private final LocalDate date;
+        private int requests;
+        private long tokensUsed;
+        private long promptTokens;
+        private long latencyMs;
+
+        private DailyUsage(Long userId, LocalDate date) {
+            this.userId = userId;
+            this.date = date;
+        }
+    }
+
+    private record PendingInteraction(Long userId, String prompt, String response, Integer tokensUsed,
+                                      Integer promptTokens, Integer latencyMs, LocalDateTime createdAt) {
+    }
+}
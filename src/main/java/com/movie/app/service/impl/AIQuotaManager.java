@@ -0,0 +1,99 @@
+package com.movie.app.service.impl;
+
+import com.movie.app.exception.AIQuotaExceededException;
+import com.movie.app.exception.ResourceNotFoundException;
+import com.movie.app.model.dto.auth.response.AILimitResponse;
+import com.movie.app.model.entity.UserPlan;
+import com.movie.app.repository.AIQuotaView;
+import com.movie.app.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+//Transacciones cortas del flujo de IA: reservar y devolver cuota
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AIQuotaManager {
+    private final UserRepository userRepository;
+
+    @Value("${ai.free-daily-limit:1}")
+    private int freeDailyLimit;
+
+    //Reservar un request de IA con un único UPDATE condicional (solo consume cuota para usuarios FREE)
+    @Transactional
+    public QuotaReservation reserve(Long userId) {
+        LocalDateTime now = LocalDateTime.now();
+        AIQuotaView quota = userRepository.reserveAIRequest(userId, freeDailyLimit, now, startOfDay(now))
+                .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado con ID: " + userId));
+
+        UserPlan plan = UserPlan.valueOf(quota.getPlan());
+        if (plan == UserPlan.FREE && quota.getAiRequestsToday() < 0) {
+            throw new AIQuotaExceededException(
+                    "Has alcanzado el límite diario de " + freeDailyLimit + " request de IA. " +
+                            "Actualiza a Premium para requests ilimitados"
+            );
+        }
+
+        return new QuotaReservation(userId, plan, quota.getAiRequestsToday(), freeDailyLimit, startOfDay(now));
+    }
+
+    //Devolver la cuota reservada cuando la llamada externa falla
+    @Transactional
+    public void refund(QuotaReservation reservation) {
+        if (reservation.plan() != UserPlan.FREE) {
+            return;
+        }
+        LocalDateTime day = reservation.reservationDay();
+        if (userRepository.refundAIRequest(reservation.userId(), day, day.plusDays(1)) > 0) {
+            log.info("Cuota de IA devuelta al usuario {}", reservation.userId());
+        }
+    }
+
+    //Verificar si el usuario puede hacer una request de IA (misma fuente que la reserva)
+    @Transactional(readOnly = true)
+    public AILimitResponse getLimit(Long userId) {
+        AIQuotaView quota = userRepository.findAIQuotaById(userId, startOfDay(LocalDateTime.now()))
+                .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado con ID: " + userId));
+
+        if (UserPlan.valueOf(quota.getPlan()) == UserPlan.PREMIUM) {
+            return AILimitResponse.builder()
+                    .canRequest(true)
+                    .requestsRemainingToday(null)
+                    .isPremium(true)
+                    .message("Requests ilimitados como usuario Premium")
+                    .build();
+        }
+
+        int remaining = Math.max(0, freeDailyLimit - quota.getAiRequestsToday());
+        boolean canRequest = remaining > 0;
+
+        return AILimitResponse.builder()
+                .canRequest(canRequest)
+                .requestsRemainingToday(remaining)
+                .isPremium(false)
+                .message(canRequest ?
+                        "Puedes hacer " + remaining + " request de IA hoy" :
+                        "Has alcanzado el límite diario. Actualiza a Premium para requests ilimitados")
+                .build();
+    }
+
+    //Inicio del día actual (los contadores anteriores se consideran reseteados)
+    private LocalDateTime startOfDay(LocalDateTime now) {
+        return LocalDate.from(now).atStartOfDay();
+    }
+
+    //Resultado de la reserva: plan del usuario, requests consumidos hoy y día al que pertenecen
+    public record QuotaReservation(Long userId, UserPlan plan, int requestsToday, int dailyLimit,
+                                   LocalDateTime reservationDay) {
+
+        public Integer requestsRemainingToday() {
+            return plan == UserPlan.FREE ? Math.max(0, dailyLimit - requestsToday) : null;
+        }
+    }
+}
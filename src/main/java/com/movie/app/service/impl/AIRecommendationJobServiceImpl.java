@@ -0,0 +1,179 @@
+package com.movie.app.service.impl;
+
+import com.movie.app.exception.GlobalExceptionHandler;
+import com.movie.app.exception.ResourceNotFoundException;
+import com.movie.app.exception.TooManyRequestsException;
+import com.movie.app.model.dto.ai.request.AIRecommendationRequest;
+import com.movie.app.model.dto.ai.response.AIJobResponse;
+import com.movie.app.model.dto.ai.response.AIJobStatus;
+import com.movie.app.model.dto.ai.response.AIRecommendationResponse;
+import com.movie.app.model.entity.UserPlan;
+import com.movie.app.service.AIRecommendationJobService;
+import com.movie.app.service.AIRecommendationService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+//Jobs asíncronos de recomendación: cola acotada con prioridad (PREMIUM antes que FREE) y resultados en memoria con TTL
+@Service
+@Slf4j
+public class AIRecommendationJobServiceImpl implements AIRecommendationJobService {
+    private static final long MAX_WAIT_MS = 30_000;
+
+    private final AIRecommendationService aiRecommendationService;
+    private final ThreadPoolExecutor workers;
+    private final ConcurrentHashMap<String, Job> jobs = new ConcurrentHashMap<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong submissions = new AtomicLong();
+    private final int queueCapacity;
+    private final Duration resultTtl;
+
+    private final MeterRegistry meterRegistry;
+    private final Counter rejected;
+
+    public AIRecommendationJobServiceImpl(AIRecommendationService aiRecommendationService,
+                                          MeterRegistry meterRegistry,
+                                          @Value("${ai.jobs.workers:8}") int workerCount,
+                                          @Value("${ai.jobs.queue-capacity:200}") int queueCapacity,
+                                          @Value("${ai.jobs.result-ttl-minutes:15}") long resultTtlMinutes) {
+        this.aiRecommendationService = aiRecommendationService;
+        this.meterRegistry = meterRegistry;
+        this.queueCapacity = queueCapacity;
+        this.resultTtl = Duration.ofMinutes(resultTtlMinutes);
+
+        // PriorityBlockingQueue ordena por plan y luego por orden de llegada (usar execute, no submit)
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new PriorityBlockingQueue<Runnable>(queueCapacity, (a, b) -> ((Job) a).compareTo((Job) b)),
+                Thread.ofVirtual().name("ai-job-", 0).factory());
+
+        Gauge.builder("ai.jobs.queue.depth", queued, AtomicInteger::get).register(meterRegistry);
+        Gauge.builder("ai.jobs.active", workers, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+        this.rejected = meterRegistry.counter("ai.jobs.rejected");
+    }
+
+    //Encolar recomendación y devolver el ID del job de inmediato. La cuota se resuelve al ejecutar, igual que
+    //en /recommend: un usuario FREE sin cuota recibe la recomendación local en lugar de un rechazo
+    public AIJobResponse submit(Long userId, UserPlan plan, AIRecommendationRequest request) {
+        if (queued.incrementAndGet() > queueCapacity) {
+            queued.decrementAndGet();
+            rejected.increment();
+            throw new TooManyRequestsException("Hay demasiadas recomendaciones en cola. Intenta más tarde");
+        }
+
+        Job job = new Job(UUID.randomUUID().toString(), userId, plan, request, submissions.incrementAndGet());
+        jobs.put(job.id, job);
+        meterRegistry.counter("ai.jobs.submitted", "plan", plan.name()).increment();
+        workers.execute(job);
+
+        log.info("Job de IA {} encolado para usuario {} (plan {})", job.id, userId, plan);
+        return job.toResponse();
+    }
+
+    //Consultar job; con waitMs > 0 espera (long-poll) sin ocupar el hilo del request
+    public CompletableFuture<AIJobResponse> awaitJob(Long userId, String jobId, long waitMs) {
+        Job job = jobs.get(jobId);
+        if (job == null || !job.userId.equals(userId)) {
+            throw new ResourceNotFoundException("Job no encontrado: " + jobId);
+        }
+        if (waitMs <= 0 || job.result.isDone()) {
+            return CompletableFuture.completedFuture(job.toResponse());
+        }
+
+        long boundedWait = Math.min(waitMs, MAX_WAIT_MS);
+        return job.result
+                .handle((result, error) -> job.toResponse())
+                .completeOnTimeout(null, boundedWait, TimeUnit.MILLISECONDS)
+                .thenApply(response -> response != null ? response : job.toResponse());
+    }
+
+    //Eliminar resultados vencidos
+    @Scheduled(fixedDelayString = "${ai.jobs.cleanup-interval-ms:60000}")
+    public void evictExpiredJobs() {
+        LocalDateTime threshold = LocalDateTime.now().minus(resultTtl);
+        jobs.values().removeIf(job -> job.completedAt != null && job.completedAt.isBefore(threshold));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdownNow();
+    }
+
+    private final class Job implements Runnable, Comparable<Job> {
+        private final String id;
+        private final Long userId;
+        private final UserPlan plan;
+        private final AIRecommendationRequest request;
+        private final long sequence;
+        private final long enqueuedAtNanos = System.nanoTime();
+        private final LocalDateTime submittedAt = LocalDateTime.now();
+        private final CompletableFuture<AIRecommendationResponse> result = new CompletableFuture<>();
+
+        private volatile AIJobStatus status = AIJobStatus.QUEUED;
+        private volatile LocalDateTime completedAt;
+        private volatile String error;
+
+        private Job(String id, Long userId, UserPlan plan, AIRecommendationRequest request, long sequence) {
+            this.id = id;
+            this.userId = userId;
+            this.plan = plan;
+            this.request = request;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public void run() {
+            queued.decrementAndGet();
+            meterRegistry.timer("ai.jobs.wait", "plan", plan.name())
+                    .record(System.nanoTime() - enqueuedAtNanos, TimeUnit.NANOSECONDS);
+
+            status = AIJobStatus.RUNNING;
+            try {
+                AIRecommendationResponse response = aiRecommendationService.getRecommendation(userId, request);
+                completedAt = LocalDateTime.now();
+                status = AIJobStatus.COMPLETED;
+                result.complete(response);
+            } catch (Throwable e) {
+                // También Errors: si el job no se completa, el long-poll queda esperando hasta su timeout.
+                // Al cliente solo llega el mensaje seguro, igual que en los handlers REST
+                log.warn("Job de IA {} falló: {}", id, e.getMessage());
+                error = GlobalExceptionHandler.toErrorResponse(e, "/api/ai/jobs/" + id).getMessage();
+                completedAt = LocalDateTime.now();
+                status = AIJobStatus.FAILED;
+                result.completeExceptionally(e);
+                if (e instanceof Error fatal) {
+                    throw fatal;
+                }
+            }
+        }
+
+        //PREMIUM primero; dentro del mismo plan, orden de llegada
+        @Override
+        public int compareTo(Job other) {
+            int byPlan = Boolean.compare(other.plan == UserPlan.PREMIUM, plan == UserPlan.PREMIUM);
+            return byPlan != 0 ? byPlan : Long.compare(sequence, other.sequence);
+        }
+
+        private AIJobResponse toResponse() {
+            return AIJobResponse.builder()
+                    .jobId(id)
+                    .status(status)
+                    .submittedAt(submittedAt)
+                    .completedAt(completedAt)
+                    .result(result.isDone() && !result.isCompletedExceptionally() ? result.join() : null)
+                    .error(error)
+                    .build();
+        }
+    }
+}
@@ -3,191 +3,371 @@ package com.movie.app.service.impl;
 import com.google.gson.Gson;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
+import com.movie.app.cache.GeminiResponseCache;
+import com.movie.app.cache.GeminiResponseCache.CachedRecommendation;
+import com.movie.app.cache.TitleResolutionCache;
+import com.movie.app.client.GeminiClient;
+import com.movie.app.client.GeminiResult;
+import com.movie.app.client.TMDbClient;
+import com.movie.app.client.TMDbRequestScheduler.Priority;
+import com.movie.app.client.UpstreamGuard;
+import com.movie.app.exception.AIQuotaExceededException;
 import com.movie.app.exception.BadRequestException;
-import com.movie.app.exception.ResourceNotFoundException;
+import com.movie.app.exception.ServiceUnavailableException;
 import com.movie.app.model.dto.ai.request.AIRecommendationRequest;
 import com.movie.app.model.dto.ai.response.AIRecommendationResponse;
 import com.movie.app.model.dto.ai.response.MovieRecommendation;
 import com.movie.app.model.dto.auth.response.AILimitResponse;
-import com.movie.app.model.entity.AIInteraction;
-import com.movie.app.model.entity.User;
-import com.movie.app.model.entity.UserPlan;
-import com.movie.app.repository.AIInteractionRepository;
-import com.movie.app.repository.FavoriteRepository;
-import com.movie.app.repository.RatingRepository;
-import com.movie.app.repository.UserRepository;
+import com.movie.app.parser.RecommendationParser;
+import com.movie.app.parser.RecommendationParser.ParsedRecommendations;
+import com.movie.app.parser.RecommendationStreamParser;
 import com.movie.app.service.AIRecommendationService;
+import com.movie.app.service.CatalogService;
+import com.movie.app.service.impl.AIQuotaManager.QuotaReservation;
+import com.movie.app.service.impl.AIRequestCoalescer.InFlightPermit;
+import com.movie.app.util.TextNormalizer;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import okhttp3.*;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.io.IOException;
-
-import java.net.URLEncoder;
-import java.nio.charset.StandardCharsets;
-
-import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class AIRecommendationServiceImpl implements AIRecommendationService {
-    private final AIInteractionRepository aiInteractionRepository;
-    private final UserRepository userRepository;
-    private final FavoriteRepository favoriteRepository;
-    private final RatingRepository ratingRepository;
-    private final OkHttpClient httpClient;
+    private static final String LOCAL_EXPLANATION =
+            "Recomendaciones basadas en usuarios con gustos similares a los tuyos";
+    private static final String QUOTA_EXCEEDED_EXPLANATION =
+            "Alcanzaste tu límite diario de IA. " + LOCAL_EXPLANATION;
+
     private final Gson gson;
+    private final ExecutorService virtualThreadExecutor;
+    private final MeterRegistry meterRegistry;
+    private final TitleResolutionCache titleResolutionCache;
+    private final GeminiResponseCache geminiResponseCache;
+    private final GeminiClient geminiClient;
+    private final AIQuotaManager aiQuotaManager;
+    private final AIInteractionWriter aiInteractionWriter;
+    private final AIRequestCoalescer aiRequestCoalescer;
+    private final UserContextBuilder userContextBuilder;
+    private final LocalRecommender localRecommender;
+    private final UpstreamGuard tmdbGuard;
+    private final TMDbClient tmdbClient;
+    private final CatalogService catalogService;
+
+    @Value("${ai.verification.timeout-ms:3000}")
+    private long verificationTimeoutMs;
+
+    //Obtener recomendación de IA (requests idénticos concurrentes comparten una sola llamada)
+    public AIRecommendationResponse getRecommendation(Long userId, AIRecommendationRequest request) {
+        return aiRequestCoalescer.execute(coalescingKey(userId, request), userId,
+                () -> generateRecommendation(userId, request));
+    }
 
-    @Value("${gemini.api-key}")
-    private String geminiApiKey;
+    //Obtener recomendación de IA sin bloquear el hilo del request: el flujo completo corre en un virtual thread,
+    //que se desmonta de su carrier mientras espera I/O de Gemini, TMDb o la base de datos
+    public CompletableFuture<AIRecommendationResponse> getRecommendationAsync(Long userId, AIRecommendationRequest request) {
+        return CompletableFuture.supplyAsync(() -> getRecommendation(userId, request), virtualThreadExecutor);
+    }
 
-    @Value("${gemini.model}")
-    private String geminiModel;
+    private AIRecommendationResponse generateRecommendation(Long userId, AIRecommendationRequest request) {
+        log.info("Obteniendo recomendación de IA para usuario {}", userId);
 
-    @Value("${gemini.base-url}")
-    private String geminiBaseUrl;
+        // Fase 1 (transacción corta): reservar cuota
+        QuotaReservation reservation;
+        try {
+            reservation = aiQuotaManager.reserve(userId);
+        } catch (AIQuotaExceededException e) {
+            return quotaExceededRecommendation(userId, request, e, recommendation -> { });
+        }
 
-    @Value("${tmdb.api-key}")
-    private String tmdbApiKey;
+        // Fase 2 (sin transacción): contexto, Gemini y verificación en TMDb
+        CachedRecommendation result;
+        GeminiResult usage = null;
+        try {
+            String userContext = buildUserContext(userId, request.getIncludeUserHistory());
+
+            // Reutilizar respuesta cacheada (evita Gemini y la verificación en TMDb)
+            result = geminiResponseCache.get(request.getPrompt(), request.getMaxRecommendations(), userContext);
+            if (result != null) {
+                log.info("Recomendación servida desde cache para usuario {}", userId);
+            } else {
+                try {
+                    GeminiCompletion completion = callGemini(request, userContext);
+                    result = completion.result();
+                    usage = completion.usage();
+                    geminiResponseCache.put(request.getPrompt(), request.getMaxRecommendations(), userContext, result);
+                } catch (ServiceUnavailableException e) {
+                    result = degradedRecommendation(userId, request, e);
+                }
+            }
+        } catch (RuntimeException e) {
+            aiQuotaManager.refund(reservation);
+            throw e;
+        }
 
-    //Obtener recomendación de IA
-    @Transactional
-    public AIRecommendationResponse getRecommendation(Long userId, AIRecommendationRequest request) {
-        log.info("Obteniendo recomendación de IA para usuario {}", userId);
+        // Fase 3: guardar interacción (write-behind, fuera del camino crítico)
+        recordUsage(reservation, request, usage);
+        aiInteractionWriter.write(userId, request.getPrompt(), result.rawResponse(), usage);
 
-        User user = findUserById(userId);
+        log.info("Recomendación generada exitosamente. {} películas recomendadas", result.recommendations().size());
 
-        // Verificar límite de requests (solo para usuarios FREE)
-        if (user.getPlan() == UserPlan.FREE) {
-            checkAndUpdateAILimit(user);
-        }
+        return buildResponse(reservation, result);
+    }
 
-        // Construir contexto del usuario
-        String userContext = buildUserContext(userId, request.getIncludeUserHistory());
-        // Construir prompt completo
-        String fullPrompt = buildPrompt(request.getPrompt(), userContext, request.getMaxRecommendations());
-        // Llamar a Gemini API
-        String aiResponse = callGeminiAPI(fullPrompt);
+    //Obtener recomendación de IA en streaming (cada película se entrega en cuanto está verificada)
+    public AIRecommendationResponse streamRecommendation(Long userId, AIRecommendationRequest request,
+                                                         Consumer<MovieRecommendation> onRecommendation) {
+        log.info("Obteniendo recomendación de IA en streaming para usuario {}", userId);
 
-        // Parsear respuesta
-        List<MovieRecommendation> recommendations = parseRecommendations(aiResponse);
+        try (InFlightPermit ignored = aiRequestCoalescer.acquire(userId)) {
+            return generateStreamingRecommendation(userId, request, onRecommendation);
+        }
+    }
 
-        // Guardar interacción
-        saveInteraction(user, request.getPrompt(), aiResponse);
+    private AIRecommendationResponse generateStreamingRecommendation(Long userId, AIRecommendationRequest request,
+                                                                     Consumer<MovieRecommendation> onRecommendation) {
+        QuotaReservation reservation;
+        try {
+            reservation = aiQuotaManager.reserve(userId);
+        } catch (AIQuotaExceededException e) {
+            return quotaExceededRecommendation(userId, request, e, onRecommendation);
+        }
 
-        // Calcular requests restantes
-        Integer requestsRemaining = null;
-        if (user.getPlan() == UserPlan.FREE) {
-            requestsRemaining = 1 - user.getAiRequestsToday();
+        CachedRecommendation result;
+        GeminiResult usage = null;
+        try {
+            String userContext = buildUserContext(userId, request.getIncludeUserHistory());
+            result = geminiResponseCache.get(request.getPrompt(), request.getMaxRecommendations(), userContext);
+            if (result != null) {
+                log.info("Recomendación servida desde cache para usuario {}", userId);
+                result.recommendations().forEach(onRecommendation);
+            } else {
+                AtomicBoolean emitted = new AtomicBoolean();
+                try {
+                    String fullPrompt = buildPrompt(request.getPrompt(), userContext, request.getMaxRecommendations());
+                    recordPromptSize(fullPrompt, userContext);
+                    GeminiCompletion completion = streamFromGemini(fullPrompt, recommendation -> {
+                        emitted.set(true);
+                        onRecommendation.accept(recommendation);
+                    });
+                    result = completion.result();
+                    usage = completion.usage();
+                    geminiResponseCache.put(request.getPrompt(), request.getMaxRecommendations(), userContext, result);
+                } catch (ServiceUnavailableException e) {
+                    // Con películas ya enviadas, sumar la lista degradada mezclaría dos resultados: cerrar con error
+                    if (emitted.get()) {
+                        throw e;
+                    }
+                    result = degradedRecommendation(userId, request, e);
+                    result.recommendations().forEach(onRecommendation);
+                }
+            }
+        } catch (RuntimeException e) {
+            aiQuotaManager.refund(reservation);
+            throw e;
         }
 
-        log.info("Recomendación generada exitosamente. {} películas recomendadas", recommendations.size());
+        recordUsage(reservation, request, usage);
+        aiInteractionWriter.write(userId, request.getPrompt(), result.rawResponse(), usage);
+
+        log.info("Recomendación en streaming completada. {} películas recomendadas", result.recommendations().size());
+
+        return buildResponse(reservation, result);
+    }
 
+    //Recomendación para procesos batch ("Para ti"): no consume cuota ni registra interacción, y sin Gemini
+    //falla en lugar de degradar, para no guardar como precalculado un resultado de cache ajena o local
+    public AIRecommendationResponse precomputeRecommendation(Long userId, AIRecommendationRequest request) {
+        String userContext = buildUserContext(userId, request.getIncludeUserHistory());
+        CachedRecommendation result = geminiResponseCache.get(request.getPrompt(), request.getMaxRecommendations(), userContext);
+        if (result == null) {
+            result = callGemini(request, userContext).result();
+            geminiResponseCache.put(request.getPrompt(), request.getMaxRecommendations(), userContext, result);
+        }
         return AIRecommendationResponse.builder()
-                .recommendations(recommendations)
-                .explanation(extractExplanation(aiResponse))
-                .requestsRemainingToday(requestsRemaining)
+                .recommendations(result.recommendations())
+                .explanation(result.explanation())
                 .build();
     }
 
     //Verificar si el usuario puede hacer una request de IA
-    @Transactional(readOnly = true)
     public AILimitResponse canRequestAI(Long userId) {
-        User user = findUserById(userId);
-
-        if (user.getPlan() == UserPlan.PREMIUM) {
-            return AILimitResponse.builder()
-                    .canRequest(true)
-                    .requestsRemainingToday(null)
-                    .isPremium(true)
-                    .message("Requests ilimitados como usuario Premium")
-                    .build();
-        }
+        return aiQuotaManager.getLimit(userId);
+    }
 
-        // Verificar si necesita reset
-        if (needsReset(user)) {
-            return AILimitResponse.builder()
-                    .canRequest(true)
-                    .requestsRemainingToday(1)
-                    .isPremium(false)
-                    .message("Puedes hacer 1 request de IA hoy")
-                    .build();
-        }
+    //Recomendaciones del modelo local item-item (sin Gemini, no consume cuota)
+    public AIRecommendationResponse getLocalRecommendation(Long userId, int limit) {
+        return AIRecommendationResponse.builder()
+                .recommendations(localRecommender.recommend(userId, limit))
+                .explanation(LOCAL_EXPLANATION)
+                .build();
+    }
 
-        boolean canRequest = user.getAiRequestsToday() < 1;
-        int remaining = Math.max(0, 1 - user.getAiRequestsToday());
+    //Construir prompt, llamar a Gemini y parsear la respuesta
+    private GeminiCompletion callGemini(AIRecommendationRequest request, String userContext) {
+        // Construir prompt completo
+        String fullPrompt = buildPrompt(request.getPrompt(), userContext, request.getMaxRecommendations());
+        recordPromptSize(fullPrompt, userContext);
+        // Llamar a Gemini API
+        GeminiResult aiResponse = geminiClient.generate(fullPrompt);
 
-        return AILimitResponse.builder()
-                .canRequest(canRequest)
-                .requestsRemainingToday(remaining)
-                .isPremium(false)
-                .message(canRequest ?
-                        "Puedes hacer " + remaining + " request de IA hoy" :
-                        "Has alcanzado el límite diario. Actualiza a Premium para requests ilimitados")
-                .build();
+        // Parsear respuesta
+        return new GeminiCompletion(parseAndVerify(aiResponse.text()), aiResponse);
     }
 
-    //Verificar y actualizar límite de IA
-    private void checkAndUpdateAILimit(User user) {
-        //Reset si es un nuevo día
-        if (needsReset(user)) {
-            user.setAiRequestsToday(0);
-            user.setAiLastReset(LocalDateTime.now());
+    //Tokens por request y por plan (solo cuando hubo llamada real a Gemini)
+    private void recordUsage(QuotaReservation reservation, AIRecommendationRequest request, GeminiResult usage) {
+        if (usage == null) {
+            return;
         }
-
-        //Verificar límite
-        if (user.getAiRequestsToday() >= 1) {
-            throw new BadRequestException(
-                    "Has alcanzado el límite diario de 1 request de IA. " +
-                            "Actualiza a Premium para requests ilimitados"
-            );
+        String plan = reservation.plan().name();
+        String history = String.valueOf(Boolean.TRUE.equals(request.getIncludeUserHistory()));
+        if (usage.totalTokens() != null) {
+            DistributionSummary.builder("ai.tokens.request")
+                    .description("Tokens totales por request de IA")
+                    .baseUnit("tokens")
+                    .tags("plan", plan, "history", history)
+                    .publishPercentiles(0.5, 0.95)
+                    .register(meterRegistry)
+                    .record(usage.totalTokens());
+        }
+        if (usage.promptTokens() != null) {
+            DistributionSummary.builder("ai.tokens.prompt")
+                    .description("Tokens de entrada por request de IA")
+                    .baseUnit("tokens")
+                    .tags("plan", plan, "history", history)
+                    .publishPercentiles(0.5, 0.95)
+                    .register(meterRegistry)
+                    .record(usage.promptTokens());
         }
+        Timer.builder("ai.gemini.latency")
+                .description("Latencia de Gemini por plan y uso de historial")
+                .tags("plan", plan, "history", history)
+                .register(meterRegistry)
+                .record(usage.latencyMs(), TimeUnit.MILLISECONDS);
+    }
 
-        // Incrementar contador
-        user.setAiRequestsToday(user.getAiRequestsToday() + 1);
-        userRepository.save(user);
+    //Distribución del tamaño del prompt y de la parte aportada por el contexto del usuario
+    private void recordPromptSize(String fullPrompt, String userContext) {
+        DistributionSummary.builder("ai.prompt.size")
+                .description("Tamaño del prompt enviado a Gemini")
+                .baseUnit("chars")
+                .publishPercentiles(0.5, 0.95)
+                .register(meterRegistry)
+                .record(fullPrompt.length());
+        DistributionSummary.builder("ai.prompt.context.size")
+                .description("Tamaño del contexto de usuario dentro del prompt")
+                .baseUnit("chars")
+                .register(meterRegistry)
+                .record(userContext.length());
     }
 
+    //Modo degradado de Gemini: respuesta cacheada para el mismo prompt sin contexto de usuario, o el recomendador local
+    private CachedRecommendation degradedRecommendation(Long userId, AIRecommendationRequest request, ServiceUnavailableException cause) {
+        CachedRecommendation fallback = geminiResponseCache.get(request.getPrompt(), request.getMaxRecommendations(), "");
+        if (fallback != null) {
+            log.warn("Gemini no disponible, sirviendo recomendación cacheada: {}", cause.getMessage());
+            meterRegistry.counter("ai.recommendations.degraded", "source", "cache").increment();
+            return fallback;
+        }
 
-    //Verificar si necesita reset del contador diario
-    private boolean needsReset(User user) {
-        if (user.getAiLastReset() == null) {
-            return true;
+        List<MovieRecommendation> local = localRecommender.recommend(userId, request.getMaxRecommendations());
+        if (local.isEmpty()) {
+            throw cause;
         }
-        LocalDate lastReset = user.getAiLastReset().toLocalDate();
-        LocalDate today = LocalDate.now();
-        return lastReset.isBefore(today);
+        log.warn("Gemini no disponible, sirviendo recomendación local: {}", cause.getMessage());
+        meterRegistry.counter("ai.recommendations.degraded", "source", "local").increment();
+        return localResult(local, LOCAL_EXPLANATION);
     }
 
-    //Construir contexto del usuario
-    private String buildUserContext(Long userId, Boolean includeHistory) {
-        if (!includeHistory) {
-            return "";
+    //Límite FREE alcanzado: responder con el recomendador local en lugar de rechazar la request
+    private AIRecommendationResponse quotaExceededRecommendation(Long userId, AIRecommendationRequest request,
+                                                                 AIQuotaExceededException cause,
+                                                                 Consumer<MovieRecommendation> onRecommendation) {
+        List<MovieRecommendation> local = localRecommender.recommend(userId, request.getMaxRecommendations());
+        if (local.isEmpty()) {
+            throw cause;
         }
+        log.info("Límite de IA alcanzado para usuario {}, sirviendo recomendación local", userId);
+        meterRegistry.counter("ai.recommendations.quota-fallback").increment();
+        local.forEach(onRecommendation);
 
-        StringBuilder context = new StringBuilder();
-        context.append("\n\nCONTEXTO DEL USUARIO:\n");
+        return AIRecommendationResponse.builder()
+                .recommendations(local)
+                .explanation(QUOTA_EXCEEDED_EXPLANATION)
+                .requestsRemainingToday(0)
+                .build();
+    }
 
-        //Obtener favoritos
-        List<Integer> favoriteIds = favoriteRepository.findMovieIdsByUserId(userId);
-        if (!favoriteIds.isEmpty()) {
-            context.append("Películas favoritas (IDs): ").append(favoriteIds).append("\n");
-        }
+    private CachedRecommendation localResult(List<MovieRecommendation> recommendations, String explanation) {
+        JsonObject raw = new JsonObject();
+        raw.add("recommendations", gson.toJsonTree(recommendations));
+        raw.addProperty("explanation", explanation);
+        return new CachedRecommendation(recommendations, explanation, gson.toJson(raw));
+    }
 
-        //Obtener ratings
-        List<Integer> ratedIds = ratingRepository.findMovieIdsByUserId(userId);
-        if (!ratedIds.isEmpty()) {
-            context.append("Películas calificadas (IDs): ").append(ratedIds).append("\n");
+    //Consumir el stream de Gemini verificando cada película en cuanto el modelo termina de generarla
+    private GeminiCompletion streamFromGemini(String fullPrompt, Consumer<MovieRecommendation> onRecommendation) {
+        List<MovieRecommendation> parsed = new ArrayList<>();
+        List<CompletableFuture<Void>> verifications = new ArrayList<>();
+        RecommendationStreamParser parser = new RecommendationStreamParser(gson, rec -> {
+            parsed.add(rec);
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(verificationTimeoutMs);
+            verifications.add(CompletableFuture
+                    .supplyAsync(() -> verifyMovieId(rec.getTitle(), rec.getMovieId(), deadline), virtualThreadExecutor)
+                    .completeOnTimeout(rec.getMovieId(), verificationTimeoutMs, TimeUnit.MILLISECONDS)
+                    // Async: si vence el timeout, el que completa es el hilo Delayer compartido de la JVM y el
+                    // envío SSE a un cliente lento no debe bloquearlo
+                    .thenAcceptAsync(movieId -> {
+                        rec.setMovieId(movieId);
+                        onRecommendation.accept(rec);
+                    }, virtualThreadExecutor));
+        });
+
+        GeminiResult streamed;
+        try {
+            streamed = geminiClient.stream(fullPrompt, parser::feed);
+        } catch (RuntimeException e) {
+            // Esperar las verificaciones en curso: ninguna puede emitir después del fallback o del evento de error
+            CompletableFuture.allOf(verifications.toArray(CompletableFuture[]::new)).exceptionally(ignored -> null).join();
+            throw e;
+        }
+        String aiResponse = streamed.text();
+        CompletableFuture.allOf(verifications.toArray(CompletableFuture[]::new)).join();
+
+        // Si el modelo no respetó el formato esperado, usar el parser completo
+        if (parsed.isEmpty()) {
+            CachedRecommendation result = parseAndVerify(aiResponse);
+            result.recommendations().forEach(onRecommendation);
+            return new GeminiCompletion(result, streamed);
         }
 
-        return context.toString();
+        return new GeminiCompletion(
+                new CachedRecommendation(List.copyOf(parsed), explanationOrDefault(parser.explanation()), aiResponse), streamed);
+    }
+
+    //Construir contexto del usuario
+    private String buildUserContext(Long userId, Boolean includeHistory) {
+        if (!includeHistory) {
+            return "";
+        }
+        return userContextBuilder.build(userId) + localRecommender.promptCandidates(userId);
     }
 
     //Construir prompt completo
@@ -233,144 +413,104 @@ public class AIRecommendationServiceImpl implements AIRecommendationService {
 
 
 
-    //Llamar a Gemini API
-    private String callGeminiAPI(String prompt) {
+    //Parsear respuesta de Gemini en una sola pasada
+    private ParsedRecommendations parseResponse(String aiResponse) {
         try {
-            // Construir URL
-            String url = String.format("%s/%s:generateContent?key=%s",
-                    geminiBaseUrl, geminiModel, geminiApiKey);
-
-            //Construir requestbody
-            JsonObject requestBody = new JsonObject();
-            JsonArray contents = new JsonArray();
-            JsonObject content = new JsonObject();
-            JsonArray parts = new JsonArray();
-            JsonObject part = new JsonObject();
-            part.addProperty("text", prompt);
-            parts.add(part);
-            content.add("parts", parts);
-            contents.add(content);
-            requestBody.add("contents", contents);
-
-            // Configuración de generación
-            JsonObject generationConfig = new JsonObject();
-            generationConfig.addProperty("temperature", 0.7);
-            generationConfig.addProperty("maxOutputTokens", 1000);
-            requestBody.add("generationConfig", generationConfig);
-
-            RequestBody body = RequestBody.create(
-                    gson.toJson(requestBody),
-                    MediaType.parse("application/json")
-            );
-
-            Request request = new Request.Builder()
-                    .url(url)
-                    .post(body)
-                    .build();
-
-            //Ejecutar request
-            try (Response response = httpClient.newCall(request).execute()) {
-                if (!response.isSuccessful()) {
-                    log.error("Error en Gemini API: {}", response.code());
-                    throw new BadRequestException("Error al obtener recomendaciones de IA");
-                }
-
-                String responseBody = response.body().string();
-                log.debug("Respuesta de Gemini API: {}", responseBody);
-
-                // Parsear respuesta
-                JsonObject jsonResponse = gson.fromJson(responseBody, JsonObject.class);
-                return jsonResponse
-                        .getAsJsonArray("candidates")
-                        .get(0).getAsJsonObject()
-                        .getAsJsonObject("content")
-                        .getAsJsonArray("parts")
-                        .get(0).getAsJsonObject()
-                        .get("text").getAsString();
+            ParsedRecommendations parsed = RecommendationParser.parse(aiResponse);
+            if (parsed.recommendations().isEmpty()) {
+                throw new IOException("La respuesta no contiene recomendaciones");
             }
-
-        } catch (IOException e) {
-            log.error("Error al llamar a Gemini API", e);
-            throw new BadRequestException("Error de conexión con el servicio de IA");
+            return parsed;
+        } catch (IOException | RuntimeException e) {
+            log.error("Error al parsear recomendaciones: {}", aiResponse, e);
+            throw new BadRequestException("Error al procesar respuesta de IA: " + e.getMessage());
         }
     }
 
-    //Parsear recomendaciones del response de Gemini
-    //Parsear recomendaciones del response de Gemini
-    private List<MovieRecommendation> parseRecommendations(String aiResponse) {
-        try {
-            // Limpiar response (remover markdown si existe)
-            String cleanedResponse = aiResponse
-                    .replaceAll("```json", "")
-                    .replaceAll("```", "")
-                    .trim();
-
-            log.debug("Cleaned AI Response: {}", cleanedResponse);
-
-            // 🔹 AQUI VIENE LA NUEVA PARTE: limpiar cualquier texto fuera del JSON
-            if (!cleanedResponse.startsWith("{")) {
-                int firstBrace = cleanedResponse.indexOf("{");
-                int lastBrace = cleanedResponse.lastIndexOf("}");
-                if (firstBrace != -1 && lastBrace != -1) {
-                    cleanedResponse = cleanedResponse.substring(firstBrace, lastBrace + 1);
-                }
-            }
-
-            // Ahora sí parseamos
-            JsonObject jsonResponse = gson.fromJson(cleanedResponse, JsonObject.class);
-            JsonArray recommendations = jsonResponse.getAsJsonArray("recommendations");
+    //Parsear, verificar IDs en TMDb y armar el resultado
+    private CachedRecommendation parseAndVerify(String aiResponse) {
+        ParsedRecommendations parsed = parseResponse(aiResponse);
 
-            List<MovieRecommendation> result = new ArrayList<>();
+        // Verificar y corregir los IDs con TMDb en paralelo
+        verifyMovieIds(parsed.recommendations());
 
-            for (int i = 0; i < recommendations.size(); i++) {
-                JsonObject rec = recommendations.get(i).getAsJsonObject();
+        parsed.recommendations().forEach(rec ->
+                log.info("Parsed recommendation - ID: {}, Title: {}", rec.getMovieId(), rec.getTitle()));
+        log.info("Total recommendations parsed: {}", parsed.recommendations().size());
+        return new CachedRecommendation(List.copyOf(parsed.recommendations()), parsed.explanation(), aiResponse);
+    }
 
-                int movieId = rec.get("movieId").getAsInt();
-                String title = rec.get("title").getAsString();
-                String reason = rec.get("reason").getAsString();
+    //Verificar IDs contra TMDb en paralelo con un deadline global
+    private void verifyMovieIds(List<MovieRecommendation> recommendations) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(verificationTimeoutMs);
 
-                // Verificar y corregir el ID con TMDb
-                movieId = verifyMovieId(title, movieId);
+        // El deadline llega hasta TMDbClient: las llamadas HTTP no siguen corriendo después de él
+        List<CompletableFuture<Integer>> verifications = recommendations.stream()
+                .map(rec -> CompletableFuture.supplyAsync(
+                        () -> verifyMovieId(rec.getTitle(), rec.getMovieId(), deadline), virtualThreadExecutor))
+                .toList();
 
-                log.info("Parsed recommendation - ID: {}, Title: {}", movieId, title);
+        try {
+            CompletableFuture.allOf(verifications.toArray(CompletableFuture[]::new))
+                    .get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Verificación de IDs en TMDb superó el deadline de {} ms", verificationTimeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // verifyMovieId no lanza excepciones, cada futuro resuelve al ID original
+        }
 
-                result.add(MovieRecommendation.builder()
-                        .movieId(movieId)
-                        .title(title)
-                        .reason(reason)
-                        .build());
+        // Las verificaciones que no terminaron a tiempo mantienen el ID de la IA (su llamada a TMDb
+        // se corta sola por el deadline; el resultado tardío se descarta)
+        int timedOut = 0;
+        for (int i = 0; i < recommendations.size(); i++) {
+            CompletableFuture<Integer> verification = verifications.get(i);
+            MovieRecommendation rec = recommendations.get(i);
+            if (verification.isDone()) {
+                rec.setMovieId(verification.join());
+            } else {
+                timedOut++;
             }
+        }
 
-            log.info("Total recommendations parsed: {}", result.size());
-            return result;
-
-        } catch (Exception e) {
-            log.error("Error al parsear recomendaciones: {}", aiResponse, e);
-            throw new BadRequestException("Error al procesar respuesta de IA: " + e.getMessage());
+        sample.stop(meterRegistry.timer("ai.tmdb.verification", "outcome", timedOut == 0 ? "complete" : "deadline"));
+        if (timedOut > 0) {
+            meterRegistry.counter("ai.tmdb.verification.timeouts").increment(timedOut);
         }
     }
 
 
-    //
-    private int verifyMovieId(String title, int aiMovieId) {
+    //Resolver el ID real en TMDb por título (con cache de resoluciones)
+    private int verifyMovieId(String title, int aiMovieId, long deadline) {
+        Integer cached = titleResolutionCache.get(title);
+        if (cached != null) {
+            return cached == TitleResolutionCache.NO_MATCH ? aiMovieId : cached;
+        }
+
+        // Catálogo local primero: sin llamada a TMDb ni consumo de su cuota
+        Integer local = catalogService.resolveTitle(title, aiMovieId);
+        if (local != null) {
+            meterRegistry.counter("ai.tmdb.verification.local").increment();
+            titleResolutionCache.putMatch(title, local);
+            return local;
+        }
+
+        // Modo degradado: con el circuito de TMDb abierto se mantiene el ID de la IA
+        if (!tmdbGuard.isCallPermitted()) {
+            meterRegistry.counter("ai.tmdb.verification.degraded").increment();
+            return aiMovieId;
+        }
+
         try {
-            String url = String.format(
-                    "https://api.themoviedb.org/3/search/movie?api_key=%s&query=%s&language=es-ES",
-                    tmdbApiKey,
-                    URLEncoder.encode(title, StandardCharsets.UTF_8)
-            );
-
-            Request request = new Request.Builder().url(url).build();
-            try (Response response = httpClient.newCall(request).execute()) {
-                if (response.isSuccessful() && response.body() != null) {
-                    JsonObject json = gson.fromJson(response.body().string(), JsonObject.class);
-                    JsonArray results = json.getAsJsonArray("results");
-
-                    if (results != null && results.size() > 0) {
-                        return results.get(0).getAsJsonObject().get("id").getAsInt(); //  ID real
-                    }
-                }
+            int movieId = searchMovieId(title, deadline);
+            if (movieId == TitleResolutionCache.NO_MATCH) {
+                titleResolutionCache.putNoMatch(title);
+                return aiMovieId;
             }
+            titleResolutionCache.putMatch(title, movieId);
+            return movieId;
         } catch (Exception e) {
             log.warn("Error verificando movieId para '{}': {}", title, e.getMessage());
         }
@@ -379,37 +519,39 @@ public class AIRecommendationServiceImpl implements AIRecommendationService {
         return aiMovieId;
     }
 
+    //Buscar el título en TMDb y devolver el primer ID (NO_MATCH si no hay resultados)
+    private int searchMovieId(String title, long deadline) {
+        JsonObject json = gson.fromJson(tmdbClient.get("/search/movie", Map.of("query", title), Priority.VERIFICATION, deadline),
+                JsonObject.class);
+        JsonArray results = json.getAsJsonArray("results");
 
-    //Extraer explicación general
-    private String extractExplanation(String aiResponse) {
-        try {
-            String cleanedResponse = aiResponse
-                    .replaceAll("```json", "")
-                    .replaceAll("```", "")
-                    .trim();
-
-            JsonObject jsonResponse = gson.fromJson(cleanedResponse, JsonObject.class);
-            return jsonResponse.get("explanation").getAsString();
-        } catch (Exception e) {
-            return "Recomendaciones basadas en tus preferencias";
+        if (results != null && results.size() > 0) {
+            return results.get(0).getAsJsonObject().get("id").getAsInt(); //  ID real
         }
+        return TitleResolutionCache.NO_MATCH;
     }
 
-    //Guardar interacción con IA
-    private void saveInteraction(User user, String prompt, String response) {
-        AIInteraction interaction = AIInteraction.builder()
-                .user(user)
-                .prompt(prompt)
-                .response(response)
-                .tokensUsed(null) // Gemini no proporciona esto directamente
-                .build();
+    //Explicación leída por el parser de streaming (ausente o vacía usa la explicación por defecto)
+    private static String explanationOrDefault(String explanation) {
+        return explanation == null || explanation.isBlank() ? RecommendationParser.DEFAULT_EXPLANATION : explanation;
+    }
+
+    //Clave de coalescing: mismo usuario, mismo prompt normalizado y mismas opciones
+    private String coalescingKey(Long userId, AIRecommendationRequest request) {
+        return userId + ":" + request.getMaxRecommendations() + ":" + request.getIncludeUserHistory()
+                + ":" + TextNormalizer.fold(request.getPrompt());
+    }
 
-        aiInteractionRepository.save(interaction);
+    //Construir response con los requests restantes de la reserva
+    private AIRecommendationResponse buildResponse(QuotaReservation reservation, CachedRecommendation result) {
+        return AIRecommendationResponse.builder()
+                .recommendations(result.recommendations())
+                .explanation(result.explanation())
+                .requestsRemainingToday(reservation.requestsRemainingToday())
+                .build();
     }
 
-   //Buscar usuario por id
-    private User findUserById(Long userId) {
-        return userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado con ID: " + userId));
+    //Recomendación parseada junto con el uso de tokens y la latencia de la llamada que la generó
+    private record GeminiCompletion(CachedRecommendation result, GeminiResult usage) {
     }
 }
@@ -0,0 +1,96 @@
+package com.movie.app.service.impl;
+
+import com.movie.app.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+//Coalescing de requests idénticos concurrentes (single-flight) y límite de requests en curso por usuario
+@Component
+@Slf4j
+public class AIRequestCoalescer {
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Integer> inFlightPerUser = new ConcurrentHashMap<>();
+    private final int maxInFlightPerUser;
+
+    private final Counter coalesced;
+    private final Counter rejected;
+
+    public AIRequestCoalescer(MeterRegistry meterRegistry,
+                              @Value("${ai.max-in-flight-per-user:2}") int maxInFlightPerUser) {
+        this.maxInFlightPerUser = maxInFlightPerUser;
+        this.coalesced = meterRegistry.counter("ai.requests.coalesced");
+        this.rejected = meterRegistry.counter("ai.requests.rejected", "reason", "in-flight-limit");
+    }
+
+    //Ejecutar la llamada o, si ya hay una idéntica en curso, esperar y compartir su resultado
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, Long userId, Supplier<T> call) {
+        CompletableFuture<Object> leader = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, leader);
+        if (existing != null) {
+            coalesced.increment();
+            log.info("Request de IA idéntico en curso para usuario {}, compartiendo resultado", userId);
+            return (T) await(existing);
+        }
+
+        try (InFlightPermit ignored = acquire(userId)) {
+            T result = call.get();
+            leader.complete(result);
+            return result;
+        } catch (Throwable e) {
+            // También Errors: si el líder no completa el futuro, los que esperan quedan colgados para siempre
+            leader.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, leader);
+        }
+    }
+
+    //Reservar un lugar entre los requests en curso del usuario (rechaza de inmediato si no hay)
+    public InFlightPermit acquire(Long userId) {
+        boolean[] admitted = new boolean[1];
+        inFlightPerUser.compute(userId, (id, count) -> {
+            int current = count == null ? 0 : count;
+            if (current >= maxInFlightPerUser) {
+                return count;
+            }
+            admitted[0] = true;
+            return current + 1;
+        });
+
+        if (!admitted[0]) {
+            rejected.increment();
+            throw new TooManyRequestsException(
+                    "Ya tienes " + maxInFlightPerUser + " recomendaciones en curso. Espera a que terminen");
+        }
+        return () -> inFlightPerUser.computeIfPresent(userId, (id, count) -> count <= 1 ? null : count - 1);
+    }
+
+    private static Object await(CompletableFuture<Object> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    //Lugar reservado; se libera al cerrar
+    public interface InFlightPermit extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,346 @@
+package com.movie.app.service.impl;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.movie.app.event.CatalogUpdatedEvent;
+import com.movie.app.util.TextNormalizer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+//Ingesta en streaming del export diario de IDs de TMDb (JSON lines, gzip) hacia la tabla movies
+@Component
+@Slf4j
+public class CatalogIngestionJob {
+    private static final String EXPORT_URL = "https://files.tmdb.org/p/exports/movie_ids_%s.json.gz";
+    private static final DateTimeFormatter EXPORT_DATE = DateTimeFormatter.ofPattern("MM_dd_yyyy");
+    //Solo se escribe la fila si algo relevante cambió (la popularidad se mueve a diario; se ignoran variaciones chicas)
+    private static final String UPSERT_SQL = """
+            INSERT INTO movies (id, original_title, normalized_title, popularity, adult, video, deleted_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, NULL, ?)
+            ON CONFLICT (id) DO UPDATE SET
+                original_title = EXCLUDED.original_title,
+                normalized_title = EXCLUDED.normalized_title,
+                popularity = EXCLUDED.popularity,
+                adult = EXCLUDED.adult,
+                video = EXCLUDED.video,
+                deleted_at = NULL,
+                updated_at = EXCLUDED.updated_at
+            WHERE movies.deleted_at IS NOT NULL
+               OR (movies.original_title, movies.adult, movies.video)
+                  IS DISTINCT FROM (EXCLUDED.original_title, EXCLUDED.adult, EXCLUDED.video)
+               OR ABS(movies.popularity - EXCLUDED.popularity) >= ?
+            """;
+    private static final String ACTIVE_COUNT_SQL = "SELECT COUNT(*) FROM movies WHERE deleted_at IS NULL";
+    private static final String ACTIVE_IDS_SQL = "SELECT id FROM movies WHERE deleted_at IS NULL";
+    private static final String MARK_DELETED_SQL = "UPDATE movies SET deleted_at = ?, updated_at = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final OkHttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ExecutorService virtualThreadExecutor;
+    private final String source;
+    private final boolean runOnStartup;
+    private final int batchSize;
+    private final double popularityDelta;
+    private final double minSeenRatio;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong processed = new AtomicLong();
+    private volatile double rowsPerSecond;
+
+    private final Timer runTimer;
+    private final Counter upsertedRows;
+    private final Counter unchangedRows;
+    private final Counter deletedRows;
+    private final Counter invalidLines;
+
+    public CatalogIngestionJob(JdbcTemplate jdbcTemplate,
+                               TransactionTemplate transactionTemplate,
+                               OkHttpClient httpClient,
+                               ObjectMapper objectMapper,
+                               ApplicationEventPublisher eventPublisher,
+                               ExecutorService virtualThreadExecutor,
+                               MeterRegistry meterRegistry,
+                               @Value("${catalog.ingestion.source:}") String source,
+                               @Value("${catalog.ingestion.run-on-startup:false}") boolean runOnStartup,
+                               @Value("${catalog.ingestion.batch-size:5000}") int batchSize,
+                               @Value("${catalog.ingestion.popularity-delta:1.0}") double popularityDelta,
+                               @Value("${catalog.ingestion.min-seen-ratio:0.9}") double minSeenRatio) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.httpClient = httpClient;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.virtualThreadExecutor = virtualThreadExecutor;
+        this.source = source;
+        this.runOnStartup = runOnStartup;
+        this.batchSize = batchSize;
+        this.popularityDelta = popularityDelta;
+        this.minSeenRatio = minSeenRatio;
+
+        this.runTimer = meterRegistry.timer("catalog.ingestion.run");
+        this.upsertedRows = meterRegistry.counter("catalog.ingestion.rows", "result", "upserted");
+        this.unchangedRows = meterRegistry.counter("catalog.ingestion.rows", "result", "unchanged");
+        this.deletedRows = meterRegistry.counter("catalog.ingestion.rows", "result", "deleted");
+        this.invalidLines = meterRegistry.counter("catalog.ingestion.rows", "result", "invalid");
+        Gauge.builder("catalog.ingestion.progress", processed, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("catalog.ingestion.rows-per-second", this, job -> job.rowsPerSecond).register(meterRegistry);
+        Gauge.builder("catalog.ingestion.running", running, r -> r.get() ? 1 : 0).register(meterRegistry);
+    }
+
+    //Ingesta inicial opcional (p. ej. desde un archivo local en entornos sin acceso a TMDb)
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        if (runOnStartup) {
+            virtualThreadExecutor.execute(this::ingest);
+        }
+    }
+
+    //Los exports de TMDb se publican alrededor de las 8:00 UTC
+    @Scheduled(cron = "${catalog.ingestion.cron:0 0 9 * * *}", zone = "UTC")
+    public void ingest() {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("La ingesta del catálogo ya está en ejecución, se omite esta corrida");
+            return;
+        }
+        try {
+            runTimer.record(this::runIngestion);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private void runIngestion() {
+        String location = resolveSource();
+        log.info("Iniciando ingesta del catálogo desde {}", location);
+        processed.set(0);
+        rowsPerSecond = 0;
+        long start = System.nanoTime();
+
+        BitSet seen = new BitSet();
+        AtomicLong committed = new AtomicLong();
+        try (InputStream in = open(location);
+             BufferedReader reader = new BufferedReader(new InputStreamReader(decompress(in), StandardCharsets.UTF_8))) {
+            stream(reader, seen, start, committed);
+        } catch (IOException | RuntimeException e) {
+            log.error("Error en la ingesta del catálogo desde {}: {}", location, e.getMessage(), e);
+            // Sin borrados (el export quedó incompleto), pero los batches ya confirmados deben llegar al snapshot
+            if (committed.get() > 0) {
+                eventPublisher.publishEvent(new CatalogUpdatedEvent(committed.get(), 0, LocalDateTime.now()));
+            }
+            return;
+        }
+        long upserted = committed.get();
+
+        long deleted = markDeleted(seen);
+        double seconds = Math.max((System.nanoTime() - start) / 1e9, 1e-9);
+        log.info("Ingesta del catálogo completada: {} filas leídas, {} cambiadas, {} eliminadas en {} s",
+                processed.get(), upserted, deleted, String.format("%.1f", seconds));
+        if (upserted > 0 || deleted > 0) {
+            eventPublisher.publishEvent(new CatalogUpdatedEvent(upserted, deleted, LocalDateTime.now()));
+        }
+    }
+
+    // Memoria constante: una línea y un batch a la vez; el BitSet de IDs vistos ocupa ~1 bit por ID
+    //"committed" acumula las filas cambiadas de cada batch confirmado (sigue siendo válido si el stream falla)
+    private void stream(BufferedReader reader, BitSet seen, long start, AtomicLong committed) throws IOException {
+        List<ExportRow> batch = new ArrayList<>(batchSize);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            ExportRow row = parse(line);
+            if (row == null) {
+                invalidLines.increment();
+                continue;
+            }
+            seen.set(row.id());
+            batch.add(row);
+            if (batch.size() >= batchSize) {
+                committed.addAndGet(flush(batch));
+                batch.clear();
+                updateRate(start);
+            }
+        }
+        if (!batch.isEmpty()) {
+            committed.addAndGet(flush(batch));
+            updateRate(start);
+        }
+    }
+
+    private ExportRow parse(String line) {
+        try {
+            ExportRow row = objectMapper.readValue(line, ExportRow.class);
+            return row.id() != null && row.id() > 0 && row.originalTitle() != null ? row : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private long flush(List<ExportRow> batch) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int[][] results = jdbcTemplate.batchUpdate(UPSERT_SQL, batch, batch.size(), (ps, row) -> {
+            ps.setInt(1, row.id());
+            ps.setString(2, row.originalTitle());
+            ps.setString(3, TextNormalizer.fold(row.originalTitle()));
+            ps.setDouble(4, row.popularity() != null ? row.popularity() : 0);
+            ps.setBoolean(5, Boolean.TRUE.equals(row.adult()));
+            ps.setBoolean(6, Boolean.TRUE.equals(row.video()));
+            ps.setTimestamp(7, now);
+            ps.setDouble(8, popularityDelta);
+        });
+
+        long changed = 0;
+        for (int[] chunk : results) {
+            for (int count : chunk) {
+                // Con el WHERE del ON CONFLICT, 0 filas afectadas = la fila ya estaba al día
+                if (count == 0) {
+                    unchangedRows.increment();
+                } else {
+                    changed++;
+                }
+            }
+        }
+        upsertedRows.increment(changed);
+        processed.addAndGet(batch.size());
+        return changed;
+    }
+
+    //Marcar como eliminadas las películas vigentes que no aparecieron en el export
+    private long markDeleted(BitSet seen) {
+        // Un export truncado no debe vaciar el catálogo: se valida con el conteo antes de recorrer los IDs
+        Long active = jdbcTemplate.queryForObject(ACTIVE_COUNT_SQL, Long.class);
+        if (active == null || active == 0) {
+            return 0;
+        }
+        if (seen.cardinality() < active * minSeenRatio) {
+            log.warn("El export trajo {} IDs contra {} vigentes; se omite la detección de eliminadas",
+                    seen.cardinality(), active);
+            return 0;
+        }
+
+        // Cursor (fetchSize, dentro de la transacción) y updates por batch a medida que aparecen: memoria constante
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Integer> chunk = new ArrayList<>(batchSize);
+        long[] deleted = new long[1];
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(ACTIVE_IDS_SQL);
+                ps.setFetchSize(batchSize);
+                return ps;
+            }, rs -> {
+                int id = rs.getInt(1);
+                if (!seen.get(id)) {
+                    chunk.add(id);
+                    if (chunk.size() >= batchSize) {
+                        deleted[0] += markDeleted(chunk, now);
+                    }
+                }
+            });
+            if (!chunk.isEmpty()) {
+                deleted[0] += markDeleted(chunk, now);
+            }
+        });
+        deletedRows.increment(deleted[0]);
+        return deleted[0];
+    }
+
+    private int markDeleted(List<Integer> chunk, Timestamp now) {
+        jdbcTemplate.batchUpdate(MARK_DELETED_SQL, chunk, chunk.size(), (ps, id) -> {
+            ps.setTimestamp(1, now);
+            ps.setTimestamp(2, now);
+            ps.setInt(3, id);
+        });
+        int count = chunk.size();
+        chunk.clear();
+        return count;
+    }
+
+    private void updateRate(long start) {
+        double seconds = (System.nanoTime() - start) / 1e9;
+        if (seconds > 0) {
+            rowsPerSecond = processed.get() / seconds;
+        }
+    }
+
+    //Archivo local configurado, URL explícita, o el export de TMDb de ayer (el de hoy puede no estar publicado)
+    private String resolveSource() {
+        if (source != null && !source.isBlank()) {
+            return source;
+        }
+        return String.format(EXPORT_URL, LocalDate.now(ZoneOffset.UTC).minusDays(1).format(EXPORT_DATE));
+    }
+
+    private InputStream open(String location) throws IOException {
+        if (!location.startsWith("http://") && !location.startsWith("https://")) {
+            return Files.newInputStream(Path.of(location));
+        }
+        // Descarga en streaming: el body se consume a medida que se procesa
+        Response response = httpClient.newCall(new Request.Builder().url(location).build()).execute();
+        if (!response.isSuccessful() || response.body() == null) {
+            response.close();
+            throw new IOException("Descarga del export respondió " + response.code());
+        }
+        return response.body().byteStream();
+    }
+
+    //Acepta el export comprimido (gzip) o un archivo JSON lines plano (fixtures)
+    private static InputStream decompress(InputStream in) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(in, 64 * 1024);
+        buffered.mark(2);
+        int first = buffered.read();
+        int second = buffered.read();
+        buffered.reset();
+        boolean gzip = first == 0x1f && second == 0x8b;
+        return gzip ? new GZIPInputStream(buffered, 64 * 1024) : buffered;
+    }
+
+    //Línea del export: {"adult":false,"id":3924,"original_title":"Blondie","popularity":2.9,"video":false}
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    private record ExportRow(Integer id,
+                             @JsonProperty("original_title") String originalTitle,
+                             Double popularity,
+                             Boolean adult,
+                             Boolean video) {
+    }
+}
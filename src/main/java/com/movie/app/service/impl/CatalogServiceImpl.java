@@ -0,0 +1,122 @@
+package com.movie.app.service.impl;
+
+import com.movie.app.catalog.CatalogSnapshot;
+import com.movie.app.model.entity.CatalogMovie;
+import com.movie.app.model.external.TMDbMovie;
+import com.movie.app.model.external.TMDbMovieDetails;
+import com.movie.app.model.external.TMDbSearchResponse;
+import com.movie.app.repository.CatalogMovieRepository;
+import com.movie.app.service.CatalogService;
+import com.movie.app.util.TextNormalizer;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+
+//Consultas al catálogo local (tabla movies); cualquier falla de la base se trata como "no resuelto localmente"
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CatalogServiceImpl implements CatalogService {
+    private static final int SEARCH_PAGE_SIZE = 20;
+
+    private final CatalogMovieRepository catalogMovieRepository;
+    private final CatalogSnapshotManager catalogSnapshotManager;
+    private final ExecutorService virtualThreadExecutor;
+    private final MeterRegistry meterRegistry;
+
+    //ID de TMDb por título exacto (normalizado); null si no está en el catálogo. Si el ID candidato (el que
+    //propuso la IA) tiene ese título en el snapshot se confirma sin ir a la base; si no, el más popular de la tabla
+    public Integer resolveTitle(String title, Integer candidateId) {
+        String normalized = TextNormalizer.fold(title);
+        if (normalized.isEmpty()) {
+            return null;
+        }
+        if (candidateId != null && snapshotHasTitle(catalogSnapshotManager.current(), candidateId, normalized)) {
+            meterRegistry.counter("catalog.lookups", "type", "title", "result", "hit").increment();
+            return candidateId;
+        }
+        try {
+            List<Integer> ids = catalogMovieRepository.findIdsByNormalizedTitle(normalized, PageRequest.of(0, 1));
+            meterRegistry.counter("catalog.lookups", "type", "title", "result", ids.isEmpty() ? "miss" : "hit").increment();
+            return ids.isEmpty() ? null : ids.get(0);
+        } catch (DataAccessException e) {
+            log.warn("Error consultando el catálogo local por título: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    //Búsqueda por prefijo de título original, ordenada por popularidad (respuesta con la forma de TMDb)
+    public TMDbSearchResponse searchLocal(String query, int page) {
+        String prefix = escapeLike(TextNormalizer.fold(query));
+        List<CatalogMovie> movies = catalogMovieRepository.findByNormalizedTitlePrefix(prefix, PageRequest.of(page - 1, SEARCH_PAGE_SIZE));
+        List<TMDbMovie> results = movies.stream()
+                .map(m -> TMDbMovie.builder()
+                        .id(m.getId())
+                        .title(m.getTitle() != null ? m.getTitle() : m.getOriginalTitle())
+                        .originalTitle(m.getOriginalTitle())
+                        .posterPath(m.getPosterPath())
+                        .releaseDate(m.getReleaseDate())
+                        .popularity(m.getPopularity())
+                        .adult(m.getAdult())
+                        .video(m.getVideo())
+                        .build())
+                .toList();
+        meterRegistry.counter("catalog.lookups", "type", "search", "result", results.isEmpty() ? "miss" : "hit").increment();
+        // Sin COUNT: el total se desconoce, solo se indica si podría haber otra página
+        return new TMDbSearchResponse(page, results, results.size() < SEARCH_PAGE_SIZE ? page : page + 1, null);
+    }
+
+    //IDs que el export de TMDb ya no incluye (no tiene sentido pedirlos)
+    public Set<Integer> findDeletedIds(Collection<Integer> movieIds) {
+        // El snapshot solo tiene películas vigentes: lo que está ahí no está eliminado y no se consulta
+        CatalogSnapshot snapshot = catalogSnapshotManager.current();
+        Collection<Integer> unknown = snapshot.size() == 0 ? movieIds
+                : movieIds.stream().filter(id -> id == null || !snapshot.contains(id)).toList();
+        if (unknown.isEmpty()) {
+            return Set.of();
+        }
+        try {
+            return new HashSet<>(catalogMovieRepository.findDeletedIds(unknown));
+        } catch (DataAccessException e) {
+            log.warn("Error consultando IDs eliminados en el catálogo local: {}", e.getMessage());
+            return Set.of();
+        }
+    }
+
+    //Guardar título localizado, poster y fecha obtenidos del detalle (fuera del camino del request)
+    public void recordDetails(TMDbMovieDetails details) {
+        if (details == null || details.getId() == null || details.getTitle() == null) {
+            return;
+        }
+        virtualThreadExecutor.execute(() -> {
+            try {
+                catalogMovieRepository.updateDisplayFields(details.getId(), details.getTitle(),
+                        TextNormalizer.fold(details.getTitle()), details.getPosterPath(), details.getReleaseDate(),
+                        LocalDateTime.now());
+            } catch (DataAccessException e) {
+                log.warn("Error actualizando película {} en el catálogo local: {}", details.getId(), e.getMessage());
+            }
+        });
+    }
+
+    private static boolean snapshotHasTitle(CatalogSnapshot snapshot, int movieId, String normalizedTitle) {
+        int index = snapshot.indexOf(movieId);
+        return index >= 0 && !snapshot.adult(index) && (Objects.equals(TextNormalizer.fold(snapshot.title(index)), normalizedTitle)
+                || Objects.equals(TextNormalizer.fold(snapshot.originalTitle(index)), normalizedTitle));
+    }
+
+    private static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,198 @@
+package com.movie.app.service.impl;
+
+import com.movie.app.catalog.CatalogSnapshot;
+import com.movie.app.catalog.CatalogSnapshotWriter;
+import com.movie.app.event.CatalogSnapshotPublishedEvent;
+import com.movie.app.event.CatalogUpdatedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+//Snapshot del catálogo mapeado en memoria: se abre al arrancar, se reconstruye cuando cambia el catálogo y se reemplaza atómicamente
+@Component
+@Slf4j
+public class CatalogSnapshotManager {
+    private static final String PREFIX = "catalog-";
+    private static final String SUFFIX = ".snap";
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+    private static final String MOVIES_SQL = """
+            SELECT id, title, original_title, poster_path, release_date, popularity, adult, video
+            FROM movies WHERE deleted_at IS NULL ORDER BY id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ExecutorService virtualThreadExecutor;
+    private final Path directory;
+    private final int keep;
+    private final boolean buildIfMissing;
+
+    private final AtomicReference<CatalogSnapshot> current = new AtomicReference<>(CatalogSnapshot.EMPTY);
+    private final AtomicBoolean building = new AtomicBoolean();
+    private final AtomicBoolean rebuildRequested = new AtomicBoolean();
+    private final Timer buildTimer;
+    private final Timer openTimer;
+
+    public CatalogSnapshotManager(JdbcTemplate jdbcTemplate,
+                                  TransactionTemplate transactionTemplate,
+                                  ApplicationEventPublisher eventPublisher,
+                                  ExecutorService virtualThreadExecutor,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${catalog.snapshot.dir:./data/catalog}") String directory,
+                                  @Value("${catalog.snapshot.keep:2}") int keep,
+                                  @Value("${catalog.snapshot.build-if-missing:true}") boolean buildIfMissing) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.virtualThreadExecutor = virtualThreadExecutor;
+        this.directory = Path.of(directory);
+        this.keep = Math.max(keep, 1);
+        this.buildIfMissing = buildIfMissing;
+        this.buildTimer = meterRegistry.timer("catalog.snapshot.build");
+        this.openTimer = meterRegistry.timer("catalog.snapshot.open");
+        Gauge.builder("catalog.snapshot.movies", current, c -> c.get().size()).register(meterRegistry);
+    }
+
+    //Snapshot vigente (vacío si todavía no hay ninguno); nunca null
+    public CatalogSnapshot current() {
+        return current.get();
+    }
+
+    //Abrir el snapshot más reciente del disco; si no hay, construirlo en segundo plano
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        Path latest = listSnapshots().stream().findFirst().orElse(null);
+        if (latest != null) {
+            try {
+                long start = System.nanoTime();
+                publish(CatalogSnapshot.open(latest));
+                openTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                return;
+            } catch (IOException e) {
+                log.warn("No se pudo abrir el snapshot del catálogo {}: {}", latest, e.getMessage());
+            }
+        }
+        if (buildIfMissing) {
+            virtualThreadExecutor.execute(this::rebuild);
+        }
+    }
+
+    @EventListener
+    public void onCatalogUpdated(CatalogUpdatedEvent event) {
+        virtualThreadExecutor.execute(this::rebuild);
+    }
+
+    //Generar un snapshot nuevo desde la tabla movies y publicarlo (una construcción a la vez;
+    //un cambio que llega durante la construcción dispara otra vuelta al terminar)
+    public void rebuild() {
+        rebuildRequested.set(true);
+        if (!building.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            while (rebuildRequested.getAndSet(false)) {
+                buildAndPublish();
+            }
+        } finally {
+            building.set(false);
+        }
+        // Un pedido que llegó entre el último chequeo y liberar el flag no debe perderse
+        if (rebuildRequested.get()) {
+            rebuild();
+        }
+    }
+
+    private void buildAndPublish() {
+        try {
+            Files.createDirectories(directory);
+            Path target = directory.resolve(PREFIX + LocalDateTime.now().format(FILE_TIMESTAMP) + SUFFIX);
+            buildTimer.record(() -> write(target));
+            publish(CatalogSnapshot.open(target));
+            deleteOldSnapshots();
+        } catch (IOException | UncheckedIOException | DataAccessException e) {
+            log.error("Error construyendo el snapshot del catálogo: {}", e.getMessage(), e);
+        }
+    }
+
+    // Cursor (fetchSize dentro de una transacción) + escritura en streaming: memoria constante
+    private void write(Path target) {
+        try (CatalogSnapshotWriter writer = new CatalogSnapshotWriter(target)) {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(MOVIES_SQL);
+                ps.setFetchSize(10_000);
+                return ps;
+            }, rs -> {
+                try {
+                    writer.add(rs.getInt(1), rs.getString(2), rs.getString(3), rs.getString(4), rs.getString(5),
+                            rs.getDouble(6), rs.getBoolean(7), rs.getBoolean(8));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+            writer.finish();
+            log.info("Snapshot del catálogo generado: {} películas en {}", writer.count(), target);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // El snapshot anterior no se desmapea explícitamente: lo libera el GC cuando ningún lector lo usa
+    private void publish(CatalogSnapshot snapshot) {
+        current.set(snapshot);
+        eventPublisher.publishEvent(new CatalogSnapshotPublishedEvent(snapshot));
+    }
+
+    private void deleteOldSnapshots() {
+        List<Path> snapshots = listSnapshots();
+        for (Path old : snapshots.subList(Math.min(keep, snapshots.size()), snapshots.size())) {
+            try {
+                Files.deleteIfExists(old);
+            } catch (IOException e) {
+                log.warn("No se pudo eliminar el snapshot viejo {}: {}", old, e.getMessage());
+            }
+        }
+    }
+
+    //Snapshots del directorio, el más nuevo primero (el nombre lleva el timestamp)
+    private List<Path> listSnapshots() {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(p -> {
+                        String name = p.getFileName().toString();
+                        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+                    })
+                    .sorted(Comparator.comparing((Path p) -> p.getFileName().toString()).reversed())
+                    .toList();
+        } catch (IOException e) {
+            log.warn("No se pudo listar {}: {}", directory, e.getMessage());
+            return List.of();
+        }
+    }
+}
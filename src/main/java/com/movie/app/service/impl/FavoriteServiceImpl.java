@@ -1,5 +1,6 @@
 package com.movie.app.service.impl;
 
+import com.movie.app.event.UserHistoryChangedEvent;
 import com.movie.app.exception.BadRequestException;
 import com.movie.app.exception.ResourceNotFoundException;
 import com.movie.app.model.dto.common.PageResponse;
@@ -14,6 +15,7 @@ import com.movie.app.repository.UserRepository;
 import com.movie.app.service.FavoriteService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -31,6 +33,7 @@ import java.util.stream.Collectors;
 public class FavoriteServiceImpl implements FavoriteService {
     private final FavoriteRepository favoriteRepository;
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     //Agregar pelicula a favoritos
     @Transactional
@@ -67,6 +70,7 @@ public class FavoriteServiceImpl implements FavoriteService {
                 .build();
 
         favorite = favoriteRepository.save(favorite);
+        eventPublisher.publishEvent(new UserHistoryChangedEvent(userId));
 
         log.info("Película {} agregada a favoritos exitosamente", request.getMovieId());
 
@@ -83,6 +87,7 @@ public class FavoriteServiceImpl implements FavoriteService {
         }
 
         favoriteRepository.deleteByUserIdAndMovieId(userId, movieId);
+        eventPublisher.publishEvent(new UserHistoryChangedEvent(userId));
 
         log.info("Película {} eliminada de favoritos exitosamente", movieId);
     }
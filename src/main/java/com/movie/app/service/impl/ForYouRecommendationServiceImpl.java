@@ -0,0 +1,198 @@
+package com.movie.app.service.impl;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.movie.app.client.UpstreamGuard;
+import com.movie.app.model.dto.ai.request.AIRecommendationRequest;
+import com.movie.app.model.dto.ai.response.AIRecommendationResponse;
+import com.movie.app.model.dto.ai.response.ForYouRecommendationResponse;
+import com.movie.app.model.dto.ai.response.MovieRecommendation;
+import com.movie.app.model.entity.UserRecommendation;
+import com.movie.app.repository.UserRecommendationRepository;
+import com.movie.app.repository.UserRepository;
+import com.movie.app.service.AIRecommendationService;
+import com.movie.app.service.ForYouRecommendationService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.lang.reflect.Type;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+//Batch nocturno "Para ti": precalcula recomendaciones de usuarios premium activos fuera del pico de tráfico
+@Service
+@Slf4j
+public class ForYouRecommendationServiceImpl implements ForYouRecommendationService {
+    private static final Type RECOMMENDATIONS_TYPE = new TypeToken<List<MovieRecommendation>>() { }.getType();
+    private static final String FOR_YOU_PROMPT =
+            "Recomiéndame películas que probablemente me gusten según mis favoritos y calificaciones";
+
+    private final UserRepository userRepository;
+    private final UserRecommendationRepository userRecommendationRepository;
+    private final AIRecommendationService aiRecommendationService;
+    private final LocalRecommender localRecommender;
+    private final UpstreamGuard geminiGuard;
+    private final ExecutorService virtualThreadExecutor;
+    private final Gson gson;
+
+    private final int chunkSize;
+    private final int parallelism;
+    private final int maxRecommendations;
+    private final long intervalNanos;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private long nextSlotNanos = System.nanoTime();
+
+    private final Timer runTimer;
+    private final Counter generated;
+    private final Counter failed;
+
+    public ForYouRecommendationServiceImpl(UserRepository userRepository,
+                                           UserRecommendationRepository userRecommendationRepository,
+                                           AIRecommendationService aiRecommendationService,
+                                           LocalRecommender localRecommender,
+                                           UpstreamGuard geminiGuard,
+                                           ExecutorService virtualThreadExecutor,
+                                           Gson gson,
+                                           MeterRegistry meterRegistry,
+                                           @Value("${ai.for-you.chunk-size:100}") int chunkSize,
+                                           @Value("${ai.for-you.parallelism:4}") int parallelism,
+                                           @Value("${ai.for-you.requests-per-minute:60}") int requestsPerMinute,
+                                           @Value("${ai.for-you.max-recommendations:10}") int maxRecommendations) {
+        this.userRepository = userRepository;
+        this.userRecommendationRepository = userRecommendationRepository;
+        this.aiRecommendationService = aiRecommendationService;
+        this.localRecommender = localRecommender;
+        this.geminiGuard = geminiGuard;
+        this.virtualThreadExecutor = virtualThreadExecutor;
+        this.gson = gson;
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+        this.maxRecommendations = maxRecommendations;
+        this.intervalNanos = TimeUnit.MINUTES.toNanos(1) / Math.max(requestsPerMinute, 1);
+        this.runTimer = meterRegistry.timer("ai.for-you.run");
+        this.generated = meterRegistry.counter("ai.for-you.generated");
+        this.failed = meterRegistry.counter("ai.for-you.failed");
+    }
+
+    //Servir recomendaciones precalculadas; si no hay, las del modelo local (siempre sin llamar a Gemini)
+    public ForYouRecommendationResponse getForYou(Long userId) {
+        return userRecommendationRepository.findById(userId)
+                .map(stored -> ForYouRecommendationResponse.builder()
+                        .recommendations(gson.fromJson(stored.getRecommendations(), RECOMMENDATIONS_TYPE))
+                        .explanation(stored.getExplanation())
+                        .generatedAt(stored.getGeneratedAt())
+                        .build())
+                .orElseGet(() -> ForYouRecommendationResponse.builder()
+                        .recommendations(localRecommender.recommend(userId, maxRecommendations))
+                        .explanation("Recomendaciones basadas en usuarios con gustos similares a los tuyos")
+                        .build());
+    }
+
+    //Recorrer usuarios premium activos por páginas, con paralelismo acotado y tasa limitada hacia Gemini
+    @Scheduled(cron = "${ai.for-you.cron:0 0 4 * * *}")
+    public void precomputeForActivePremiumUsers() {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("El batch \"Para ti\" ya está en ejecución, se omite esta corrida");
+            return;
+        }
+        try {
+            runTimer.record(this::runBatch);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private void runBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        Semaphore permits = new Semaphore(parallelism);
+        long afterId = 0L;
+        int processed = 0;
+
+        log.info("Iniciando batch \"Para ti\" para usuarios premium activos");
+        try {
+            while (true) {
+                List<Long> userIds = userRepository.findActivePremiumUserIdsAfter(now, afterId, PageRequest.of(0, chunkSize));
+                if (userIds.isEmpty()) {
+                    break;
+                }
+
+                List<CompletableFuture<Void>> chunk = new ArrayList<>(userIds.size());
+                for (Long userId : userIds) {
+                    // Con el circuito abierto solo se guardarían respuestas degradadas: cortar y reintentar mañana
+                    if (!geminiGuard.isCallPermitted()) {
+                        log.warn("Gemini no disponible, se interrumpe el batch \"Para ti\" tras {} usuarios", processed);
+                        CompletableFuture.allOf(chunk.toArray(CompletableFuture[]::new)).join();
+                        return;
+                    }
+                    permits.acquire();
+                    awaitRateLimit();
+                    chunk.add(CompletableFuture.runAsync(() -> {
+                        try {
+                            precomputeFor(userId);
+                        } finally {
+                            permits.release();
+                        }
+                    }, virtualThreadExecutor));
+                    processed++;
+                }
+                CompletableFuture.allOf(chunk.toArray(CompletableFuture[]::new)).join();
+                afterId = userIds.get(userIds.size() - 1);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Batch \"Para ti\" interrumpido tras {} usuarios", processed);
+            return;
+        }
+        log.info("Batch \"Para ti\" completado: {} usuarios procesados", processed);
+    }
+
+    private void precomputeFor(Long userId) {
+        try {
+            AIRecommendationRequest request = AIRecommendationRequest.builder()
+                    .prompt(FOR_YOU_PROMPT)
+                    .includeUserHistory(true)
+                    .maxRecommendations(maxRecommendations)
+                    .build();
+            AIRecommendationResponse response = aiRecommendationService.precomputeRecommendation(userId, request);
+
+            userRecommendationRepository.save(UserRecommendation.builder()
+                    .userId(userId)
+                    .recommendations(gson.toJson(response.getRecommendations(), RECOMMENDATIONS_TYPE))
+                    .explanation(response.getExplanation())
+                    .generatedAt(LocalDateTime.now())
+                    .build());
+            generated.increment();
+        } catch (RuntimeException e) {
+            failed.increment();
+            log.error("Error precalculando recomendaciones para usuario {}: {}", userId, e.getMessage());
+        }
+    }
+
+    //Espaciar las llamadas a intervalos fijos (requests-per-minute)
+    private void awaitRateLimit() throws InterruptedException {
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            if (nextSlotNanos - now < 0) {
+                nextSlotNanos = now;
+            }
+            waitNanos = nextSlotNanos - now;
+            nextSlotNanos += intervalNanos;
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.movie.app.service.impl;
+
+import com.movie.app.cache.TtlLruCache;
+import com.movie.app.catalog.CatalogSnapshot;
+import com.movie.app.event.UserHistoryChangedEvent;
+import com.movie.app.model.dto.ai.response.MovieRecommendation;
+import com.movie.app.recommender.InteractionMatrix;
+import com.movie.app.recommender.ItemSimilarityModel;
+import com.movie.app.recommender.ItemSimilarityModel.ScoredMovie;
+import com.movie.app.repository.FavoriteRepository;
+import com.movie.app.repository.MovieRatingView;
+import com.movie.app.repository.RatingRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+//Recomendador local item-item (filtrado colaborativo) construido periódicamente desde favoritos y calificaciones
+@Component
+@Slf4j
+public class LocalRecommender {
+    //Interacciones implícitas por (usuario, película): favorito = 1.0, calificación >= 3 = rating / 5
+    private static final String INTERACTIONS_SQL = """
+            SELECT user_id, movie_id, MAX(weight) AS weight FROM (
+                SELECT user_id, movie_id, 1.0 AS weight FROM favorites
+                UNION ALL
+                SELECT user_id, movie_id, rating / 5.0 AS weight FROM ratings WHERE rating >= 3
+            ) interactions
+            GROUP BY user_id, movie_id
+            ORDER BY user_id
+            """;
+    //Un título por película, tomado de cualquier favorito que lo tenga
+    private static final String TITLES_SQL = """
+            SELECT DISTINCT ON (movie_id) movie_id, movie_title FROM favorites
+            WHERE movie_title IS NOT NULL AND movie_title <> ''
+            ORDER BY movie_id
+            """;
+    private static final BigDecimal POSITIVE_RATING = new BigDecimal("3");
+    private static final int CACHED_CANDIDATES = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final FavoriteRepository favoriteRepository;
+    private final RatingRepository ratingRepository;
+    private final CatalogSnapshotManager catalogSnapshotManager;
+    private final AtomicReference<ItemSimilarityModel> model = new AtomicReference<>(ItemSimilarityModel.EMPTY);
+    private final TtlLruCache<Long, List<ScoredMovie>> candidatesCache;
+    private final Timer buildTimer;
+    private final Timer recommendTimer;
+    private final Duration candidatesTtl;
+    private final int maxNeighbors;
+    private final int minCoRaters;
+    private final int promptCandidates;
+
+    public LocalRecommender(JdbcTemplate jdbcTemplate,
+                            FavoriteRepository favoriteRepository,
+                            RatingRepository ratingRepository,
+                            CatalogSnapshotManager catalogSnapshotManager,
+                            MeterRegistry meterRegistry,
+                            @Value("${ai.local-recommender.max-neighbors:50}") int maxNeighbors,
+                            @Value("${ai.local-recommender.min-co-raters:2}") int minCoRaters,
+                            @Value("${ai.local-recommender.prompt-candidates:10}") int promptCandidates,
+                            @Value("${ai.local-recommender.cache.max-size:5000}") int cacheMaxSize,
+                            @Value("${ai.local-recommender.cache.ttl-minutes:30}") long cacheTtlMinutes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.favoriteRepository = favoriteRepository;
+        this.ratingRepository = ratingRepository;
+        this.catalogSnapshotManager = catalogSnapshotManager;
+        this.maxNeighbors = maxNeighbors;
+        this.minCoRaters = minCoRaters;
+        this.promptCandidates = promptCandidates;
+        this.candidatesTtl = Duration.ofMinutes(cacheTtlMinutes);
+        this.candidatesCache = new TtlLruCache<Long, List<ScoredMovie>>(cacheMaxSize).bindTo(meterRegistry, "ai.local-candidates");
+        this.buildTimer = meterRegistry.timer("ai.local.model.build");
+        this.recommendTimer = meterRegistry.timer("ai.local.recommend");
+        Gauge.builder("ai.local.model.items", model, m -> m.get().itemCount()).register(meterRegistry);
+        Gauge.builder("ai.local.model.neighbors", model, m -> m.get().neighborCount()).register(meterRegistry);
+    }
+
+    //Reconstruir el modelo periódicamente; el modelo anterior sigue sirviendo mientras se construye el nuevo
+    @Scheduled(initialDelayString = "${ai.local-recommender.initial-delay-ms:10000}",
+            fixedDelayString = "${ai.local-recommender.rebuild-interval-ms:3600000}")
+    public void rebuild() {
+        try {
+            ItemSimilarityModel built = buildTimer.recordCallable(this::buildModel);
+            model.set(built);
+            candidatesCache.clear();
+            log.info("Modelo item-item reconstruido: {} películas, {} vecinos", built.itemCount(), built.neighborCount());
+        } catch (Exception e) {
+            log.error("Error reconstruyendo el modelo item-item: {}", e.getMessage(), e);
+        }
+    }
+
+    private ItemSimilarityModel buildModel() {
+        InteractionMatrix interactions = new InteractionMatrix();
+        jdbcTemplate.query(INTERACTIONS_SQL, rs -> {
+            interactions.add(rs.getLong(1), rs.getInt(2), rs.getFloat(3));
+        });
+        jdbcTemplate.query(TITLES_SQL, rs -> {
+            interactions.putTitle(rs.getInt(1), rs.getString(2));
+        });
+        // Películas solo calificadas no tienen título en favoritos: sin él no pueden explicar ("Porque te gustó")
+        // ni ser recomendadas
+        CatalogSnapshot catalog = catalogSnapshotManager.current();
+        interactions.fillMissingTitles(movieId -> {
+            int index = catalog.indexOf(movieId);
+            return index >= 0 ? catalog.title(index) : null;
+        });
+        return ItemSimilarityModel.build(interactions, maxNeighbors, minCoRaters);
+    }
+
+    //Recomendaciones locales para el usuario (sin llamada externa)
+    public List<MovieRecommendation> recommend(Long userId, int limit) {
+        return candidates(userId).stream()
+                .limit(limit)
+                .map(m -> MovieRecommendation.builder()
+                        .movieId(m.movieId())
+                        .title(m.title())
+                        .reason(m.becauseOf() != null
+                                ? "Porque te gustó " + m.becauseOf()
+                                : "Popular entre usuarios de la plataforma")
+                        .build())
+                .toList();
+    }
+
+    //Candidatas para incluir en el prompt de Gemini (vacío si el modelo no tiene sugerencias)
+    public String promptCandidates(Long userId) {
+        List<ScoredMovie> candidates = candidates(userId).stream()
+                .filter(m -> m.becauseOf() != null)
+                .limit(promptCandidates)
+                .toList();
+        if (candidates.isEmpty()) {
+            return "";
+        }
+
+        StringBuilder context = new StringBuilder("Candidatas por similitud con usuarios parecidos, úsalas si encajan con el pedido (ID TMDb): ");
+        for (int i = 0; i < candidates.size(); i++) {
+            if (i > 0) context.append("; ");
+            context.append(candidates.get(i).title()).append(" (").append(candidates.get(i).movieId()).append(")");
+        }
+        return context.append("\n").toString();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserHistoryChanged(UserHistoryChangedEvent event) {
+        candidatesCache.invalidate(event.userId());
+    }
+
+    private List<ScoredMovie> candidates(Long userId) {
+        List<ScoredMovie> cached = candidatesCache.get(userId);
+        if (cached != null) {
+            return cached;
+        }
+        List<ScoredMovie> candidates = recommendTimer.record(() -> score(userId));
+        candidatesCache.put(userId, candidates, candidatesTtl);
+        return candidates;
+    }
+
+    private List<ScoredMovie> score(Long userId) {
+        List<Integer> favoriteIds = favoriteRepository.findMovieIdsByUserId(userId);
+        List<MovieRatingView> ratings = ratingRepository.findMovieRatingsByUserId(userId);
+
+        int[] seeds = new int[favoriteIds.size() + ratings.size()];
+        float[] weights = new float[seeds.length];
+        int[] excluded = new int[seeds.length];
+        int seedCount = 0;
+        int excludedCount = 0;
+        for (Integer movieId : favoriteIds) {
+            seeds[seedCount] = movieId;
+            weights[seedCount++] = 1f;
+            excluded[excludedCount++] = movieId;
+        }
+        for (MovieRatingView rating : ratings) {
+            excluded[excludedCount++] = rating.getMovieId();
+            if (rating.getRating().compareTo(POSITIVE_RATING) >= 0) {
+                seeds[seedCount] = rating.getMovieId();
+                weights[seedCount++] = rating.getRating().floatValue() / 5f;
+            }
+        }
+
+        return List.copyOf(model.get().recommend(
+                Arrays.copyOf(seeds, seedCount),
+                Arrays.copyOf(weights, seedCount),
+                excluded, CACHED_CANDIDATES));
+    }
+}
@@ -0,0 +1,120 @@
+package com.movie.app.service.impl;
+
+import com.movie.app.catalog.AutocompleteIndex;
+import com.movie.app.catalog.CatalogSnapshot;
+import com.movie.app.event.CatalogSnapshotPublishedEvent;
+import com.movie.app.model.dto.movie.response.MovieSuggestion;
+import com.movie.app.service.MovieAutocompleteService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+//Autocompletado de títulos en memoria: el índice se arma desde el snapshot del catálogo y se reemplaza atómicamente
+@Service
+@Slf4j
+public class MovieAutocompleteServiceImpl implements MovieAutocompleteService {
+    private final ExecutorService virtualThreadExecutor;
+    private final int maxWordsPerTitle;
+    private final int maxPrefixLength;
+    private final int topK;
+    private final int maxScan;
+    private final boolean includeAdult;
+
+    private final AtomicReference<AutocompleteIndex> index = new AtomicReference<>(AutocompleteIndex.EMPTY);
+    //Último snapshot pedido; si llegan varios durante una construcción solo se indexa el más nuevo
+    private final AtomicReference<CatalogSnapshot> pending = new AtomicReference<>();
+    private final AtomicBoolean building = new AtomicBoolean();
+    private final Timer queryTimer;
+    private final Timer buildTimer;
+
+    public MovieAutocompleteServiceImpl(ExecutorService virtualThreadExecutor,
+                                        MeterRegistry meterRegistry,
+                                        @Value("${catalog.autocomplete.max-words-per-title:5}") int maxWordsPerTitle,
+                                        @Value("${catalog.autocomplete.precomputed-prefix-length:3}") int maxPrefixLength,
+                                        @Value("${catalog.autocomplete.max-results:10}") int topK,
+                                        @Value("${catalog.autocomplete.max-scan:2000}") int maxScan,
+                                        @Value("${catalog.autocomplete.include-adult:false}") boolean includeAdult) {
+        this.virtualThreadExecutor = virtualThreadExecutor;
+        this.maxWordsPerTitle = Math.max(maxWordsPerTitle, 1);
+        this.maxPrefixLength = Math.max(maxPrefixLength, 0);
+        this.topK = Math.max(topK, 1);
+        this.maxScan = Math.max(maxScan, this.topK);
+        this.includeAdult = includeAdult;
+        this.queryTimer = Timer.builder("movies.autocomplete")
+                .description("Latencia de consultas al índice de autocompletado")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.buildTimer = meterRegistry.timer("movies.autocomplete.build");
+        Gauge.builder("movies.autocomplete.keys", index, i -> i.get().keyCount()).register(meterRegistry);
+    }
+
+    @Override
+    public List<MovieSuggestion> suggest(String query, int limit) {
+        long start = System.nanoTime();
+        try {
+            String normalized = query == null ? "" : AutocompleteIndex.normalize(query);
+            AutocompleteIndex current = index.get();
+            // Sin adultos el índice ni siquiera los contiene: el top-K ya viene filtrado
+            int[] records = current.search(normalized, Math.clamp(limit, 1, topK));
+            CatalogSnapshot snapshot = current.snapshot();
+
+            List<MovieSuggestion> suggestions = new ArrayList<>(records.length);
+            for (int record : records) {
+                int year = snapshot.year(record);
+                suggestions.add(MovieSuggestion.builder()
+                        .movieId(snapshot.movieId(record))
+                        .title(snapshot.title(record))
+                        .originalTitle(snapshot.originalTitle(record))
+                        .year(year > 0 ? year : null)
+                        .posterPath(snapshot.posterPath(record))
+                        .build());
+            }
+            return suggestions;
+        } finally {
+            queryTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @EventListener
+    public void onSnapshotPublished(CatalogSnapshotPublishedEvent event) {
+        pending.set(event.snapshot());
+        virtualThreadExecutor.execute(this::rebuild);
+    }
+
+    //Una construcción a la vez; el índice viejo sigue atendiendo consultas hasta el reemplazo
+    private void rebuild() {
+        if (!building.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            CatalogSnapshot snapshot;
+            while ((snapshot = pending.getAndSet(null)) != null) {
+                CatalogSnapshot source = snapshot;
+                // Incremental sobre el índice vigente: solo se normalizan y ordenan los títulos nuevos o cambiados
+                AutocompleteIndex built = buildTimer.record(() -> AutocompleteIndex.update(index.get(), source,
+                        maxWordsPerTitle, maxPrefixLength, topK, maxScan, includeAdult));
+                index.set(built);
+                log.info("Índice de autocompletado listo: {} claves para {} películas", built.keyCount(), source.size());
+            }
+        } catch (RuntimeException e) {
+            log.error("Error construyendo el índice de autocompletado: {}", e.getMessage(), e);
+        } finally {
+            building.set(false);
+        }
+        // Un snapshot que llegó justo al liberar el flag no debe quedar sin indexar
+        if (pending.get() != null) {
+            rebuild();
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.movie.app.service.impl;
+
+import com.movie.app.cache.TMDbResource;
+import com.movie.app.cache.TMDbResponseCache;
+import com.movie.app.client.TMDbClient;
+import com.movie.app.exception.ResourceNotFoundException;
+import com.movie.app.exception.ServiceUnavailableException;
+import com.movie.app.model.dto.movie.response.MovieBatchResponse;
+import com.movie.app.model.external.TMDbMovieDetails;
+import com.movie.app.service.CatalogService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+//Hidratación por lote: detalles + créditos + videos en una sola llamada a TMDb por película (append_to_response)
+@Component
+@Slf4j
+public class MovieHydrator {
+    private static final Map<String, String> APPEND = Map.of("append_to_response", "credits,videos");
+
+    private final TMDbClient tmdbClient;
+    private final TMDbResponseCache tmdbResponseCache;
+    private final CatalogService catalogService;
+    private final ExecutorService virtualThreadExecutor;
+    //Fetches en curso por ID, compartidos entre requests concurrentes
+    private final ConcurrentHashMap<Integer, CompletableFuture<TMDbMovieDetails>> inFlight = new ConcurrentHashMap<>();
+    private final Semaphore parallelism;
+    private final long timeoutMs;
+
+    private final Counter cacheHits;
+    private final Counter fetched;
+    private final Counter shared;
+    private final Counter missing;
+    private final Counter unavailable;
+    private final Timer batchTimer;
+
+    public MovieHydrator(TMDbClient tmdbClient,
+                         TMDbResponseCache tmdbResponseCache,
+                         CatalogService catalogService,
+                         ExecutorService virtualThreadExecutor,
+                         MeterRegistry meterRegistry,
+                         @Value("${tmdb.batch.parallelism:8}") int parallelism,
+                         @Value("${tmdb.batch.timeout-ms:5000}") long timeoutMs) {
+        this.tmdbClient = tmdbClient;
+        this.tmdbResponseCache = tmdbResponseCache;
+        this.catalogService = catalogService;
+        this.virtualThreadExecutor = virtualThreadExecutor;
+        this.parallelism = new Semaphore(parallelism);
+        this.timeoutMs = timeoutMs;
+        this.cacheHits = meterRegistry.counter("tmdb.batch.ids", "source", "cache");
+        this.fetched = meterRegistry.counter("tmdb.batch.ids", "source", "fetch");
+        this.shared = meterRegistry.counter("tmdb.batch.ids", "source", "shared");
+        this.missing = meterRegistry.counter("tmdb.batch.ids", "source", "missing");
+        this.unavailable = meterRegistry.counter("tmdb.batch.ids", "source", "unavailable");
+        this.batchTimer = meterRegistry.timer("tmdb.batch");
+    }
+
+    //Aciertos de L1 se resuelven al instante; los pendientes salen en paralelo con un tiempo total acotado
+    public MovieBatchResponse hydrate(List<Integer> movieIds) {
+        return batchTimer.record(() -> {
+            Map<Integer, TMDbMovieDetails> found = new LinkedHashMap<>();
+            List<Integer> toFetch = new ArrayList<>();
+            for (Integer movieId : new LinkedHashSet<>(movieIds)) {
+                TMDbMovieDetails cached = tmdbResponseCache.peek(TMDbResource.HYDRATED, String.valueOf(movieId), TMDbMovieDetails.class);
+                if (cached != null) {
+                    cacheHits.increment();
+                    found.put(movieId, cached);
+                } else {
+                    toFetch.add(movieId);
+                }
+            }
+
+            // IDs que el catálogo local marca como eliminados en TMDb no se piden
+            List<Integer> missingIds = new ArrayList<>();
+            Set<Integer> deleted = catalogService.findDeletedIds(toFetch);
+            Map<Integer, CompletableFuture<TMDbMovieDetails>> pending = new LinkedHashMap<>();
+            for (Integer movieId : toFetch) {
+                if (deleted.contains(movieId)) {
+                    missingIds.add(movieId);
+                } else {
+                    pending.put(movieId, fetch(movieId));
+                }
+            }
+
+            List<Integer> unavailableIds = new ArrayList<>();
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+            for (Map.Entry<Integer, CompletableFuture<TMDbMovieDetails>> entry : pending.entrySet()) {
+                switch (await(entry.getKey(), entry.getValue(), deadline)) {
+                    case Fetched fetchedMovie -> found.put(entry.getKey(), fetchedMovie.details());
+                    case NotFound notFound -> missingIds.add(entry.getKey());
+                    case Unavailable failure -> unavailableIds.add(entry.getKey());
+                }
+            }
+            missing.increment(missingIds.size());
+            unavailable.increment(unavailableIds.size());
+
+            // Sin ninguna película por fallas de TMDb: no es un lote vacío sino un upstream caído
+            if (found.isEmpty() && !unavailableIds.isEmpty()) {
+                throw new ServiceUnavailableException("No se pudo obtener información de películas, intenta más tarde");
+            }
+
+            List<TMDbMovieDetails> movies = new ArrayList<>(found.size());
+            for (Integer movieId : new LinkedHashSet<>(movieIds)) {
+                TMDbMovieDetails details = found.get(movieId);
+                if (details != null) {
+                    movies.add(details);
+                }
+            }
+            return MovieBatchResponse.builder()
+                    .movies(movies)
+                    .missingIds(missingIds)
+                    .unavailableIds(unavailableIds)
+                    .build();
+        });
+    }
+
+    // Si otro request ya está trayendo el mismo ID se comparte su future en vez de repetir la llamada
+    private CompletableFuture<TMDbMovieDetails> fetch(Integer movieId) {
+        CompletableFuture<TMDbMovieDetails> leader = new CompletableFuture<>();
+        CompletableFuture<TMDbMovieDetails> existing = inFlight.putIfAbsent(movieId, leader);
+        if (existing != null) {
+            shared.increment();
+            return existing;
+        }
+
+        virtualThreadExecutor.execute(() -> {
+            try {
+                parallelism.acquire();
+                try {
+                    TMDbMovieDetails details = tmdbResponseCache.get(TMDbResource.HYDRATED, String.valueOf(movieId),
+                            TMDbMovieDetails.class, () -> tmdbClient.get("/movie/" + movieId, APPEND));
+                    leader.complete(details);
+                    catalogService.recordDetails(details);
+                    fetched.increment();
+                } finally {
+                    parallelism.release();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                leader.completeExceptionally(e);
+            } catch (RuntimeException e) {
+                leader.completeExceptionally(e);
+            } finally {
+                inFlight.remove(movieId, leader);
+            }
+        });
+        return leader;
+    }
+
+    private FetchOutcome await(Integer movieId, CompletableFuture<TMDbMovieDetails> future, long deadline) {
+        try {
+            return new Fetched(future.get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS));
+        } catch (TimeoutException e) {
+            // El fetch sigue en curso y termina en cache para el próximo request
+            log.warn("Timeout hidratando película {}", movieId);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ResourceNotFoundException) {
+                return new NotFound();
+            }
+            log.warn("Error hidratando película {}: {}", movieId, e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return new Unavailable();
+    }
+
+    //Resultado de esperar un ID: obtenido, inexistente en TMDb o no disponible (timeout o error)
+    private sealed interface FetchOutcome permits Fetched, NotFound, Unavailable {
+    }
+
+    private record Fetched(TMDbMovieDetails details) implements FetchOutcome {
+    }
+
+    private record NotFound() implements FetchOutcome {
+    }
+
+    private record Unavailable() implements FetchOutcome {
+    }
+}
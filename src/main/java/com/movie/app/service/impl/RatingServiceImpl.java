@@ -5,6 +5,7 @@ import com.movie.app.model.dto.rating.request.AddRatingRequest;
 import com.movie.app.model.dto.rating.request.UpdateRatingRequest;
 import com.movie.app.model.dto.rating.response.RatingResponse;
 import com.movie.app.service.RatingService;
+import com.movie.app.event.UserHistoryChangedEvent;
 import com.movie.app.exception.ResourceNotFoundException;
 import com.movie.app.model.entity.Rating;
 import com.movie.app.model.entity.User;
@@ -12,6 +13,7 @@ import com.movie.app.repository.RatingRepository;
 import com.movie.app.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -28,6 +30,7 @@ import java.util.stream.Collectors;
 public class RatingServiceImpl implements RatingService {
     private final RatingRepository ratingRepository;
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     //Agregar o actualizar calificación
     @Transactional
@@ -60,6 +63,7 @@ public class RatingServiceImpl implements RatingService {
         }
 
         rating = ratingRepository.save(rating);
+        eventPublisher.publishEvent(new UserHistoryChangedEvent(userId));
 
         log.info("Calificación guardada exitosamente para película {}", request.getMovieId());
 
@@ -78,6 +82,7 @@ public class RatingServiceImpl implements RatingService {
         rating.setReview(request.getReview());
 
         rating = ratingRepository.save(rating);
+        eventPublisher.publishEvent(new UserHistoryChangedEvent(userId));
 
         log.info("Calificación actualizada exitosamente");
 
@@ -94,6 +99,7 @@ public class RatingServiceImpl implements RatingService {
         }
 
         ratingRepository.deleteByUserIdAndMovieId(userId, movieId);
+        eventPublisher.publishEvent(new UserHistoryChangedEvent(userId));
 
         log.info("Calificación eliminada exitosamente");
     }
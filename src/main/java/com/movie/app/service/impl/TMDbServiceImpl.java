@@ -0,0 +1,223 @@
+package com.movie.app.service.impl;
+
+import com.movie.app.cache.GenreLookup;
+import com.movie.app.cache.TMDbResource;
+import com.movie.app.cache.TMDbResponseCache;
+import com.movie.app.cache.TMDbSnapshotStore;
+import com.movie.app.cache.TMDbSnapshotStore.SnapshotKey;
+import com.movie.app.client.TMDbClient;
+import com.movie.app.client.TMDbRequestScheduler.Priority;
+import com.movie.app.exception.BadRequestException;
+import com.movie.app.exception.ServiceUnavailableException;
+import com.movie.app.model.dto.movie.response.MovieBatchResponse;
+import com.movie.app.model.external.Genre;
+import com.movie.app.model.external.TMDbCreditsResponse;
+import com.movie.app.model.external.TMDbGenreListResponse;
+import com.movie.app.model.external.TMDbMovie;
+import com.movie.app.model.external.TMDbMovieDetails;
+import com.movie.app.model.external.TMDbMovieListResponse;
+import com.movie.app.model.external.TMDbSearchResponse;
+import com.movie.app.model.external.TMDbVideoResponse;
+import com.movie.app.service.CatalogService;
+import com.movie.app.service.TMDbService;
+import com.movie.app.util.TextNormalizer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
+
+@Service
+@Slf4j
+public class TMDbServiceImpl implements TMDbService {
+    //TMDb no acepta páginas fuera de 1..500
+    private static final int MAX_PAGE = 500;
+    private static final List<String> TRENDING_WINDOWS = List.of("day", "week");
+
+    private final TMDbClient tmdbClient;
+    private final TMDbResponseCache tmdbResponseCache;
+    private final TMDbSnapshotStore snapshotStore;
+    private final GenreLookup genreLookup;
+    private final MovieHydrator movieHydrator;
+    private final CatalogService catalogService;
+    private final ExecutorService virtualThreadExecutor;
+    private final String defaultLanguage;
+    private final List<String> languages;
+    private final int pinnedPages;
+
+    public TMDbServiceImpl(TMDbClient tmdbClient,
+                           TMDbResponseCache tmdbResponseCache,
+                           TMDbSnapshotStore snapshotStore,
+                           GenreLookup genreLookup,
+                           MovieHydrator movieHydrator,
+                           CatalogService catalogService,
+                           ExecutorService virtualThreadExecutor,
+                           @Value("${tmdb.language:es-ES}") String defaultLanguage,
+                           @Value("${tmdb.snapshots.languages:es-ES}") List<String> languages,
+                           @Value("${tmdb.snapshots.pinned-pages:3}") int pinnedPages) {
+        this.tmdbClient = tmdbClient;
+        this.tmdbResponseCache = tmdbResponseCache;
+        this.snapshotStore = snapshotStore;
+        this.genreLookup = genreLookup;
+        this.movieHydrator = movieHydrator;
+        this.catalogService = catalogService;
+        this.virtualThreadExecutor = virtualThreadExecutor;
+        this.defaultLanguage = defaultLanguage;
+        this.languages = languages;
+        this.pinnedPages = pinnedPages;
+    }
+
+    //Precargar géneros (lookup local) y las primeras páginas de listas globales, sin bloquear el arranque
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpSnapshots() {
+        virtualThreadExecutor.execute(() -> {
+            for (String language : languages) {
+                try {
+                    TMDbGenreListResponse genres = getGenres(language);
+                    for (int page = 1; page <= pinnedPages; page++) {
+                        getPopularMovies(page, language);
+                        getTrendingMovies("day", page, language);
+                    }
+                    for (Genre genre : genres.getGenres()) {
+                        getMoviesByGenre(genre.getId(), 1, language);
+                    }
+                } catch (RuntimeException e) {
+                    log.warn("Error precargando snapshots de TMDb ({}): {}", language, e.getMessage());
+                }
+            }
+        });
+    }
+
+    //Buscar películas por título (la clave de cache usa el texto normalizado)
+    public TMDbSearchResponse searchMovies(String query, int page) {
+        if (query == null || query.isBlank()) {
+            throw new BadRequestException("La búsqueda no puede estar vacía");
+        }
+        int validPage = validPage(page);
+        String key = TextNormalizer.fold(query) + ":" + validPage;
+        try {
+            return tmdbResponseCache.get(TMDbResource.SEARCH, key, TMDbSearchResponse.class,
+                    () -> tmdbClient.get("/search/movie", Map.of("query", query.trim(), "page", String.valueOf(validPage))));
+        } catch (ServiceUnavailableException e) {
+            // TMDb caído o saturado: buscar en el catálogo local (títulos originales, sin todos los datos de TMDb)
+            log.warn("Búsqueda en TMDb no disponible, usando el catálogo local: {}", e.getMessage());
+            return catalogService.searchLocal(query, validPage);
+        }
+    }
+
+    //Detalles de una película
+    public TMDbMovieDetails getMovieDetails(Integer movieId) {
+        return tmdbResponseCache.get(TMDbResource.DETAILS, String.valueOf(movieId), TMDbMovieDetails.class,
+                () -> tmdbClient.get("/movie/" + movieId, Map.of()));
+    }
+
+    //Detalles + créditos + videos de varias películas (una llamada a TMDb por película no cacheada)
+    public MovieBatchResponse getMoviesBatch(List<Integer> movieIds) {
+        return movieHydrator.hydrate(movieIds);
+    }
+
+    //Reparto y equipo técnico
+    public TMDbCreditsResponse getMovieCredits(Integer movieId) {
+        return tmdbResponseCache.get(TMDbResource.CREDITS, String.valueOf(movieId), TMDbCreditsResponse.class,
+                () -> tmdbClient.get("/movie/" + movieId + "/credits", Map.of()));
+    }
+
+    //Trailers y videos
+    public TMDbVideoResponse getMovieVideos(Integer movieId) {
+        return tmdbResponseCache.get(TMDbResource.VIDEOS, String.valueOf(movieId), TMDbVideoResponse.class,
+                () -> tmdbClient.get("/movie/" + movieId + "/videos", Map.of()));
+    }
+
+    //Películas populares (snapshot por idioma y página)
+    public TMDbMovieListResponse getPopularMovies(int page, String language) {
+        int validPage = validPage(page);
+        String lang = validLanguage(language);
+        return movieList(TMDbResource.POPULAR, lang, String.valueOf(validPage), validPage <= pinnedPages,
+                "/movie/popular", Map.of("page", String.valueOf(validPage), "language", lang));
+    }
+
+    //Tendencias del día o de la semana (snapshot por idioma, ventana y página)
+    public TMDbMovieListResponse getTrendingMovies(String window, int page, String language) {
+        if (!TRENDING_WINDOWS.contains(window)) {
+            throw new BadRequestException("La ventana de tendencias debe ser 'day' o 'week'");
+        }
+        int validPage = validPage(page);
+        String lang = validLanguage(language);
+        return movieList(TMDbResource.TRENDING, lang, window + ":" + validPage, validPage <= pinnedPages,
+                "/trending/movie/" + window, Map.of("page", String.valueOf(validPage), "language", lang));
+    }
+
+    //Lista de géneros (snapshot fijo por idioma; cada carga actualiza el lookup local)
+    public TMDbGenreListResponse getGenres(String language) {
+        String lang = validLanguage(language);
+        SnapshotKey key = new SnapshotKey(TMDbResource.GENRES, lang, "movie");
+        return snapshotStore.get(key, TMDbGenreListResponse.class, true, priority -> {
+            TMDbGenreListResponse genres = load(TMDbResource.GENRES, lang + ":movie", TMDbGenreListResponse.class, priority,
+                    () -> tmdbClient.get("/genre/movie/list", Map.of("language", lang), priority));
+            List<Genre> frozen = genres.getGenres() != null ? List.copyOf(genres.getGenres()) : List.of();
+            genreLookup.update(lang, frozen);
+            return new TMDbGenreListResponse(frozen);
+        });
+    }
+
+    //Películas de un género, ordenadas por popularidad (snapshot por idioma, género y página)
+    public TMDbMovieListResponse getMoviesByGenre(Integer genreId, int page, String language) {
+        int validPage = validPage(page);
+        String lang = validLanguage(language);
+        return movieList(TMDbResource.DISCOVER, lang, genreId + ":" + validPage, validPage == 1,
+                "/discover/movie", Map.of(
+                        "with_genres", String.valueOf(genreId),
+                        "sort_by", "popularity.desc",
+                        "page", String.valueOf(validPage),
+                        "language", lang));
+    }
+
+    private TMDbMovieListResponse movieList(TMDbResource resource, String language, String params, boolean pinned,
+                                            String path, Map<String, String> query) {
+        SnapshotKey key = new SnapshotKey(resource, language, params);
+        return snapshotStore.get(key, TMDbMovieListResponse.class, pinned, priority -> freeze(language,
+                load(resource, language + ":" + params, TMDbMovieListResponse.class, priority,
+                        () -> tmdbClient.get(path, query, priority))));
+    }
+
+    // La primera carga puede salir de L1/L2; los refrescos en segundo plano van siempre a TMDb
+    private <T> T load(TMDbResource resource, String key, Class<T> type, Priority priority, Supplier<String> fetch) {
+        return priority == Priority.BACKGROUND
+                ? tmdbResponseCache.refresh(resource, key, type, fetch)
+                : tmdbResponseCache.get(resource, key, type, fetch);
+    }
+
+    //Copia inmutable de la lista con los nombres de género resueltos. Las películas se copian: las originales
+    //son las mismas instancias que guarda la cache L1 y otros hilos pueden estar leyéndolas
+    private TMDbMovieListResponse freeze(String language, TMDbMovieListResponse list) {
+        List<TMDbMovie> results = list.getResults() != null ? list.getResults() : List.of();
+        List<TMDbMovie> frozen = results.stream()
+                .map(movie -> movie.toBuilder()
+                        .genreNames(genreLookup.names(language, movie.getGenreIds()))
+                        .build())
+                .toList();
+        return new TMDbMovieListResponse(list.getPage(), frozen, list.getTotalPages(), list.getTotalResults());
+    }
+
+    private String validLanguage(String language) {
+        if (language == null || language.isBlank()) {
+            return defaultLanguage;
+        }
+        if (!languages.contains(language)) {
+            throw new BadRequestException("Idioma no soportado: " + language);
+        }
+        return language;
+    }
+
+    private static int validPage(int page) {
+        if (page < 1 || page > MAX_PAGE) {
+            throw new BadRequestException("La página debe estar entre 1 y " + MAX_PAGE);
+        }
+        return page;
+    }
+}
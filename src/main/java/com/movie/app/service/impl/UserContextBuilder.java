@@ -0,0 +1,192 @@
+package com.movie.app.service.impl;
+
+import com.movie.app.cache.TtlLruCache;
+import com.movie.app.catalog.CatalogSnapshot;
+import com.movie.app.event.UserHistoryChangedEvent;
+import com.movie.app.model.entity.Favorite;
+import com.movie.app.model.entity.Rating;
+import com.movie.app.repository.FavoriteRepository;
+import com.movie.app.repository.RatingRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+//Construye el contexto del usuario para el prompt de Gemini dentro de un presupuesto de tokens
+@Component
+public class UserContextBuilder {
+    //Calificación máxima considerada "no le gustó"
+    private static final BigDecimal DISLIKE_THRESHOLD = new BigDecimal("2.5");
+    //Aproximación de tokens por carácter para texto en español (~4 caracteres por token)
+    private static final int CHARS_PER_TOKEN = 4;
+    private static final String HEADER = "\n\nCONTEXTO DEL USUARIO:\n";
+
+    private final FavoriteRepository favoriteRepository;
+    private final RatingRepository ratingRepository;
+    private final CatalogSnapshotManager catalogSnapshotManager;
+    private final TtlLruCache<Long, String> cache;
+    private final DistributionSummary contextTokens;
+    private final Duration ttl;
+    private final int maxTokens;
+    private final int itemsPerSection;
+
+    public UserContextBuilder(FavoriteRepository favoriteRepository,
+                              RatingRepository ratingRepository,
+                              CatalogSnapshotManager catalogSnapshotManager,
+                              MeterRegistry meterRegistry,
+                              @Value("${ai.context.max-tokens:400}") int maxTokens,
+                              @Value("${ai.context.items-per-section:10}") int itemsPerSection,
+                              @Value("${ai.context.cache.max-size:5000}") int cacheMaxSize,
+                              @Value("${ai.context.cache.ttl-minutes:30}") long cacheTtlMinutes) {
+        this.favoriteRepository = favoriteRepository;
+        this.ratingRepository = ratingRepository;
+        this.catalogSnapshotManager = catalogSnapshotManager;
+        this.maxTokens = maxTokens;
+        this.itemsPerSection = itemsPerSection;
+        this.ttl = Duration.ofMinutes(cacheTtlMinutes);
+        this.cache = new TtlLruCache<Long, String>(cacheMaxSize).bindTo(meterRegistry, "ai.user-context");
+        this.contextTokens = DistributionSummary.builder("ai.context.tokens")
+                .description("Tokens estimados del contexto de usuario enviado a Gemini")
+                .register(meterRegistry);
+    }
+
+    //Contexto cacheado por usuario (se invalida al cambiar favoritos o calificaciones)
+    public String build(Long userId) {
+        String context = cache.get(userId);
+        if (context == null) {
+            context = buildFresh(userId);
+            cache.put(userId, context, ttl);
+        }
+        return context;
+    }
+
+    //Invalidar después del commit, para que una lectura concurrente no vuelva a cachear datos viejos
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserHistoryChanged(UserHistoryChangedEvent event) {
+        cache.invalidate(event.userId());
+    }
+
+    private String buildFresh(Long userId) {
+        PageRequest limit = PageRequest.of(0, itemsPerSection);
+
+        List<Favorite> favorites = favoriteRepository.findByUserIdOrderByAddedAtDesc(userId, limit);
+        List<Rating> topRated = ratingRepository.findTopRatedByUserId(userId, limit);
+        List<Rating> lowestRated = ratingRepository.findLowestRatedByUserId(userId, DISLIKE_THRESHOLD, limit);
+        List<Rating> recentRated = ratingRepository.findByUserIdOrderByUpdatedAtDesc(userId, limit);
+
+        if (favorites.isEmpty() && topRated.isEmpty() && lowestRated.isEmpty() && recentRated.isEmpty()) {
+            return "";
+        }
+
+        // Títulos y años: de los favoritos ya cargados, y del resto de favoritos para películas calificadas
+        Map<Integer, Favorite> byMovieId = favorites.stream()
+                .collect(Collectors.toMap(Favorite::getMovieId, Function.identity(), (a, b) -> a));
+        Set<Integer> missing = new HashSet<>();
+        for (List<Rating> ratings : List.of(topRated, lowestRated, recentRated)) {
+            ratings.forEach(r -> {
+                if (!byMovieId.containsKey(r.getMovieId())) missing.add(r.getMovieId());
+            });
+        }
+        if (!missing.isEmpty()) {
+            favoriteRepository.findByUserIdAndMovieIdIn(userId, missing)
+                    .forEach(f -> byMovieId.putIfAbsent(f.getMovieId(), f));
+        }
+
+        List<Section> sections = List.of(
+                new Section("Mejor calificadas", ratingItems(topRated, byMovieId)),
+                new Section("Favoritas recientes", favorites.stream().map(this::favoriteItem).toList()),
+                new Section("No le gustaron", ratingItems(lowestRated, byMovieId)),
+                new Section("Calificadas recientemente", ratingItems(recentRated, byMovieId))
+        );
+
+        String context = render(sections);
+        contextTokens.record(estimateTokens(context));
+        return context;
+    }
+
+    //Selección round-robin entre secciones: cada sección aporta sus ítems más relevantes hasta agotar el presupuesto
+    private String render(List<Section> sections) {
+        int budgetChars = maxTokens * CHARS_PER_TOKEN - HEADER.length();
+        Set<Integer> used = new HashSet<>();
+        List<List<String>> selected = new ArrayList<>();
+        sections.forEach(s -> selected.add(new ArrayList<>()));
+
+        int usedChars = 0;
+        boolean added = true;
+        for (int i = 0; added && usedChars < budgetChars; i++) {
+            added = false;
+            for (int s = 0; s < sections.size(); s++) {
+                List<Item> items = sections.get(s).items();
+                if (i >= items.size()) continue;
+                added = true;
+                Item item = items.get(i);
+                // Una película aparece una sola vez: en la sección donde está en la posición más alta
+                // (a igual posición, en la que va primero en la lista)
+                if (used.contains(item.key())) continue;
+
+                int cost = item.text().length() + (selected.get(s).isEmpty() ? sections.get(s).label().length() + 3 : 2);
+                if (usedChars + cost > budgetChars) continue;
+                used.add(item.key());
+                selected.get(s).add(item.text());
+                usedChars += cost;
+            }
+        }
+
+        StringBuilder context = new StringBuilder(HEADER);
+        for (int s = 0; s < sections.size(); s++) {
+            if (selected.get(s).isEmpty()) continue;
+            context.append(sections.get(s).label()).append(": ")
+                    .append(String.join("; ", selected.get(s))).append("\n");
+        }
+        return context.length() == HEADER.length() ? "" : context.toString();
+    }
+
+    private List<Item> ratingItems(List<Rating> ratings, Map<Integer, Favorite> byMovieId) {
+        return ratings.stream()
+                .map(r -> new Item(r.getMovieId(),
+                        describe(r.getMovieId(), byMovieId.get(r.getMovieId())) + " " + r.getRating().stripTrailingZeros().toPlainString() + "/5"))
+                .toList();
+    }
+
+    private Item favoriteItem(Favorite favorite) {
+        return new Item(favorite.getMovieId(), describe(favorite.getMovieId(), favorite));
+    }
+
+    //"Título (año)" desde el favorito o el snapshot del catálogo; si no, el ID de TMDb
+    private String describe(Integer movieId, Favorite favorite) {
+        if (favorite == null || favorite.getMovieTitle() == null || favorite.getMovieTitle().isBlank()) {
+            CatalogSnapshot catalog = catalogSnapshotManager.current();
+            int index = catalog.indexOf(movieId);
+            if (index < 0) {
+                return "TMDb#" + movieId;
+            }
+            int year = catalog.year(index);
+            return year > 0 ? catalog.title(index) + " (" + year + ")" : catalog.title(index);
+        }
+        String releaseDate = favorite.getReleaseDate();
+        String year = releaseDate != null && releaseDate.length() >= 4 ? releaseDate.substring(0, 4) : null;
+        return year != null ? favorite.getMovieTitle() + " (" + year + ")" : favorite.getMovieTitle();
+    }
+
+    private static int estimateTokens(String text) {
+        return (text.length() + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN;
+    }
+
+    private record Section(String label, List<Item> items) {
+    }
+
+    private record Item(Integer key, String text) {
+    }
+}
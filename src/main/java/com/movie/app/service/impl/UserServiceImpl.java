@@ -23,7 +23,7 @@ public class UserServiceImpl implements UserService {
     private final FavoriteRepository favoriteRepository;
     private final RatingRepository ratingRepository;
     private final CustomListRepository customListRepository;
-    private final AIInteractionRepository aiInteractionRepository;
+    private final AIUsageDailyRepository aiUsageDailyRepository;
     private final PasswordEncoder passwordEncoder;
 
     //Obtener informacion de usuario actual
@@ -78,7 +78,8 @@ public class UserServiceImpl implements UserService {
         long totalFavorites = favoriteRepository.countByUserId(userId);
         long totalRatings = ratingRepository.countByUserId(userId);
         long totalLists = customListRepository.countByUserId(userId);
-        long totalAIRequests = aiInteractionRepository.countByUserId(userId);
+        //Total desde el rollup diario (no escanea ai_interactions)
+        long totalAIRequests = aiUsageDailyRepository.sumRequestsByUserId(userId);
 
         //Calcular promedio de ratings
         Double averageRating = ratingRepository.getAverageRatingByUserId(userId);
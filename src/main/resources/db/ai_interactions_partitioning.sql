@@ -0,0 +1,74 @@
+-- ai_interactions particionada por mes, con respuesta comprimida (gzip en BYTEA) y rollup diario por usuario.
+-- Ejecutar una vez (después de ai_interactions_usage.sql); AIInteractionRetentionJob crea las particiones
+-- futuras y aplica la retención.
+
+BEGIN;
+
+-- 1. Rollup diario de uso (lo actualiza AIInteractionWriter en cada flush)
+CREATE TABLE IF NOT EXISTS ai_usage_daily (
+    user_id          BIGINT  NOT NULL REFERENCES users (id) ON DELETE CASCADE,
+    usage_date       DATE    NOT NULL,
+    requests         INTEGER NOT NULL DEFAULT 0,
+    tokens_used      BIGINT  NOT NULL DEFAULT 0,
+    prompt_tokens    BIGINT  NOT NULL DEFAULT 0,
+    latency_ms_total BIGINT  NOT NULL DEFAULT 0,
+    PRIMARY KEY (user_id, usage_date)
+);
+
+-- 2. Nueva tabla particionada por rango mensual de created_at
+ALTER TABLE ai_interactions RENAME TO ai_interactions_legacy;
+
+CREATE SEQUENCE IF NOT EXISTS ai_interactions_part_id_seq;
+
+CREATE TABLE ai_interactions (
+    id            BIGINT    NOT NULL DEFAULT nextval('ai_interactions_part_id_seq'),
+    user_id       BIGINT    NOT NULL REFERENCES users (id) ON DELETE CASCADE,
+    prompt        TEXT      NOT NULL,
+    response      BYTEA     NOT NULL,
+    tokens_used   INTEGER,
+    prompt_tokens INTEGER,
+    latency_ms    INTEGER,
+    created_at    TIMESTAMP NOT NULL,
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+ALTER SEQUENCE ai_interactions_part_id_seq OWNED BY ai_interactions.id;
+
+-- Índice por (user_id, created_at): se crea en cada partición automáticamente
+CREATE INDEX ai_interactions_user_created_idx ON ai_interactions (user_id, created_at DESC);
+
+-- 3. Particiones para los meses con datos históricos y los próximos 3 meses
+DO $$
+DECLARE
+    month_start DATE;
+    last_month  DATE := date_trunc('month', now())::date + INTERVAL '3 months';
+BEGIN
+    SELECT COALESCE(date_trunc('month', MIN(created_at))::date, date_trunc('month', now())::date)
+    INTO month_start FROM ai_interactions_legacy;
+
+    WHILE month_start <= last_month LOOP
+        EXECUTE format('CREATE TABLE IF NOT EXISTS ai_interactions_p%s PARTITION OF ai_interactions '
+                       'FOR VALUES FROM (%L) TO (%L)',
+                       to_char(month_start, 'YYYYMM'), month_start, (month_start + INTERVAL '1 month')::date);
+        month_start := (month_start + INTERVAL '1 month')::date;
+    END LOOP;
+END $$;
+
+-- 4. Migrar filas existentes (las respuestas viejas quedan en UTF-8 plano; el converter las lee igual)
+INSERT INTO ai_interactions (id, user_id, prompt, response, tokens_used, prompt_tokens, latency_ms, created_at)
+SELECT id, user_id, prompt, convert_to(response, 'UTF8'), tokens_used, prompt_tokens, latency_ms, created_at
+FROM ai_interactions_legacy;
+
+SELECT setval('ai_interactions_part_id_seq', COALESCE((SELECT MAX(id) FROM ai_interactions), 0) + 1, false);
+
+-- 5. Poblar el rollup con el histórico
+INSERT INTO ai_usage_daily (user_id, usage_date, requests, tokens_used, prompt_tokens, latency_ms_total)
+SELECT user_id, created_at::date, COUNT(*),
+       COALESCE(SUM(tokens_used), 0), COALESCE(SUM(prompt_tokens), 0), COALESCE(SUM(latency_ms), 0)
+FROM ai_interactions
+GROUP BY user_id, created_at::date
+ON CONFLICT (user_id, usage_date) DO NOTHING;
+
+DROP TABLE ai_interactions_legacy;
+
+COMMIT;
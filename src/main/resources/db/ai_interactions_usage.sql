@@ -0,0 +1,3 @@
+-- Uso de tokens (usageMetadata de Gemini) y latencia por interacción
+ALTER TABLE ai_interactions ADD COLUMN IF NOT EXISTS prompt_tokens INTEGER;
+ALTER TABLE ai_interactions ADD COLUMN IF NOT EXISTS latency_ms INTEGER;
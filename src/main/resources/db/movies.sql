@@ -0,0 +1,21 @@
+-- Catálogo local de películas: espejo del export diario de IDs de TMDb (movie_ids_MM_DD_YYYY.json.gz)
+CREATE TABLE IF NOT EXISTS movies (
+    id                     INTEGER PRIMARY KEY,
+    original_title         TEXT             NOT NULL,
+    normalized_title       TEXT             NOT NULL,
+    title                  TEXT,
+    normalized_local_title TEXT,
+    poster_path            VARCHAR(255),
+    release_date           VARCHAR(10),
+    popularity             DOUBLE PRECISION NOT NULL DEFAULT 0,
+    adult                  BOOLEAN          NOT NULL DEFAULT FALSE,
+    video                  BOOLEAN          NOT NULL DEFAULT FALSE,
+    deleted_at             TIMESTAMP,
+    updated_at             TIMESTAMP        NOT NULL
+);
+
+-- Búsqueda por prefijo y verificación por título exacto (solo filas vigentes)
+CREATE INDEX IF NOT EXISTS idx_movies_normalized_title
+    ON movies (normalized_title text_pattern_ops) WHERE deleted_at IS NULL;
+CREATE INDEX IF NOT EXISTS idx_movies_normalized_local_title
+    ON movies (normalized_local_title) WHERE deleted_at IS NULL;
@@ -0,0 +1,10 @@
+-- L2 del cache de TMDb: respuestas JSON crudas con expiración por tipo de recurso
+CREATE TABLE IF NOT EXISTS tmdb_cache (
+    cache_key  VARCHAR(512) PRIMARY KEY,
+    resource   VARCHAR(20)  NOT NULL,
+    payload    TEXT         NOT NULL,
+    expires_at TIMESTAMP    NOT NULL,
+    updated_at TIMESTAMP    NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_tmdb_cache_expires_at ON tmdb_cache (expires_at);
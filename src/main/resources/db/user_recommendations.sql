@@ -0,0 +1,7 @@
+-- Recomendaciones "Para ti" precalculadas por el batch nocturno (una fila por usuario)
+CREATE TABLE IF NOT EXISTS user_recommendations (
+    user_id         BIGINT PRIMARY KEY REFERENCES users (id) ON DELETE CASCADE,
+    recommendations TEXT      NOT NULL,
+    explanation     TEXT,
+    generated_at    TIMESTAMP NOT NULL
+);
@@ -0,0 +1,83 @@
+package com.movie.app.cache;
+
+import com.movie.app.cache.GeminiResponseCache.CachedRecommendation;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GeminiResponseCacheTest {
+
+    private static final CachedRecommendation RESULT = new CachedRecommendation(List.of(), "explicación", "{}");
+
+    private GeminiResponseCache cache(long ttlMinutes) {
+        return new GeminiResponseCache(new SimpleMeterRegistry(), 100, ttlMinutes, true, 50, 0.9);
+    }
+
+    @Test
+    void exactPromptIsServedRegardlessOfAccentsAndCase() {
+        GeminiResponseCache cache = cache(60);
+        cache.put("Películas de terror", 5, "", RESULT);
+
+        assertThat(cache.get("  peliculas DE terror ", 5, "")).isSameAs(RESULT);
+    }
+
+    @Test
+    void nearDuplicateDifferingOnlyInPunctuationIsAccepted() {
+        GeminiResponseCache cache = cache(60);
+        cache.put("Películas de terror de los años 80!", 5, null, RESULT);
+
+        assertThat(cache.get("peliculas de terror, de los años 80", 5, null)).isSameAs(RESULT);
+    }
+
+    @Test
+    void differentNumbersAreNeverNearDuplicates() {
+        GeminiResponseCache cache = cache(60);
+        cache.put("películas de los años 80", 5, null, RESULT);
+
+        assertThat(cache.get("películas de los años 90", 5, null)).isNull();
+    }
+
+    @Test
+    void negationChangesTheQuestion() {
+        GeminiResponseCache cache = cache(60);
+        cache.put("comedias de los noventa con romance", 5, null, RESULT);
+
+        assertThat(cache.get("comedias de los noventa sin romance", 5, null)).isNull();
+    }
+
+    @Test
+    void differentWordingIsRejected() {
+        GeminiResponseCache cache = cache(60);
+        cache.put("películas de terror psicológico", 5, null, RESULT);
+
+        assertThat(cache.get("películas de terror sobrenatural", 5, null)).isNull();
+    }
+
+    @Test
+    void nearDuplicatesRequireSameMaxRecommendationsAndNoUserContext() {
+        GeminiResponseCache cache = cache(60);
+        cache.put("Películas de terror de los años 80!", 5, null, RESULT);
+
+        assertThat(cache.get("peliculas de terror, de los años 80", 10, null)).isNull();
+        assertThat(cache.get("peliculas de terror, de los años 80", 5, "Favoritas: Alien")).isNull();
+    }
+
+    @Test
+    void expiredEntriesAreNotMatched() {
+        GeminiResponseCache cache = cache(0);
+        cache.put("Películas de terror de los años 80!", 5, null, RESULT);
+
+        assertThat(cache.get("Películas de terror de los años 80!", 5, null)).isNull();
+        assertThat(cache.get("peliculas de terror, de los años 80", 5, null)).isNull();
+    }
+
+    @Test
+    void fingerprintGuardKeepsNumbersAndNegations() {
+        assertThat(GeminiResponseCache.fingerprint("top 10 peliculas sin violencia").guard())
+                .isEqualTo("10|sin violencia|");
+        assertThat(GeminiResponseCache.fingerprint("peliculas de accion").guard()).isEmpty();
+    }
+}
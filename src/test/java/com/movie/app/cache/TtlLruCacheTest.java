@@ -0,0 +1,64 @@
+package com.movie.app.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TtlLruCacheTest {
+
+    @Test
+    void returnsValuesUntilTheyExpire() {
+        TtlLruCache<String, Integer> cache = new TtlLruCache<>(10);
+        cache.put("vigente", 1, Duration.ofMinutes(5));
+        cache.put("vencida", 2, Duration.ZERO);
+
+        assertThat(cache.get("vigente")).isEqualTo(1);
+        assertThat(cache.get("vencida")).isNull();
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedEntry() {
+        TtlLruCache<String, Integer> cache = new TtlLruCache<>(2);
+        cache.put("a", 1, Duration.ofMinutes(5));
+        cache.put("b", 2, Duration.ofMinutes(5));
+        cache.get("a");
+        cache.put("c", 3, Duration.ofMinutes(5));
+
+        assertThat(cache.get("a")).isEqualTo(1);
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("c")).isEqualTo(3);
+        assertThat(cache.evictionCount()).isEqualTo(1);
+    }
+
+    @Test
+    void countsHitsAndMissesInTheRegistry() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        TtlLruCache<String, Integer> cache = new TtlLruCache<String, Integer>(10).bindTo(registry, "test");
+        cache.put("a", 1, Duration.ofMinutes(5));
+        cache.get("a");
+        cache.get("a");
+        cache.get("b");
+
+        assertThat(registry.get("cache.gets").tag("cache", "test").tag("result", "hit").functionCounter().count())
+                .isEqualTo(2);
+        assertThat(registry.get("cache.gets").tag("cache", "test").tag("result", "miss").functionCounter().count())
+                .isEqualTo(1);
+        assertThat(registry.get("cache.size").tag("cache", "test").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void invalidateAndClearRemoveEntries() {
+        TtlLruCache<String, Integer> cache = new TtlLruCache<>(10);
+        cache.put("a", 1, Duration.ofMinutes(5));
+        cache.put("b", 2, Duration.ofMinutes(5));
+
+        cache.invalidate("a");
+        assertThat(cache.get("a")).isNull();
+        cache.clear();
+        assertThat(cache.size()).isZero();
+    }
+}
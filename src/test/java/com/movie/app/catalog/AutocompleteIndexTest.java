@@ -0,0 +1,176 @@
+package com.movie.app.catalog;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AutocompleteIndexTest {
+
+    @TempDir
+    private Path tempDir;
+
+    private int files;
+
+    @Test
+    void findsTitlesFromAnyWordStartIgnoringAccentsAndCase() throws IOException {
+        AutocompleteIndex index = build(List.of(
+                new Movie(13, "Forrest Gump", "Forrest Gump", 58.3, false),
+                new Movie(129, "El viaje de Chihiro", "Sen to Chihiro no Kamikakushi", 88.2, false),
+                new Movie(194, "Amélie", "Le Fabuleux Destin d'Amélie Poulain", 40.1, false),
+                new Movie(603, "Matrix", "The Matrix", 72.9, false)), false);
+
+        assertThat(ids(index, "forr")).containsExactly(13);
+        assertThat(ids(index, "GUMP")).containsExactly(13);
+        assertThat(ids(index, "chihi")).containsExactly(129);
+        assertThat(ids(index, "amelie")).containsExactly(194);
+        assertThat(ids(index, "Amél")).containsExactly(194);
+        assertThat(ids(index, "destin d amelie")).containsExactly(194);
+        assertThat(ids(index, "the matrix")).containsExactly(603);
+        // Solo desde el inicio de una palabra, no en medio
+        assertThat(ids(index, "atrix")).isEmpty();
+        assertThat(ids(index, "")).isEmpty();
+    }
+
+    @Test
+    void returnsTheMostPopularFirstAndCapsAtTopK() throws IOException {
+        List<Movie> movies = new ArrayList<>();
+        for (int id = 1; id <= 30; id++) {
+            movies.add(new Movie(id, "Star Movie " + id, "Star Movie " + id, id, false));
+        }
+        AutocompleteIndex index = build(movies, false);
+
+        // Prefijo corto (precalculado) y largo (recorrido acotado) dan el mismo orden
+        assertThat(ids(index, "st")).containsExactly(30, 29, 28, 27, 26, 25, 24, 23, 22, 21);
+        assertThat(ids(index, "star movie")).containsExactly(30, 29, 28, 27, 26, 25, 24, 23, 22, 21);
+        assertThat(ids(index, "star movie 1")).containsExactly(19, 18, 17, 16, 15, 14, 13, 12, 11, 10);
+        assertThat(index.search(AutocompleteIndex.normalize("star"), 3)).hasSize(3);
+    }
+
+    @Test
+    void titleMatchingTwiceCountsOnce() throws IOException {
+        AutocompleteIndex index = build(List.of(
+                new Movie(1, "Tora Tora Tora", "Tora! Tora! Tora!", 10, false),
+                new Movie(2, "Toro salvaje", "Raging Bull", 5, false)), false);
+
+        assertThat(ids(index, "tor")).containsExactly(1, 2);
+    }
+
+    @Test
+    void excludesAdultTitlesAtBuildTimeSoTheyNeverTakeTopSlots() throws IOException {
+        List<Movie> movies = new ArrayList<>();
+        for (int id = 1; id <= 15; id++) {
+            movies.add(new Movie(id, "Night " + id, "Night " + id, 100 + id, true));
+        }
+        movies.add(new Movie(20, "Night of the Living Dead", "Night of the Living Dead", 12.5, false));
+
+        AutocompleteIndex withoutAdult = build(movies, false);
+        AutocompleteIndex withAdult = build(movies, true);
+
+        assertThat(ids(withoutAdult, "ni")).containsExactly(20);
+        assertThat(ids(withoutAdult, "night")).containsExactly(20);
+        assertThat(withoutAdult.keyCount()).isEqualTo(5);
+        assertThat(ids(withAdult, "night")).hasSize(10).doesNotContain(20);
+    }
+
+    @Test
+    void incrementalUpdateMatchesAFullBuild() throws IOException {
+        Random random = new Random(42);
+        String[] words = {"la", "casa", "del", "papel", "noche", "amor", "star", "wars", "el", "señor",
+                "anillos", "ciudad", "perdida", "última", "guerra", "río", "matrix", "rey", "león"};
+        List<Movie> before = new ArrayList<>();
+        for (int id = 1; id <= 2000; id++) {
+            before.add(new Movie(id, title(random, words), title(random, words), random.nextInt(1000) / 10.0,
+                    random.nextInt(20) == 0));
+        }
+        // Cambios de una ingesta: títulos editados, bajas, altas, popularidad y marca de adulto
+        List<Movie> after = new ArrayList<>();
+        for (Movie movie : before) {
+            int change = random.nextInt(20);
+            if (change == 0) {
+                continue;
+            }
+            Movie changed = switch (change) {
+                case 1 -> new Movie(movie.id(), title(random, words), movie.originalTitle(), movie.popularity(), movie.adult());
+                case 2 -> new Movie(movie.id(), movie.title(), movie.originalTitle(), movie.popularity(), !movie.adult());
+                case 3, 4, 5 -> new Movie(movie.id(), movie.title(), movie.originalTitle(), random.nextInt(1000) / 10.0, movie.adult());
+                default -> movie;
+            };
+            after.add(changed);
+        }
+        for (int id = 2001; id <= 2100; id++) {
+            after.add(new Movie(id, title(random, words), title(random, words), random.nextInt(1000) / 10.0, false));
+        }
+
+        AutocompleteIndex previous = build(before, false);
+        CatalogSnapshot snapshot = write(after);
+        AutocompleteIndex updated = AutocompleteIndex.update(previous, snapshot, 5, 3, 10, 50, false);
+        AutocompleteIndex full = AutocompleteIndex.build(snapshot, 5, 3, 10, 50, false);
+
+        assertThat(updated.keyCount()).isEqualTo(full.keyCount());
+        for (String word : words) {
+            for (int length = 1; length <= word.length(); length++) {
+                String prefix = AutocompleteIndex.normalize(word.substring(0, length));
+                assertThat(ids(updated, prefix)).as(prefix).isEqualTo(ids(full, prefix));
+                assertThat(ids(updated, prefix + " ")).isEqualTo(ids(full, prefix + " "));
+            }
+            String twoWords = AutocompleteIndex.normalize(word + " " + words[random.nextInt(words.length)]);
+            assertThat(ids(updated, twoWords)).as(twoWords).isEqualTo(ids(full, twoWords));
+        }
+    }
+
+    @Test
+    void changedSettingsRebuildFromScratch() throws IOException {
+        List<Movie> movies = List.of(
+                new Movie(1, "Alien", "Alien", 50, false),
+                new Movie(2, "Aliens Adult", "Aliens Adult", 60, true));
+        CatalogSnapshot snapshot = write(movies);
+        AutocompleteIndex withoutAdult = AutocompleteIndex.build(snapshot, 5, 3, 10, 2000, false);
+
+        AutocompleteIndex withAdult = AutocompleteIndex.update(withoutAdult, snapshot, 5, 3, 10, 2000, true);
+
+        assertThat(ids(withAdult, "alien")).containsExactly(2, 1);
+    }
+
+    private record Movie(int id, String title, String originalTitle, double popularity, boolean adult) {
+    }
+
+    private AutocompleteIndex build(List<Movie> movies, boolean includeAdult) throws IOException {
+        return AutocompleteIndex.build(write(movies), 5, 3, 10, 2000, includeAdult);
+    }
+
+    private CatalogSnapshot write(List<Movie> movies) throws IOException {
+        Path file = tempDir.resolve("catalog-" + files++ + ".snap");
+        try (CatalogSnapshotWriter writer = new CatalogSnapshotWriter(file)) {
+            for (Movie movie : movies) {
+                writer.add(movie.id(), movie.title(), movie.originalTitle(), null, null, movie.popularity(),
+                        movie.adult(), false);
+            }
+            writer.finish();
+        }
+        return CatalogSnapshot.open(file);
+    }
+
+    private static List<Integer> ids(AutocompleteIndex index, String query) {
+        CatalogSnapshot snapshot = index.snapshot();
+        return Arrays.stream(index.search(AutocompleteIndex.normalize(query), 10))
+                .mapToObj(snapshot::movieId)
+                .toList();
+    }
+
+    private static String title(Random random, String[] words) {
+        StringBuilder title = new StringBuilder();
+        int count = 1 + random.nextInt(4);
+        for (int i = 0; i < count; i++) {
+            title.append(i == 0 ? "" : " ").append(words[random.nextInt(words.length)]);
+        }
+        return title.toString();
+    }
+}
@@ -0,0 +1,115 @@
+package com.movie.app.catalog;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CatalogSnapshotTest {
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void roundTripsRecordsAndFindsThemById() throws IOException {
+        Path file = tempDir.resolve("catalog.snap");
+        try (CatalogSnapshotWriter writer = new CatalogSnapshotWriter(file)) {
+            writer.add(13, "Forrest Gump", "Forrest Gump", "/gump.jpg", "1994-07-06", 58.3, false, false);
+            writer.add(129, "El viaje de Chihiro", "千と千尋の神隠し", null, null, 88.2, false, false);
+            writer.add(550, null, "Fight Club", "", "1999", 61.4, true, true);
+            writer.finish();
+        }
+
+        CatalogSnapshot snapshot = CatalogSnapshot.open(file);
+
+        assertThat(snapshot.size()).isEqualTo(3);
+        assertThat(snapshot.movieId(0)).isEqualTo(13);
+        assertThat(snapshot.movieId(2)).isEqualTo(550);
+
+        int chihiro = snapshot.indexOf(129);
+        assertThat(snapshot.title(chihiro)).isEqualTo("El viaje de Chihiro");
+        assertThat(snapshot.originalTitle(chihiro)).isEqualTo("千と千尋の神隠し");
+        assertThat(snapshot.posterPath(chihiro)).isNull();
+        assertThat(snapshot.year(chihiro)).isZero();
+        assertThat(snapshot.popularity(chihiro)).isEqualTo(88.2f);
+
+        int fightClub = snapshot.indexOf(550);
+        assertThat(snapshot.title(fightClub)).isEqualTo("Fight Club");
+        assertThat(snapshot.year(fightClub)).isEqualTo(1999);
+        assertThat(snapshot.adult(fightClub)).isTrue();
+        assertThat(snapshot.video(fightClub)).isTrue();
+
+        assertThat(snapshot.posterPath(snapshot.indexOf(13))).isEqualTo("/gump.jpg");
+        assertThat(snapshot.year(snapshot.indexOf(13))).isEqualTo(1994);
+        assertThat(snapshot.indexOf(14)).isEqualTo(-1);
+        assertThat(snapshot.contains(1)).isFalse();
+        assertThat(snapshot.contains(99999)).isFalse();
+    }
+
+    @Test
+    void rejectsIdsOutOfOrder() throws IOException {
+        try (CatalogSnapshotWriter writer = new CatalogSnapshotWriter(tempDir.resolve("catalog.snap"))) {
+            writer.add(10, "A", "A", null, null, 1, false, false);
+            assertThatThrownBy(() -> writer.add(10, "B", "B", null, null, 1, false, false))
+                    .isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> writer.add(5, "C", "C", null, null, 1, false, false))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+        assertThat(tempDir.resolve("catalog.snap")).doesNotExist();
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    void truncatesLongTitlesWithoutSplittingMultibyteCharacters() throws IOException {
+        // 'a' + "ñ" repetida: el corte en 65535 bytes cae en medio de un carácter de 2 bytes
+        String longTitle = "a" + "ñ".repeat(40_000);
+        Path file = tempDir.resolve("catalog.snap");
+        try (CatalogSnapshotWriter writer = new CatalogSnapshotWriter(file)) {
+            writer.add(1, null, longTitle, null, null, 1, false, false);
+            writer.finish();
+        }
+
+        String stored = CatalogSnapshot.open(file).originalTitle(0);
+
+        assertThat(stored.getBytes(StandardCharsets.UTF_8)).hasSizeLessThanOrEqualTo(0xFFFF);
+        assertThat(longTitle).startsWith(stored);
+        assertThat(stored).doesNotContain("�").hasSize(1 + (0xFFFF - 1) / 2);
+    }
+
+    @Test
+    void emptySnapshotHasNoRecords() throws IOException {
+        Path file = tempDir.resolve("catalog.snap");
+        try (CatalogSnapshotWriter writer = new CatalogSnapshotWriter(file)) {
+            writer.finish();
+        }
+
+        CatalogSnapshot snapshot = CatalogSnapshot.open(file);
+        assertThat(snapshot.size()).isZero();
+        assertThat(snapshot.indexOf(1)).isEqualTo(-1);
+    }
+
+    @Test
+    void rejectsTruncatedFiles() throws IOException {
+        Path file = tempDir.resolve("catalog.snap");
+        try (CatalogSnapshotWriter writer = new CatalogSnapshotWriter(file)) {
+            writer.add(1, "A", "A", null, null, 1, false, false);
+            writer.finish();
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(Files.size(file) - 1);
+        }
+
+        assertThatThrownBy(() -> CatalogSnapshot.open(file)).isInstanceOf(IOException.class);
+    }
+}
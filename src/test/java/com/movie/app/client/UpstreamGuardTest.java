@@ -0,0 +1,139 @@
+package com.movie.app.client;
+
+import com.movie.app.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UpstreamGuardTest {
+
+    //Ventana de 4, mínimo 4 llamadas, 50% de fallos abre; 2 pruebas en half-open
+    private static UpstreamGuard guard(Duration openDuration) {
+        UpstreamGuard.Settings settings = new UpstreamGuard.Settings(2, Duration.ofMillis(10), 4, 4, 0.5,
+                Duration.ofSeconds(5), openDuration, 2);
+        return new UpstreamGuard("test", settings, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void opensWhenFailureRateReachesThreshold() {
+        UpstreamGuard guard = guard(Duration.ofMinutes(1));
+        succeed(guard);
+        succeed(guard);
+        fail(guard);
+        assertThat(guard.getState()).isEqualTo(UpstreamGuard.State.CLOSED);
+
+        fail(guard);
+        assertThat(guard.getState()).isEqualTo(UpstreamGuard.State.OPEN);
+        assertThat(guard.isCallPermitted()).isFalse();
+        assertThatThrownBy(() -> guard.call(() -> "x"))
+                .isInstanceOf(ServiceUnavailableException.class)
+                .hasMessageContaining("no disponible");
+    }
+
+    @Test
+    void staysClosedBelowMinimumCalls() {
+        UpstreamGuard guard = guard(Duration.ofMinutes(1));
+        fail(guard);
+        fail(guard);
+        fail(guard);
+
+        assertThat(guard.getState()).isEqualTo(UpstreamGuard.State.CLOSED);
+    }
+
+    @Test
+    void halfOpenClosesAfterSuccessfulTrials() {
+        UpstreamGuard guard = openGuard();
+        assertThat(guard.isCallPermitted()).isTrue();
+
+        succeed(guard);
+        assertThat(guard.getState()).isEqualTo(UpstreamGuard.State.HALF_OPEN);
+        succeed(guard);
+        assertThat(guard.getState()).isEqualTo(UpstreamGuard.State.CLOSED);
+    }
+
+    @Test
+    void failedTrialReopensTheCircuit() {
+        UpstreamGuard guard = openGuard();
+
+        fail(guard);
+        assertThat(guard.getState()).isEqualTo(UpstreamGuard.State.OPEN);
+    }
+
+    @Test
+    void bulkheadRejectsCallsBeyondTheLimit() throws Exception {
+        UpstreamGuard guard = guard(Duration.ofMinutes(1));
+        CountDownLatch inside = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<?> first = executor.submit(() -> guard.call(() -> block(inside, release)));
+            Future<?> second = executor.submit(() -> guard.call(() -> block(inside, release)));
+            inside.await();
+
+            assertThatThrownBy(() -> guard.call(() -> "x"))
+                    .isInstanceOf(ServiceUnavailableException.class)
+                    .hasMessageContaining("saturado");
+            release.countDown();
+            first.get();
+            second.get();
+        }
+        assertThat(guard.call(() -> "x")).isEqualTo("x");
+    }
+
+    //Guard abierto con open-duration 0: la siguiente llamada entra en half-open
+    private static UpstreamGuard openGuard() {
+        UpstreamGuard guard = guard(Duration.ZERO);
+        for (int i = 0; i < 4; i++) {
+            fail(guard);
+        }
+        assertThat(guard.getState()).isEqualTo(UpstreamGuard.State.OPEN);
+        return guard;
+    }
+
+    @Test
+    void extraPermitsShareTheBulkheadAndReleaseOnce() {
+        UpstreamGuard guard = guard(Duration.ofMinutes(1));
+        UpstreamGuard.Permit first = guard.tryAcquireExtraPermit();
+        UpstreamGuard.Permit second = guard.tryAcquireExtraPermit();
+
+        assertThat(first).isNotNull();
+        assertThat(second).isNotNull();
+        assertThat(guard.tryAcquireExtraPermit()).isNull();
+        assertThatThrownBy(() -> guard.call(() -> "x"))
+                .isInstanceOf(ServiceUnavailableException.class)
+                .hasMessageContaining("saturado");
+
+        first.close();
+        first.close();
+        assertThat(guard.tryAcquireExtraPermit()).isNotNull();
+        assertThat(guard.tryAcquireExtraPermit()).isNull();
+    }
+
+    private static void succeed(UpstreamGuard guard) {
+        guard.call(() -> "ok");
+    }
+
+    private static void fail(UpstreamGuard guard) {
+        assertThatThrownBy(() -> guard.call(() -> {
+            throw new IllegalStateException("falla");
+        })).isInstanceOf(IllegalStateException.class);
+    }
+
+    private static String block(CountDownLatch inside, CountDownLatch release) {
+        inside.countDown();
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "ok";
+    }
+}
@@ -0,0 +1,114 @@
+package com.movie.app.controller;
+
+import com.movie.app.config.SecurityConfig;
+import com.movie.app.model.dto.ai.response.AIJobResponse;
+import com.movie.app.model.dto.ai.response.AIRecommendationResponse;
+import com.movie.app.model.entity.UserPlan;
+import com.movie.app.security.JwtAuthenticationEntryPoint;
+import com.movie.app.security.JwtTokenProvider;
+import com.movie.app.security.UserPrincipal;
+import com.movie.app.service.AIRecommendationJobService;
+import com.movie.app.service.AIRecommendationService;
+import com.movie.app.service.ForYouRecommendationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+//Endpoints que devuelven CompletableFuture pasan dos veces por la cadena de seguridad (REQUEST y ASYNC)
+@WebMvcTest(AIRecommendationController.class)
+@Import({SecurityConfig.class, JwtAuthenticationEntryPoint.class})
+class AIRecommendationControllerTest {
+    private static final String TOKEN = "Bearer token-valido";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private JwtTokenProvider tokenProvider;
+    @MockitoBean
+    private UserDetailsService userDetailsService;
+    @MockitoBean
+    private AIRecommendationService aiRecommendationService;
+    @MockitoBean
+    private AIRecommendationJobService aiRecommendationJobService;
+    @MockitoBean
+    private ForYouRecommendationService forYouRecommendationService;
+    @MockitoBean
+    private ExecutorService virtualThreadExecutor;
+
+    @BeforeEach
+    void authenticate() {
+        when(tokenProvider.validateToken("token-valido")).thenReturn(true);
+        when(tokenProvider.getUserIdFromToken("token-valido")).thenReturn(1L);
+        when(userDetailsService.loadUserByUsername("1")).thenReturn(new UserPrincipal(1L, "ana@test.com", "hash",
+                "Ana", UserPlan.FREE, true, List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+    }
+
+    @Test
+    void recommendCompletesAsyncDispatchWithOk() throws Exception {
+        when(aiRecommendationService.getRecommendationAsync(eq(1L), any()))
+                .thenReturn(CompletableFuture.completedFuture(AIRecommendationResponse.builder()
+                        .explanation("Explicación")
+                        .build()));
+
+        MvcResult result = mockMvc.perform(post("/api/ai/recommend")
+                        .header("Authorization", TOKEN)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"prompt\":\"películas de ciencia ficción\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.data.explanation").value("Explicación"));
+    }
+
+    @Test
+    void jobLongPollCompletesAsyncDispatchWithOk() throws Exception {
+        when(aiRecommendationJobService.awaitJob(eq(1L), eq("job-1"), anyLong()))
+                .thenReturn(CompletableFuture.completedFuture(AIJobResponse.builder().jobId("job-1").build()));
+
+        MvcResult result = mockMvc.perform(get("/api/ai/jobs/job-1")
+                        .header("Authorization", TOKEN)
+                        .param("waitMs", "1000"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.jobId").value("job-1"));
+    }
+
+    @Test
+    void recommendWithoutTokenIsRejectedBeforeTheAsyncDispatch() throws Exception {
+        mockMvc.perform(post("/api/ai/recommend")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"prompt\":\"películas de ciencia ficción\"}"))
+                .andExpect(status().isUnauthorized())
+                .andExpect(request().asyncNotStarted());
+    }
+}
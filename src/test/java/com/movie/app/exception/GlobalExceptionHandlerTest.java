@@ -0,0 +1,44 @@
+package com.movie.app.exception;
+
+import com.movie.app.model.dto.common.ErrorResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GlobalExceptionHandlerTest {
+
+    @Test
+    void ownExceptionsKeepTheirStatusAndMessage() {
+        ErrorResponse unavailable = GlobalExceptionHandler.toErrorResponse(
+                new ServiceUnavailableException("Servicio gemini no disponible temporalmente"), "/api/ai/recommend/stream");
+        assertThat(unavailable.getStatus()).isEqualTo(503);
+        assertThat(unavailable.getMessage()).isEqualTo("Servicio gemini no disponible temporalmente");
+        assertThat(unavailable.getPath()).isEqualTo("/api/ai/recommend/stream");
+
+        assertThat(GlobalExceptionHandler.toErrorResponse(new TooManyRequestsException("Espera"), "/x").getStatus())
+                .isEqualTo(429);
+        assertThat(GlobalExceptionHandler.toErrorResponse(new AIQuotaExceededException("Límite"), "/x").getStatus())
+                .isEqualTo(400);
+    }
+
+    @Test
+    void wrappedExceptionsAreUnwrapped() {
+        ErrorResponse error = GlobalExceptionHandler.toErrorResponse(
+                new CompletionException(new ResourceNotFoundException("Job no encontrado")), "/api/ai/jobs/1");
+
+        assertThat(error.getStatus()).isEqualTo(404);
+        assertThat(error.getMessage()).isEqualTo("Job no encontrado");
+    }
+
+    @Test
+    void unexpectedErrorsHideTheirMessage() {
+        ErrorResponse error = GlobalExceptionHandler.toErrorResponse(
+                new IllegalStateException("connection reset by peer at 10.0.0.3"), "/x");
+
+        assertThat(error.getStatus()).isEqualTo(500);
+        assertThat(error.getMessage()).doesNotContain("10.0.0.3");
+        assertThat(GlobalExceptionHandler.toErrorResponse(new OutOfMemoryError("heap"), "/x").getStatus()).isEqualTo(500);
+    }
+}
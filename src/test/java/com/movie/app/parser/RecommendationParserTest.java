@@ -0,0 +1,68 @@
+package com.movie.app.parser;
+
+import com.movie.app.model.dto.ai.response.MovieRecommendation;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+class RecommendationParserTest {
+
+    @Test
+    void parsesRecommendationsAndExplanation() throws IOException {
+        RecommendationParser.ParsedRecommendations parsed = RecommendationParser.parse("""
+                {"recommendations":[{"movieId":603,"title":"The Matrix","reason":"Ciencia ficción"}],
+                 "explanation":"Porque te gusta la ciencia ficción"}
+                """);
+
+        assertThat(parsed.recommendations()).extracting(MovieRecommendation::getMovieId, MovieRecommendation::getTitle)
+                .containsExactly(tuple(603, "The Matrix"));
+        assertThat(parsed.explanation()).isEqualTo("Porque te gusta la ciencia ficción");
+    }
+
+    @Test
+    void ignoresMarkdownFencesAndTrailingText() throws IOException {
+        RecommendationParser.ParsedRecommendations parsed = RecommendationParser.parse("""
+                ```json
+                {"recommendations":[{"title":"Alien"}]}
+                ```
+                Espero que te gusten
+                """);
+
+        assertThat(parsed.recommendations()).extracting(MovieRecommendation::getTitle).containsExactly("Alien");
+        assertThat(parsed.recommendations().get(0).getReason()).isEmpty();
+        assertThat(parsed.explanation()).isEqualTo(RecommendationParser.DEFAULT_EXPLANATION);
+    }
+
+    @Test
+    void skipsEntriesWithoutTitleAndBadValues() throws IOException {
+        RecommendationParser.ParsedRecommendations parsed = RecommendationParser.parse("""
+                {"recommendations":[
+                  {"movieId":1,"reason":"sin título"},
+                  "texto suelto",
+                  {"movieId":"abc","title":"Heat","extra":{"a":[1,2]}},
+                  {"movieId":null,"title":null}
+                ],"explanation":"   "}
+                """);
+
+        assertThat(parsed.recommendations()).hasSize(1);
+        assertThat(parsed.recommendations().get(0).getTitle()).isEqualTo("Heat");
+        assertThat(parsed.recommendations().get(0).getMovieId()).isZero();
+        assertThat(parsed.explanation()).isEqualTo(RecommendationParser.DEFAULT_EXPLANATION);
+    }
+
+    @Test
+    void rejectsResponseWithoutJsonObject() {
+        assertThatThrownBy(() -> RecommendationParser.parse("No puedo ayudarte con eso"))
+                .isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void failsOnTruncatedJson() {
+        assertThatThrownBy(() -> RecommendationParser.parse("{\"recommendations\":[{\"title\":\"Heat\""))
+                .isInstanceOf(IOException.class);
+    }
+}
@@ -0,0 +1,72 @@
+package com.movie.app.parser;
+
+import com.google.gson.Gson;
+import com.movie.app.model.dto.ai.response.MovieRecommendation;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecommendationStreamParserTest {
+    private final List<MovieRecommendation> emitted = new ArrayList<>();
+    private final RecommendationStreamParser parser = new RecommendationStreamParser(new Gson(), emitted::add);
+
+    @Test
+    void emitsEachObjectAsSoonAsItCloses() {
+        parser.feed("{\"recommendations\":[{\"movieId\":603,\"title\":\"The Matrix\",\"reason\":\"a\"},");
+        assertThat(emitted).extracting(MovieRecommendation::getTitle).containsExactly("The Matrix");
+
+        parser.feed("{\"movieId\":1,\"title\":\"Heat\"");
+        assertThat(emitted).hasSize(1);
+
+        parser.feed("}]");
+        assertThat(emitted).extracting(MovieRecommendation::getTitle).containsExactly("The Matrix", "Heat");
+    }
+
+    @Test
+    void handlesKeysBracesAndEscapesSplitAcrossChunks() {
+        String json = "```json\n{\"recommendations\":[{\"title\":\"Llaves } y ] \\\"raras\\\"\",\"reason\":\"{x}\"}],"
+                + "\"explanation\":\"Explicación con \\\"comillas\\\"\"}\n```";
+        for (char c : json.toCharArray()) {
+            parser.feed(String.valueOf(c));
+        }
+
+        assertThat(emitted).extracting(MovieRecommendation::getTitle).containsExactly("Llaves } y ] \"raras\"");
+        assertThat(emitted.get(0).getReason()).isEqualTo("{x}");
+        assertThat(parser.explanation()).isEqualTo("Explicación con \"comillas\"");
+    }
+
+    @Test
+    void skipsMalformedObjectsAndEntriesWithoutTitle() {
+        parser.feed("{\"recommendations\":[{\"title\":\"A\" \"reason\":}, {\"movieId\":2}, {\"title\":null},"
+                + " {\"movieId\":\"x\",\"title\":\"B\"}]}");
+
+        assertThat(emitted).extracting(MovieRecommendation::getTitle).containsExactly("B");
+        assertThat(emitted.get(0).getMovieId()).isZero();
+    }
+
+    @Test
+    void readsExplanationBeforeTheArray() {
+        parser.feed("{\"explanation\":\"Primero\",\"recommendations\":[{\"title\":\"A\",\"explanation\":\"no\"}]}");
+
+        assertThat(parser.explanation()).isEqualTo("Primero");
+    }
+
+    @Test
+    void ignoresExplanationInsideRecommendations() {
+        parser.feed("{\"recommendations\":[{\"title\":\"A\",\"reason\":\"x\",\"explanation\":\"no\"}]}");
+
+        assertThat(parser.explanation()).isNull();
+    }
+
+    @Test
+    void partialResponseKeepsEmittedItemsAndHasNoExplanation() {
+        parser.feed("{\"recommendations\":[{\"title\":\"A\"},{\"title\":\"B\"");
+        parser.feed("}],\"explanation\":\"cortada");
+
+        assertThat(emitted).extracting(MovieRecommendation::getTitle).containsExactly("A", "B");
+        assertThat(parser.explanation()).isNull();
+    }
+}
@@ -0,0 +1,99 @@
+package com.movie.app.recommender;
+
+import com.movie.app.recommender.ItemSimilarityModel.ScoredMovie;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ItemSimilarityModelTest {
+
+    //Usuarios 1-3 ven 10 y 20 juntas; 30 solo la ven los usuarios 3 y 4 (película popular poco relacionada)
+    private static InteractionMatrix interactions() {
+        InteractionMatrix matrix = new InteractionMatrix();
+        matrix.add(1, 10, 1f);
+        matrix.add(1, 20, 1f);
+        matrix.add(2, 10, 1f);
+        matrix.add(2, 20, 0.8f);
+        matrix.add(3, 10, 1f);
+        matrix.add(3, 20, 1f);
+        matrix.add(3, 30, 1f);
+        matrix.add(4, 30, 1f);
+        matrix.add(4, 40, 1f);
+        matrix.add(5, 30, 1f);
+        matrix.add(5, 40, 1f);
+        return matrix;
+    }
+
+    private static ItemSimilarityModel model(Map<Integer, String> titles) {
+        InteractionMatrix matrix = interactions();
+        titles.forEach(matrix::putTitle);
+        return ItemSimilarityModel.build(matrix, 10, 2);
+    }
+
+    @Test
+    void recommendsNeighborsOfTheSeedsAndExplainsThem() {
+        ItemSimilarityModel model = model(Map.of(10, "Alien", 20, "Aliens", 30, "Heat", 40, "Ronin"));
+
+        List<ScoredMovie> result = model.recommend(new int[]{10}, new float[]{1f}, new int[]{10}, 1);
+
+        assertThat(result).singleElement().satisfies(movie -> {
+            assertThat(movie.movieId()).isEqualTo(20);
+            assertThat(movie.becauseOf()).isEqualTo("Alien");
+            assertThat(movie.score()).isPositive();
+        });
+    }
+
+    @Test
+    void neverReturnsExcludedMoviesAndFillsWithPopular() {
+        ItemSimilarityModel model = model(Map.of(10, "Alien", 20, "Aliens", 30, "Heat", 40, "Ronin"));
+
+        List<ScoredMovie> result = model.recommend(new int[]{10}, new float[]{1f}, new int[]{10, 20}, 5);
+
+        assertThat(result).extracting(ScoredMovie::movieId).doesNotContain(10, 20).contains(30, 40);
+        assertThat(result).filteredOn(movie -> movie.movieId() == 40)
+                .singleElement().extracting(ScoredMovie::becauseOf).isNull();
+    }
+
+    @Test
+    void pairsBelowMinCoRatersAreNotNeighbors() {
+        ItemSimilarityModel model = model(Map.of(10, "Alien", 20, "Aliens", 30, "Heat", 40, "Ronin"));
+
+        // 10 y 30 solo coinciden en el usuario 3: con minCoRaters = 2 no son vecinas y 30 llega como popular
+        List<ScoredMovie> result = model.recommend(new int[]{10}, new float[]{1f}, new int[]{10, 20}, 5);
+
+        assertThat(result).filteredOn(movie -> movie.movieId() == 30)
+                .singleElement().satisfies(movie -> assertThat(movie.score()).isZero());
+    }
+
+    @Test
+    void moviesWithoutTitleAreNeitherRecommendedNorExplained() {
+        ItemSimilarityModel model = model(Map.of(20, "Aliens", 30, "Heat"));
+
+        List<ScoredMovie> result = model.recommend(new int[]{10}, new float[]{1f}, new int[]{10}, 5);
+
+        assertThat(result).extracting(ScoredMovie::movieId).doesNotContain(40);
+        assertThat(result).filteredOn(movie -> movie.movieId() == 20)
+                .singleElement().extracting(ScoredMovie::becauseOf).isNull();
+    }
+
+    @Test
+    void missingTitlesAreFilledFromTheLookup() {
+        InteractionMatrix matrix = interactions();
+        matrix.putTitle(20, "Aliens");
+        matrix.fillMissingTitles(movieId -> movieId == 10 ? "Alien" : null);
+        ItemSimilarityModel model = ItemSimilarityModel.build(matrix, 10, 2);
+
+        List<ScoredMovie> result = model.recommend(new int[]{10}, new float[]{1f}, new int[]{10}, 1);
+
+        assertThat(result).singleElement().extracting(ScoredMovie::becauseOf).isEqualTo("Alien");
+    }
+
+    @Test
+    void emptyModelRecommendsNothing() {
+        assertThat(ItemSimilarityModel.build(new InteractionMatrix(), 10, 2)
+                .recommend(new int[]{1}, new float[]{1f}, new int[0], 5)).isEmpty();
+    }
+}
@@ -0,0 +1,170 @@
+package com.movie.app.service.impl;
+
+import com.movie.app.exception.AIQuotaExceededException;
+import com.movie.app.exception.ResourceNotFoundException;
+import com.movie.app.model.entity.User;
+import com.movie.app.model.entity.UserPlan;
+import com.movie.app.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+//Reserva de cuota contra PostgreSQL real: el CTE (reset diario + límite + incremento) solo se puede probar ahí.
+//Sin transacción de test para que cada reserva confirme por su cuenta, como en producción
+@Testcontainers(disabledWithoutDocker = true)
+@DataJpaTest(properties = "ai.free-daily-limit=2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(AIQuotaManager.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AIQuotaManagerTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
+    }
+
+    @Autowired
+    private AIQuotaManager quotaManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void reservesUntilTheDailyLimitAndThenRejects() {
+        Long userId = user(UserPlan.FREE, 0, null);
+
+        assertThat(quotaManager.reserve(userId).requestsRemainingToday()).isEqualTo(1);
+        assertThat(quotaManager.reserve(userId).requestsRemainingToday()).isZero();
+        assertThatThrownBy(() -> quotaManager.reserve(userId)).isInstanceOf(AIQuotaExceededException.class);
+
+        assertThat(requestsToday(userId)).isEqualTo(2);
+        assertThat(quotaManager.getLimit(userId).getCanRequest()).isFalse();
+    }
+
+    @Test
+    void counterFromAPreviousDayStartsOver() {
+        Long userId = user(UserPlan.FREE, 2, LocalDateTime.now().minusDays(1));
+
+        assertThat(quotaManager.getLimit(userId).getRequestsRemainingToday()).isEqualTo(2);
+        assertThat(quotaManager.reserve(userId).requestsToday()).isEqualTo(1);
+
+        User stored = userRepository.findById(userId).orElseThrow();
+        assertThat(stored.getAiRequestsToday()).isEqualTo(1);
+        assertThat(stored.getAiLastReset()).isAfter(LocalDateTime.now().toLocalDate().atStartOfDay());
+    }
+
+    @Test
+    void premiumUsersAreNeverCountedOrRejected() {
+        Long userId = user(UserPlan.PREMIUM, 0, null);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(quotaManager.reserve(userId).requestsRemainingToday()).isNull();
+        }
+        assertThat(requestsToday(userId)).isZero();
+    }
+
+    @Test
+    void refundGivesBackOneReservation() {
+        Long userId = user(UserPlan.FREE, 0, null);
+        quotaManager.reserve(userId);
+        AIQuotaManager.QuotaReservation last = quotaManager.reserve(userId);
+
+        quotaManager.refund(last);
+
+        assertThat(requestsToday(userId)).isEqualTo(1);
+        assertThat(quotaManager.reserve(userId).requestsToday()).isEqualTo(2);
+    }
+
+    @Test
+    void refundFromBeforeMidnightDoesNotTouchTodaysCounter() {
+        LocalDateTime today = LocalDateTime.now().toLocalDate().atStartOfDay();
+        Long userId = user(UserPlan.FREE, 1, LocalDateTime.now());
+        AIQuotaManager.QuotaReservation yesterday =
+                new AIQuotaManager.QuotaReservation(userId, UserPlan.FREE, 1, 2, today.minusDays(1));
+
+        quotaManager.refund(yesterday);
+
+        assertThat(requestsToday(userId)).isEqualTo(1);
+    }
+
+    @Test
+    void unknownUserIsNotFound() {
+        assertThatThrownBy(() -> quotaManager.reserve(Long.MAX_VALUE)).isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void concurrentReservationsNeverExceedTheLimit() throws Exception {
+        Long userId = user(UserPlan.FREE, 0, LocalDateTime.now().minusDays(1));
+        int attempts = 16;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < attempts; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        quotaManager.reserve(userId);
+                        return true;
+                    } catch (AIQuotaExceededException e) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+        }
+
+        int granted = 0;
+        for (Future<Boolean> result : results) {
+            granted += result.get() ? 1 : 0;
+        }
+        assertThat(granted).isEqualTo(2);
+        assertThat(requestsToday(userId)).isEqualTo(2);
+    }
+
+    private Long user(UserPlan plan, int requestsToday, LocalDateTime lastReset) {
+        return userRepository.save(User.builder()
+                .email(plan + "-" + System.nanoTime() + "@test.com")
+                .passwordHash("hash")
+                .plan(plan)
+                .aiRequestsToday(requestsToday)
+                .aiLastReset(lastReset)
+                .build()).getId();
+    }
+
+    private int requestsToday(Long userId) {
+        return userRepository.findById(userId).orElseThrow().getAiRequestsToday();
+    }
+}
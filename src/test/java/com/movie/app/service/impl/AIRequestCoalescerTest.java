@@ -0,0 +1,109 @@
+package com.movie.app.service.impl;
+
+import com.movie.app.exception.ServiceUnavailableException;
+import com.movie.app.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AIRequestCoalescerTest {
+
+    private final AIRequestCoalescer coalescer = new AIRequestCoalescer(new SimpleMeterRegistry(), 2);
+
+    @Test
+    void identicalConcurrentRequestsShareOneCall() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            CompletableFuture<String> leader = CompletableFuture.supplyAsync(() -> coalescer.execute("k", 1L, () -> {
+                calls.incrementAndGet();
+                leaderStarted.countDown();
+                await(release);
+                return "resultado";
+            }), executor);
+            leaderStarted.await();
+            CompletableFuture<String> joiner = CompletableFuture.supplyAsync(
+                    () -> coalescer.execute("k", 2L, () -> "otro"), executor);
+
+            Thread.sleep(50);
+            release.countDown();
+            assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("resultado");
+            assertThat(joiner.get(5, TimeUnit.SECONDS)).isEqualTo("resultado");
+        }
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void leaderFailureIsPropagatedToJoiners() throws Exception {
+        assertJoinerSees(new ServiceUnavailableException("Gemini caído"), ServiceUnavailableException.class);
+    }
+
+    @Test
+    void leaderErrorDoesNotLeaveJoinersWaiting() throws Exception {
+        assertJoinerSees(new StackOverflowError(), StackOverflowError.class);
+    }
+
+    @Test
+    void keyIsReleasedAfterTheCall() {
+        assertThat(coalescer.<String>execute("k", 1L, () -> "a")).isEqualTo("a");
+        assertThat(coalescer.<String>execute("k", 1L, () -> "b")).isEqualTo("b");
+    }
+
+    @Test
+    void inFlightLimitPerUserIsEnforcedAndReleased() {
+        AIRequestCoalescer.InFlightPermit first = coalescer.acquire(7L);
+        AIRequestCoalescer.InFlightPermit second = coalescer.acquire(7L);
+        assertThatThrownBy(() -> coalescer.acquire(7L)).isInstanceOf(TooManyRequestsException.class);
+
+        first.close();
+        coalescer.acquire(7L).close();
+        second.close();
+    }
+
+    private void assertJoinerSees(Throwable failure, Class<? extends Throwable> expected) throws Exception {
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            CompletableFuture<Object> leader = CompletableFuture.supplyAsync(() -> coalescer.execute("k", 1L, () -> {
+                leaderStarted.countDown();
+                await(release);
+                throwUnchecked(failure);
+                return null;
+            }), executor);
+            leaderStarted.await();
+            CompletableFuture<Object> joiner = CompletableFuture.supplyAsync(
+                    () -> coalescer.execute("k", 2L, () -> "no debería ejecutarse"), executor);
+
+            Thread.sleep(50);
+            release.countDown();
+            assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(expected);
+            assertThatThrownBy(() -> joiner.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(expected);
+        }
+    }
+
+    private static void throwUnchecked(Throwable failure) {
+        if (failure instanceof Error error) {
+            throw error;
+        }
+        throw (RuntimeException) failure;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.movie.app.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.movie.app.event.CatalogUpdatedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.OkHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.UnaryOperator;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//Ingesta contra PostgreSQL real: el salto por delta y el borrado lógico dependen del SQL (ON CONFLICT ... WHERE)
+@Testcontainers(disabledWithoutDocker = true)
+class CatalogIngestionJobTest {
+    private static final Path FIXTURE = Path.of("src/test/resources/catalog/movie_ids_fixture.json");
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @TempDir
+    private Path tempDir;
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private ExecutorService executor;
+    private SimpleMeterRegistry meterRegistry;
+    private final List<CatalogUpdatedEvent> events = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+        new ResourceDatabasePopulator(new ClassPathResource("db/movies.sql")).execute(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("TRUNCATE movies");
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void ingestsPlainAndGzipExportsAlike() throws IOException {
+        ingest(gzip(FIXTURE));
+        assertThat(activeIds()).hasSize(10);
+        assertThat(title(129)).isEqualTo("千と千尋の神隠し");
+
+        jdbcTemplate.execute("TRUNCATE movies");
+        ingest(FIXTURE);
+        assertThat(activeIds()).hasSize(10);
+        assertThat(events).hasSize(2);
+    }
+
+    @Test
+    void skipsRowsWhosePopularityMovedLessThanTheDelta() throws IOException {
+        ingest(FIXTURE);
+        Timestamp before = updatedAt(550);
+        double upsertedBefore = upserted();
+
+        ingest(export(lines -> lines.stream()
+                .map(line -> line.replace("\"popularity\":61.4", "\"popularity\":61.9"))
+                .map(line -> line.replace("\"popularity\":72.9", "\"popularity\":80.0"))
+                .toList()));
+
+        assertThat(updatedAt(550)).isEqualTo(before);
+        assertThat(popularity(550)).isEqualTo(61.4);
+        assertThat(popularity(603)).isEqualTo(80.0);
+        assertThat(upserted() - upsertedBefore).isEqualTo(1);
+    }
+
+    @Test
+    void softDeletesIdsMissingFromTheExportAndRestoresThemLater() throws IOException {
+        ingest(FIXTURE);
+
+        ingest(export(lines -> lines.stream().filter(line -> !line.contains("\"id\":238,")).toList()));
+        assertThat(activeIds()).hasSize(9).doesNotContain(238);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM movies", Integer.class)).isEqualTo(10);
+
+        ingest(FIXTURE);
+        assertThat(activeIds()).hasSize(10).contains(238);
+    }
+
+    @Test
+    void truncatedExportDoesNotDeleteTheCatalog() throws IOException {
+        ingest(FIXTURE);
+
+        ingest(export(lines -> lines.subList(0, 3)));
+
+        assertThat(activeIds()).hasSize(10);
+    }
+
+    @Test
+    void streamFailingMidwayStillPublishesTheCommittedBatches() throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (int id = 1; id <= 5000; id++) {
+            lines.add("{\"adult\":false,\"id\":" + id + ",\"original_title\":\"Movie " + id
+                    + "\",\"popularity\":" + id + ".0,\"video\":false}");
+        }
+        Path plain = export(ignored -> lines);
+        Path gzip = gzip(plain);
+        // Cortar el final del gzip: la descompresión falla después de varios batches confirmados
+        try (FileChannel channel = FileChannel.open(gzip, StandardOpenOption.WRITE)) {
+            channel.truncate(Files.size(gzip) - 200);
+        }
+
+        ingest(gzip);
+
+        assertThat(activeIds()).isNotEmpty().hasSizeLessThan(5000);
+        assertThat(events).hasSize(1);
+        assertThat(events.get(0).upserted()).isEqualTo(activeIds().size());
+        assertThat(events.get(0).deleted()).isZero();
+    }
+
+    private void ingest(Path source) {
+        new CatalogIngestionJob(jdbcTemplate, transactionTemplate, new OkHttpClient(), new ObjectMapper(),
+                event -> events.add((CatalogUpdatedEvent) event), executor, meterRegistry,
+                source.toString(), false, 3, 1.0, 0.9).ingest();
+    }
+
+    private Path export(UnaryOperator<List<String>> edit) throws IOException {
+        Path file = Files.createTempFile(tempDir, "movie_ids", ".json");
+        Files.write(file, edit.apply(Files.readAllLines(FIXTURE, StandardCharsets.UTF_8)), StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private Path gzip(Path source) throws IOException {
+        Path file = tempDir.resolve("movie_ids.json.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file))) {
+            Files.copy(source, out);
+        }
+        return file;
+    }
+
+    private List<Integer> activeIds() {
+        return jdbcTemplate.queryForList("SELECT id FROM movies WHERE deleted_at IS NULL", Integer.class);
+    }
+
+    private String title(int id) {
+        return jdbcTemplate.queryForObject("SELECT original_title FROM movies WHERE id = ?", String.class, id);
+    }
+
+    private double popularity(int id) {
+        return jdbcTemplate.queryForObject("SELECT popularity FROM movies WHERE id = ?", Double.class, id);
+    }
+
+    private Timestamp updatedAt(int id) {
+        return jdbcTemplate.queryForObject("SELECT updated_at FROM movies WHERE id = ?", Timestamp.class, id);
+    }
+
+    private double upserted() {
+        return meterRegistry.counter("catalog.ingestion.rows", "result", "upserted").count();
+    }
+}